@@ -0,0 +1,39 @@
+#!/bin/sh
+# Starts the application in the mode baked into the image (START_MODE).
+set -e
+
+APP_JAR=/app/extracted/app.jar
+CRAC_DIR="${CRAC_CHECKPOINT_DIR:-/crac}"
+
+if [ "$AOT_ENABLED" = "true" ]; then
+    JAVA_OPTS="$JAVA_OPTS -Dspring.aot.enabled=true"
+fi
+
+has_checkpoint() {
+    ls "$CRAC_DIR"/*.img >/dev/null 2>&1
+}
+
+case "$START_MODE" in
+    cds)
+        exec java -XX:SharedArchiveFile=/app/app.jsa $JAVA_OPTS -jar "$APP_JAR" "$@"
+        ;;
+    crac)
+        if has_checkpoint; then
+            exec java -XX:CRaCRestoreFrom="$CRAC_DIR"
+        fi
+
+        # First start: warm up, checkpoint into $CRAC_DIR (the JVM exits), then restore.
+        # Mount $CRAC_DIR as a volume so later containers skip straight to restore.
+        echo "No checkpoint in $CRAC_DIR, starting and checkpointing after warm-up"
+        mkdir -p "$CRAC_DIR"
+        CRAC_CHECKPOINT=true java -XX:CRaCCheckpointTo="$CRAC_DIR" $JAVA_OPTS -jar "$APP_JAR" "$@" || true
+        if has_checkpoint; then
+            exec java -XX:CRaCRestoreFrom="$CRAC_DIR"
+        fi
+        echo "Checkpoint was not written" >&2
+        exit 1
+        ;;
+    *)
+        exec java $JAVA_OPTS -jar "$APP_JAR" "$@"
+        ;;
+esac
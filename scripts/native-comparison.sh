@@ -0,0 +1,88 @@
+#!/usr/bin/env bash
+# JVM vs native image comparison under the loadtest profile (in-process AWS fakes).
+#
+# For each image:
+#   ready_ms      container start -> GET /health/ready returns 200 (idle, no load)
+#   idle_rss_mb   container memory right after ready
+#   peak_rss_mb   process high-water RSS over a full load-harness run
+#   turns/s, response p50/p99 from the load-harness report
+#
+# Usage: scripts/native-comparison.sh
+# Env:   JVM_MODE=cds            start mode of the JVM image (see Dockerfile)
+#        SESSIONS=200 CONCURRENCY=50
+# Needs: docker, curl, jq. Results: build/reports/native/results.json
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JVM_MODE="${JVM_MODE:-cds}"
+SESSIONS="${SESSIONS:-200}"
+CONCURRENCY="${CONCURRENCY:-50}"
+PORT="${PORT:-18080}"
+REPORT_DIR="$PWD/build/reports/native"
+BASE_URL="http://localhost:${PORT}"
+
+mkdir -p "$REPORT_DIR"
+
+now_ms() {
+    date +%s%3N
+}
+
+wait_ready() {
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$BASE_URL/health/ready")" = "200" ]; do
+        sleep 0.05
+    done
+}
+
+memory_mb() {
+    docker stats --no-stream --format '{{.MemUsage}}' "$1" | awk '{
+        value = $1; unit = value; gsub(/[0-9.]/, "", unit); gsub(/[^0-9.]/, "", value)
+        if (unit == "GiB") value *= 1024; else if (unit == "KiB") value /= 1024
+        printf "%.0f", value }'
+}
+
+# Both images run the loadtest profile; the native one has it baked in by AOT
+echo "Building images"
+docker build -q --build-arg "START_MODE=$JVM_MODE" --build-arg LOADTEST=true -t conversation-ai:compare-jvm . >/dev/null
+docker build -q --target native --build-arg LOADTEST=true --build-arg AOT_PROFILES=loadtest \
+    -t conversation-ai:compare-native . >/dev/null
+
+results=()
+printf '%-8s %9s %12s %12s %8s %9s %9s\n' image ready_ms idle_rss_mb peak_rss_mb turns/s p50_ms p99_ms
+
+for image in jvm native; do
+    run_dir="$REPORT_DIR/$image"
+    rm -rf "$run_dir" && mkdir -p "$run_dir"
+    common=(-e SPRING_PROFILES_ACTIVE=loadtest -v "$run_dir:/app/build/reports/loadtest")
+
+    # Idle start: a zero-session driver run leaves the server up with no load
+    start=$(now_ms)
+    container=$(docker run -d -p "${PORT}:8080" "${common[@]}" \
+        -e LOADTEST_DRIVER_SESSIONS=0 -e LOADTEST_DRIVER_EXIT_ON_FINISH=false \
+        "conversation-ai:compare-$image")
+    wait_ready
+    ready_ms=$(($(now_ms) - start))
+    idle_rss_mb=$(memory_mb "$container")
+    docker rm -f "$container" >/dev/null
+    rm -f "$run_dir"/*.json
+
+    # Steady state: full harness run, exits when done
+    docker run --rm "${common[@]}" \
+        -e "LOADTEST_DRIVER_SESSIONS=$SESSIONS" -e "LOADTEST_DRIVER_CONCURRENCY=$CONCURRENCY" \
+        -e LOADTEST_DRIVER_EXIT_ON_FINISH=true \
+        "conversation-ai:compare-$image" >"$run_dir/console.log" 2>&1 || true
+
+    report=$(ls "$run_dir"/loadtest-*.json | head -n 1)
+    peak_rss_mb=$(jq '.jvm.peakRssBytes / 1048576 | floor' "$report")
+    turns_per_second=$(jq '.turnsPerSecond * 10 | round / 10' "$report")
+    p50=$(jq '.clientStages.response.p50Millis | round' "$report")
+    p99=$(jq '.clientStages.response.p99Millis | round' "$report")
+
+    printf '%-8s %9s %12s %12s %8s %9s %9s\n' \
+        "$image" "$ready_ms" "$idle_rss_mb" "$peak_rss_mb" "$turns_per_second" "$p50" "$p99"
+    results+=("$(printf '"%s": {"readyMs": %s, "idleRssMb": %s, "peakRssMb": %s, "turnsPerSecond": %s, "responseP50Millis": %s, "responseP99Millis": %s}' \
+        "$image" "$ready_ms" "$idle_rss_mb" "$peak_rss_mb" "$turns_per_second" "$p50" "$p99")")
+done
+
+(IFS=','; echo "{${results[*]}}") | jq . > "$REPORT_DIR/results.json"
+echo "Results written to $REPORT_DIR/results.json"
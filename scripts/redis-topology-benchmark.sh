@@ -0,0 +1,96 @@
+#!/usr/bin/env bash
+# Session-store throughput across Redis topologies, using the local stand-ins
+# in docker/redis-topologies.yml and the loadtest profile (in-process AWS fakes,
+# SESSION_STORE=redis).
+#
+# For each run: turns/s, response p50/p99 and the p99 of the read-only
+# GET /responses call (served by replicas in the *-replicas runs).
+#
+# Usage: scripts/redis-topology-benchmark.sh
+# Env:   RUNS="standalone sentinel sentinel-replicas cluster cluster-replicas"
+#        SESSIONS=500 CONCURRENCY=100
+# Needs: docker (with compose), jq. Results: build/reports/redis/results.json
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${RUNS:-standalone sentinel sentinel-replicas cluster cluster-replicas}"
+SESSIONS="${SESSIONS:-500}"
+CONCURRENCY="${CONCURRENCY:-100}"
+REPORT_DIR="$PWD/build/reports/redis"
+COMPOSE=(docker compose -p redis-topologies -f docker/redis-topologies.yml)
+
+mkdir -p "$REPORT_DIR"
+
+topology_env() {
+    case "$1" in
+        standalone)
+            echo "-e REDIS_TOPOLOGY=standalone -e REDIS_HOST=172.30.0.10 -e REDIS_PORT=6379" ;;
+        sentinel*)
+            echo "-e REDIS_TOPOLOGY=sentinel -e REDIS_SENTINEL_MASTER=sessions" \
+                "-e REDIS_SENTINEL_NODES=172.30.0.31:26379,172.30.0.32:26379,172.30.0.33:26379" ;;
+        cluster*)
+            echo "-e REDIS_TOPOLOGY=cluster" \
+                "-e REDIS_CLUSTER_NODES=172.30.0.41:6379,172.30.0.42:6379,172.30.0.43:6379" ;;
+    esac
+}
+
+wait_topology() {
+    case "$1" in
+        cluster)
+            until "${COMPOSE[@]}" exec -T redis-node-1 redis-cli cluster info 2>/dev/null | grep -q 'cluster_state:ok'; do
+                sleep 0.5
+            done ;;
+        sentinel)
+            until "${COMPOSE[@]}" exec -T redis-sentinel-1 redis-cli -p 26379 \
+                    sentinel replicas sessions 2>/dev/null | grep -q 'slave'; do
+                sleep 0.5
+            done ;;
+        *)
+            until "${COMPOSE[@]}" exec -T redis-standalone redis-cli ping 2>/dev/null | grep -q PONG; do
+                sleep 0.5
+            done ;;
+    esac
+}
+
+echo "Building image"
+docker build -q --build-arg LOADTEST=true -t conversation-ai:redis-compare . >/dev/null
+
+results=()
+printf '%-18s %8s %9s %9s %14s\n' run turns/s p50_ms p99_ms responses_p99
+
+for run in $RUNS; do
+    profile="${run%-replicas}"
+    replica_reads=false
+    [ "$run" != "$profile" ] && replica_reads=true
+
+    "${COMPOSE[@]}" --profile "$profile" up -d >/dev/null 2>&1
+    wait_topology "$profile"
+
+    run_dir="$REPORT_DIR/$run"
+    rm -rf "$run_dir" && mkdir -p "$run_dir"
+
+    # shellcheck disable=SC2046
+    docker run --rm --network redis-topologies \
+        -v "$run_dir:/app/build/reports/loadtest" \
+        -e SPRING_PROFILES_ACTIVE=loadtest -e SESSION_STORE=redis \
+        $(topology_env "$run") -e "REDIS_REPLICA_READS=$replica_reads" \
+        -e "LOADTEST_DRIVER_SESSIONS=$SESSIONS" -e "LOADTEST_DRIVER_CONCURRENCY=$CONCURRENCY" \
+        -e LOADTEST_DRIVER_FETCH_RESPONSES=true -e LOADTEST_DRIVER_EXIT_ON_FINISH=true \
+        conversation-ai:redis-compare >"$run_dir/console.log" 2>&1 || true
+
+    "${COMPOSE[@]}" --profile "$profile" down -v >/dev/null 2>&1
+
+    report=$(ls "$run_dir"/loadtest-*.json | head -n 1)
+    turns_per_second=$(jq '.turnsPerSecond * 10 | round / 10' "$report")
+    p50=$(jq '.clientStages.response.p50Millis | round' "$report")
+    p99=$(jq '.clientStages.response.p99Millis | round' "$report")
+    responses_p99=$(jq '.clientStages.responses.p99Millis // 0 | round' "$report")
+
+    printf '%-18s %8s %9s %9s %14s\n' "$run" "$turns_per_second" "$p50" "$p99" "$responses_p99"
+    results+=("$(printf '"%s": {"turnsPerSecond": %s, "responseP50Millis": %s, "responseP99Millis": %s, "responsesP99Millis": %s}' \
+        "$run" "$turns_per_second" "$p50" "$p99" "$responses_p99")")
+done
+
+(IFS=','; echo "{${results[*]}}") | jq . > "$REPORT_DIR/results.json"
+echo "Results written to $REPORT_DIR/results.json"
@@ -0,0 +1,123 @@
+#!/usr/bin/env bash
+# Startup benchmark for the image start modes (see Dockerfile).
+#
+# For each mode, builds the image, starts a fresh container and reports:
+#   ready_ms       container start -> GET /health/ready returns 200
+#   first_turn_ms  container start -> first full turn done (start session,
+#                  question audio, voice response)
+#
+# Usage: scripts/startup-benchmark.sh [mode ...]   (default: standard cds crac)
+# Env:   RUNS=3                 runs per mode (median reported)
+#        PROFILE=loadtest       Spring profile; loadtest uses in-process AWS fakes,
+#                               an empty PROFILE talks to real AWS (needs ~/.aws)
+#        AOT=false              also bake Spring AOT into the images
+#        CRAC_IMAGE=azul/zulu-openjdk:17-jdk-crac
+# Results: build/reports/startup/results.json
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+MODES=("$@")
+[ $# -eq 0 ] && MODES=(standard cds crac)
+RUNS="${RUNS:-3}"
+PROFILE="${PROFILE-loadtest}"
+AOT="${AOT:-false}"
+CRAC_IMAGE="${CRAC_IMAGE:-azul/zulu-openjdk:17-jdk-crac}"
+PORT="${PORT:-18080}"
+REPORT_DIR=build/reports/startup
+BASE_URL="http://localhost:${PORT}"
+
+mkdir -p "$REPORT_DIR"
+AUDIO_FILE="$REPORT_DIR/silence.wav"
+
+now_ms() {
+    date +%s%3N
+}
+
+# 1s of 16 kHz 16-bit mono silence
+write_wav() {
+    {
+        printf 'RIFF\x24\x7d\x00\x00WAVEfmt '
+        printf '\x10\x00\x00\x00\x01\x00\x01\x00\x80\x3e\x00\x00\x00\x7d\x00\x00\x02\x00\x10\x00'
+        printf 'data\x00\x7d\x00\x00'
+        head -c 32000 /dev/zero
+    } > "$AUDIO_FILE"
+}
+
+build_image() {
+    local mode=$1
+    local args=(--build-arg "START_MODE=$mode" --build-arg "AOT=$AOT" --build-arg "LOADTEST=true")
+    if [ "$mode" = "crac" ]; then
+        args+=(--build-arg "RUNTIME_IMAGE=$CRAC_IMAGE")
+    fi
+    docker build -q "${args[@]}" -t "conversation-ai:startup-$mode" . >/dev/null
+}
+
+run_container() {
+    local mode=$1
+    local args=(-d -p "${PORT}:8080" -e "SPRING_PROFILES_ACTIVE=${PROFILE}"
+        -e LOADTEST_DRIVER_ENABLED=false -e TRACING_ENABLED=false)
+    if [ -z "$PROFILE" ]; then
+        args+=(-v "$HOME/.aws:/root/.aws:ro")
+    fi
+    if [ "$mode" = "crac" ]; then
+        args+=(--cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE -v conversation-ai-crac:/crac)
+    fi
+    docker run "${args[@]}" "conversation-ai:startup-$mode"
+}
+
+wait_ready() {
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$BASE_URL/health/ready")" = "200" ]; do
+        sleep 0.05
+    done
+}
+
+first_turn() {
+    local session_id
+    session_id=$(curl -sf -X POST "$BASE_URL/questionnaire/start" | sed -E 's/.*"sessionId":"([^"]+)".*/\1/')
+    curl -sf -o /dev/null "$BASE_URL/questionnaire/question/$session_id/audio"
+    curl -sf -o /dev/null -F "audio=@$AUDIO_FILE;type=audio/wav" "$BASE_URL/questionnaire/response/$session_id"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+write_wav
+results=()
+printf '%-10s %10s %15s\n' mode ready_ms first_turn_ms
+
+for mode in "${MODES[@]}"; do
+    build_image "$mode"
+
+    if [ "$mode" = "crac" ]; then
+        # Prime run: writes the checkpoint into the volume, then restores
+        docker volume rm -f conversation-ai-crac >/dev/null
+        container=$(run_container "$mode")
+        wait_ready
+        docker rm -f "$container" >/dev/null
+    fi
+
+    ready_times=()
+    turn_times=()
+    for _ in $(seq "$RUNS"); do
+        start=$(now_ms)
+        container=$(run_container "$mode")
+        wait_ready
+        ready=$(now_ms)
+        first_turn
+        turned=$(now_ms)
+        docker rm -f "$container" >/dev/null
+        ready_times+=($((ready - start)))
+        turn_times+=($((turned - start)))
+    done
+
+    ready_ms=$(printf '%s\n' "${ready_times[@]}" | median)
+    turn_ms=$(printf '%s\n' "${turn_times[@]}" | median)
+    printf '%-10s %10s %15s\n' "$mode" "$ready_ms" "$turn_ms"
+    results+=("$(printf '"%s": {"readyMs": %s, "firstTurnMs": %s, "runs": %s}' \
+        "$mode" "$ready_ms" "$turn_ms" "$RUNS")")
+done
+
+(IFS=','; echo "{${results[*]}}") > "$REPORT_DIR/results.json"
+echo "Results written to $REPORT_DIR/results.json"
@@ -0,0 +1,55 @@
+package com.voiceai.conversation.config;
+
+import com.voiceai.conversation.model.Session;
+import com.voiceai.conversation.model.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value round trip for a fully answered session (four responses).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SessionSerializationBenchmark {
+
+    private GenericJackson2JsonRedisSerializer serializer;
+    private Session session;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        serializer = RedisConfig.sessionSerializer();
+
+        session = new Session("0b7c6f0e-3f0a-4d0e-9a53-2f1c8e5d9b11");
+        session.recordResponse(new UserResponse(1, "I'd say pretty confident", "somewhat confident", 0.85));
+        session.recordResponse(new UserResponse(2, "About five days a week", "4-5", 0.92));
+        session.recordResponse(new UserResponse(3, "Most of the time I guess", "most of the time", 0.88));
+        session.recordResponse(new UserResponse(4, "Yes, every day", "yes", 0.97));
+
+        serialized = serializer.serialize(session);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(session);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(session));
+    }
+}
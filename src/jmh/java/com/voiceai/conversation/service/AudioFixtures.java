@@ -0,0 +1,39 @@
+package com.voiceai.conversation.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Deterministic audio payloads shared by the benchmarks.
+ */
+final class AudioFixtures {
+
+    private AudioFixtures() {
+    }
+
+    /**
+     * Builds a 16 kHz mono 16-bit PCM WAV clip of the requested total size
+     * filled with seeded noise.
+     */
+    static byte[] wav(int totalBytes) {
+        byte[] data = new byte[totalBytes];
+        new Random(42).nextBytes(data);
+
+        ByteBuffer header = ByteBuffer.wrap(data, 0, 44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'});
+        header.putInt(totalBytes - 8);
+        header.put(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16);
+        header.putShort((short) 1);
+        header.putShort((short) 1);
+        header.putInt(16000);
+        header.putInt(16000 * 2);
+        header.putShort((short) 2);
+        header.putShort((short) 16);
+        header.put(new byte[]{'d', 'a', 't', 'a'});
+        header.putInt(totalBytes - 44);
+
+        return data;
+    }
+}
@@ -0,0 +1,39 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.AudioMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AudioValidatorBenchmark {
+
+    @Param({"1048576", "10485760"})
+    private int audioBytes;
+
+    private AudioValidator validator;
+    private byte[] audio;
+
+    @Setup
+    public void setUp() {
+        validator = new AudioValidator();
+        ReflectionTestUtils.setField(validator, "maxAudioSizeBytes", 10_485_760L);
+        ReflectionTestUtils.setField(validator, "minAudioSizeBytes", 1_000L);
+        audio = AudioFixtures.wav(audioBytes);
+    }
+
+    @Benchmark
+    public AudioMetadata validateAudio() {
+        return validator.validateAudio(audio);
+    }
+}
@@ -0,0 +1,78 @@
+package com.voiceai.conversation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceai.conversation.model.ClassificationResult;
+import com.voiceai.conversation.model.Question;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt construction and response parsing (one pass from the Messages API
+ * body to a {@link ClassificationResult}), i.e. the CPU work around each
+ * Bedrock call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseClassifierBenchmark {
+
+    private static final byte[] MODEL_RESPONSE = """
+            {"id": "msg_01", "type": "message", "role": "assistant", "model": "claude", "stop_reason": "tool_use",
+             "content": [{"type": "tool_use", "id": "toolu_01", "name": "record_classification",
+                          "input": {"matched": true, "category": "somewhat confident", "confidence": 0.85,
+                                    "retryMessage": ""}}],
+             "usage": {"input_tokens": 1210, "output_tokens": 48}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private ResponseClassifier classifier;
+    private Question question;
+    private CompiledQuestion compiledQuestion;
+
+    @Setup
+    public void setUp() {
+        MetricsService metricsService = new MetricsService(new SimpleMeterRegistry());
+        classifier = new ResponseClassifier(
+                null,
+                metricsService,
+                ObservationRegistry.NOOP,
+                CircuitBreakerRegistry.ofDefaults(),
+                new KeywordResponseClassifier(),
+                new HedgedRequestExecutor(metricsService, false, 0, 0.9, 2000, 250, 0.1),
+                new ObjectMapper()
+        );
+        question = new Question(
+                1,
+                "Over the past week, how confident have you felt in making healthy food choices?",
+                List.of("very confident", "somewhat confident", "neutral", "not very confident", "not confident at all")
+        );
+        compiledQuestion = new CompiledQuestion("benchmark", 1, question);
+    }
+
+    @Benchmark
+    public String buildClassificationPrompt() {
+        return classifier.buildClassificationPrompt(question, "Um, I'd say I was pretty confident most days");
+    }
+
+    /** Prompt rendered from the prefix precompiled by {@link QuestionnaireRegistry}. */
+    @Benchmark
+    public String renderPrecompiledPrompt() {
+        return ClassificationPrompt.render(compiledQuestion.getPromptPrefix(), "Um, I'd say I was pretty confident most days");
+    }
+
+    @Benchmark
+    public ClassificationResult parseClassificationResult() throws Exception {
+        return classifier.parseClassificationResult(MODEL_RESPONSE);
+    }
+}
@@ -0,0 +1,140 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.RedisConfig;
+import com.voiceai.conversation.model.Session;
+import com.voiceai.conversation.model.UserResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One turn's worth of session storage, a find followed by a save, for the
+ * same fully answered session on the Redis and the token store. Unlike
+ * {@code SessionSerializationBenchmark} and {@link SessionTokenBenchmark},
+ * this includes the Redis round trips: the Redis store's GET and SET
+ * against the token store's high-water EVAL (its marks are cached, as on a
+ * node that has served the session before).
+ *
+ * <p>Needs a Redis server: {@code ./gradlew jmh -PjmhInclude=SessionStoreBenchmark
+ * -Dbenchmark.redis=host:port} (default {@code localhost:6379}). Compare the
+ * two stores from the same run, since the network dominates both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionStoreBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    @Param({"redis", "token"})
+    private String store;
+
+    private LettuceConnectionFactory connectionFactory;
+    private SessionStore sessionStore;
+    private String sessionId;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] address = System.getProperty("benchmark.redis", "localhost:6379").split(":");
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(address[0], Integer.parseInt(address[1])));
+        connectionFactory.afterPropertiesSet();
+
+        RedisKeys redisKeys = new RedisKeys("standalone");
+        if ("redis".equals(store)) {
+            RedisTemplate<String, Object> template = sessionTemplate();
+            sessionStore = new RedisSessionStore(template, template, redisKeys);
+        } else {
+            byte[] signingKey = new byte[32];
+            Arrays.fill(signingKey, (byte) 7);
+            StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+            TokenSessionStore tokenStore = new TokenSessionStore(new SessionTokenCodec(signingKey, null),
+                    redisTemplate, redisKeys, connectionFactory, new MetricsService(new SimpleMeterRegistry()),
+                    24, 1000);
+            tokenStore.subscribe();
+            sessionStore = tokenStore;
+        }
+
+        sessionId = UUID.randomUUID().toString();
+        Session session = new Session(sessionId, "health-checkin", 1);
+        session.recordResponse(new UserResponse(1, "I'd say pretty confident", "somewhat confident", 0.85));
+        session.recordResponse(new UserResponse(2, "About five days a week", "4-5", 0.92));
+        session.recordResponse(new UserResponse(3, "Most of the time I guess", "most of the time", 0.88));
+        session.recordResponse(new UserResponse(4, "Yes, every day", "yes", 0.97));
+        newRequest();
+        sessionStore.save(session, TTL);
+        token = issuedToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        newRequest();
+        sessionStore.delete(sessionId);
+        if (sessionStore instanceof TokenSessionStore tokenStore) {
+            tokenStore.shutdown();
+        }
+        RequestContextHolder.resetRequestAttributes();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public Session turn() {
+        newRequest();
+        Session session = sessionStore.find(sessionId);
+        session.recordTurn();
+        sessionStore.save(session, TTL);
+        token = issuedToken();
+        return session;
+    }
+
+    /**
+     * A request carrying the token issued by the previous save, as a client would send it.
+     */
+    private void newRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (token != null) {
+            request.addHeader(TokenSessionStore.TOKEN_HEADER, token);
+        }
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(request, new MockHttpServletResponse()));
+    }
+
+    private String issuedToken() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes.getResponse().getHeader(TokenSessionStore.TOKEN_HEADER);
+    }
+
+    private RedisTemplate<String, Object> sessionTemplate() {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        GenericJackson2JsonRedisSerializer serializer = RedisConfig.sessionSerializer();
+        template.setValueSerializer(serializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+}
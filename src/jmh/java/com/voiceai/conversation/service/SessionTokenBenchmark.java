@@ -0,0 +1,67 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.Session;
+import com.voiceai.conversation.model.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-held session token round trip for the same fully answered session
+ * as {@code SessionSerializationBenchmark}, which measures the Redis value
+ * path (excluding the network round trips the token store avoids).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SessionTokenBenchmark {
+
+    @Param({"signed", "encrypted"})
+    private String mode;
+
+    private SessionTokenCodec codec;
+    private Session session;
+    private Instant expiresAt;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] signingKey = new byte[32];
+        Arrays.fill(signingKey, (byte) 7);
+        byte[] encryptionKey = "encrypted".equals(mode) ? new byte[16] : null;
+        codec = new SessionTokenCodec(signingKey, encryptionKey);
+
+        session = new Session("0b7c6f0e-3f0a-4d0e-9a53-2f1c8e5d9b11", "health-checkin", 1);
+        session.recordResponse(new UserResponse(1, "I'd say pretty confident", "somewhat confident", 0.85));
+        session.recordResponse(new UserResponse(2, "About five days a week", "4-5", 0.92));
+        session.recordResponse(new UserResponse(3, "Most of the time I guess", "most of the time", 0.88));
+        session.recordResponse(new UserResponse(4, "Yes, every day", "yes", 0.97));
+        expiresAt = Instant.now().plusSeconds(1800);
+
+        token = codec.encode(session, expiresAt);
+    }
+
+    @Benchmark
+    public String encode() {
+        return codec.encode(session, expiresAt);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(token);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return codec.decode(codec.encode(session, expiresAt));
+    }
+}
@@ -0,0 +1,71 @@
+package com.voiceai.conversation.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioStream;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures splitting an uploaded clip into Transcribe audio events, including
+ * the per-chunk copies made by the publisher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpeechToTextChunkingBenchmark {
+
+    @Param({"1048576", "10485760"})
+    private int audioBytes;
+
+    private SpeechToTextService speechToTextService;
+    private byte[] audio;
+
+    @Setup
+    public void setUp() {
+        speechToTextService = new SpeechToTextService(
+                null,
+                new MetricsService(new SimpleMeterRegistry()),
+                ObservationRegistry.NOOP,
+                CircuitBreakerRegistry.ofDefaults()
+        );
+        audio = AudioFixtures.wav(audioBytes);
+    }
+
+    @Benchmark
+    public void publishAudioChunks(Blackhole blackhole) {
+        speechToTextService.createAudioPublisher(audio).subscribe(new Subscriber<AudioStream>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(AudioStream event) {
+                blackhole.consume(((AudioEvent) event).audioChunk());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new IllegalStateException(t);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+}
@@ -0,0 +1,303 @@
+package com.voiceai.conversation.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.voiceai.conversation.config.exception.QuestionnaireNotFoundException;
+import com.voiceai.conversation.model.ClassificationResult;
+import com.voiceai.conversation.service.CompiledQuestion;
+import com.voiceai.conversation.service.CompiledQuestionnaire;
+import com.voiceai.conversation.service.QuestionnaireRegistry;
+import com.voiceai.conversation.service.ResponseClassifier;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the classification corpus through {@link ResponseClassifier} and
+ * writes a latency/throughput/agreement report.
+ *
+ * <p>The corpus is what the opt-in {@code com.voiceai.conversation.corpus}
+ * logger wrote (see {@code QuestionnaireOrchestrator}): one JSON line per
+ * classified turn with the questionnaire version, question, transcript and
+ * result. The logged category is the label when the result was valid.
+ * Entries are replayed in log order through the public classifier entry
+ * point, so the cascade, in-flight coalescing and keyword fallback are part
+ * of the measurement. Runs against real Bedrock, or against the fakes when
+ * combined with the {@code loadtest} profile.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "replay.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ClassificationReplay implements ApplicationRunner {
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    private final ApplicationContext applicationContext;
+    private final ResponseClassifier responseClassifier;
+    private final QuestionnaireRegistry questionnaireRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${replay.logs:file:logs/classification-corpus*.log}")
+    private String logs;
+
+    /** Only replays turns of this questionnaire; empty for all. */
+    @Value("${replay.questionnaire-id:}")
+    private String questionnaireId;
+
+    @Value("${replay.concurrency:8}")
+    private int concurrency;
+
+    @Value("${replay.repeat:1}")
+    private int repeat;
+
+    @Value("${replay.max-disagreements:50}")
+    private int maxDisagreements;
+
+    @Value("${replay.report-dir:build/reports/replay}")
+    private String reportDir;
+
+    @Value("${replay.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    @Value("${questionnaire.confidence-threshold:0.6}")
+    private double confidenceThreshold;
+
+    private final SimpleMeterRegistry replayRegistry = new SimpleMeterRegistry();
+    private final Map<String, Tally> tallies = new TreeMap<>();
+    private final ConcurrentLinkedQueue<Map<String, Object>> disagreements = new ConcurrentLinkedQueue<>();
+    private final AtomicLong errors = new AtomicLong();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<Entry> corpus = loadCorpus();
+        log.info("Replay starting: {} logged classifications, repeat={}, concurrency={}",
+                corpus.size(), repeat, concurrency);
+
+        Timer timer = Timer.builder("replay.classification")
+                .publishPercentiles(PERCENTILES)
+                .register(replayRegistry);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long startNanos = System.nanoTime();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int round = 0; round < repeat; round++) {
+            for (Entry entry : corpus) {
+                futures.add(workers.submit(() -> replay(entry, timer)));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        workers.shutdown();
+
+        Map<String, Object> report = buildReport(corpus.size(), timer, elapsedMillis);
+        Path reportFile = writeReport(report);
+        log.info("Replay finished in {}ms: {} classifications ({}/s), agreement {}, report at {}",
+                elapsedMillis, timer.count(), report.get("classificationsPerSecond"),
+                report.get("agreement"), reportFile.toAbsolutePath());
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private void replay(Entry entry, Timer timer) {
+        CompiledQuestion question = entry.question();
+        String predicted;
+        long start = System.nanoTime();
+        try {
+            ClassificationResult result = responseClassifier.classifyResponse(question, entry.transcript());
+            predicted = result.isValid(confidenceThreshold) ? question.canonicalCategory(result.getCategory()) : null;
+        } catch (RuntimeException e) {
+            errors.incrementAndGet();
+            log.debug("Replay of {} failed: {}", entry.key(), e.getMessage());
+            return;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        boolean agreed = Objects.equals(entry.label(), predicted);
+        synchronized (tallies) {
+            tallies.computeIfAbsent(entry.key(), key -> new Tally()).add(agreed);
+        }
+        if (!agreed && disagreements.size() < maxDisagreements) {
+            Map<String, Object> sample = new LinkedHashMap<>();
+            sample.put("question", entry.key());
+            sample.put("transcript", entry.transcript());
+            sample.put("logged", entry.label());
+            sample.put("replayed", predicted);
+            disagreements.add(sample);
+        }
+    }
+
+    /**
+     * Parses every matching log file into labelled entries, skipping records
+     * of questionnaire versions that are no longer loaded.
+     */
+    private List<Entry> loadCorpus() throws IOException {
+        Resource[] files = new PathMatchingResourcePatternResolver().getResources(logs);
+        List<Entry> corpus = new ArrayList<>();
+        Map<String, CompiledQuestionnaire> questionnaires = new HashMap<>();
+        int skipped = 0;
+
+        for (Resource file : files) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("{")) {
+                        continue;
+                    }
+                    CorpusRecord record = objectMapper.readValue(line, CorpusRecord.class);
+                    if (!questionnaireId.isBlank() && !questionnaireId.equals(record.questionnaireId())) {
+                        continue;
+                    }
+                    CompiledQuestion question = question(questionnaires, record);
+                    if (question == null || record.transcript() == null || record.transcript().isBlank()) {
+                        skipped++;
+                        continue;
+                    }
+                    boolean confident = record.confidence() >= confidenceThreshold;
+                    String label = record.matched() && confident ? question.canonicalCategory(record.category()) : null;
+                    String key = record.questionnaireId() + "@v" + record.version() + "/Q" + record.questionId();
+                    corpus.add(new Entry(key, question, record.transcript(), label));
+                }
+            }
+        }
+
+        log.info("Parsed {} classifications from {} log files ({} skipped)", corpus.size(), files.length, skipped);
+        return corpus;
+    }
+
+    private CompiledQuestion question(Map<String, CompiledQuestionnaire> questionnaires, CorpusRecord record) {
+        CompiledQuestionnaire questionnaire = questionnaires.computeIfAbsent(
+                record.questionnaireId() + "@" + record.version(), key -> {
+                    try {
+                        return questionnaireRegistry.get(record.questionnaireId(), record.version());
+                    } catch (QuestionnaireNotFoundException e) {
+                        return null;
+                    }
+                });
+        if (questionnaire == null) {
+            return null;
+        }
+        return questionnaire.getQuestions().stream()
+                .filter(question -> question.getId() == record.questionId())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Map<String, Object> buildReport(int corpusSize, Timer timer, long elapsedMillis) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("logs", logs);
+        report.put("questionnaire", questionnaireId.isBlank() ? "all" : questionnaireId);
+        report.put("corpusSize", corpusSize);
+        report.put("repeat", repeat);
+        report.put("concurrency", concurrency);
+        report.put("elapsedMillis", elapsedMillis);
+        report.put("classifications", timer.count());
+        report.put("errors", errors.get());
+        report.put("classificationsPerSecond", elapsedMillis == 0 ? 0.0 : timer.count() * 1000.0 / elapsedMillis);
+        report.put("latency", summarize(timer));
+
+        Tally total = new Tally();
+        Map<String, Object> perQuestion = new LinkedHashMap<>();
+        synchronized (tallies) {
+            tallies.forEach((key, tally) -> {
+                total.agreed += tally.agreed;
+                total.count += tally.count;
+                perQuestion.put(key, Map.of("count", tally.count, "agreement", tally.rate()));
+            });
+        }
+        report.put("agreement", total.rate());
+        report.put("agreementByQuestion", perQuestion);
+        report.put("disagreements", List.copyOf(disagreements));
+        return report;
+    }
+
+    private Map<String, Object> summarize(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            summary.put("p" + Math.round(percentile.percentile() * 100) + "Millis",
+                    percentile.value(TimeUnit.MILLISECONDS));
+        }
+        summary.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));
+        return summary;
+    }
+
+    private Path writeReport(Map<String, Object> report) throws IOException {
+        Path directory = Path.of(reportDir);
+        Files.createDirectories(directory);
+        Path file = directory.resolve("replay-" + System.currentTimeMillis() + ".json");
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    /**
+     * @param key   questionnaire version and question, e.g. {@code health-checkin@v2/Q3}
+     * @param label logged category, or {@code null} if the turn was retried
+     */
+    private record Entry(String key, CompiledQuestion question, String transcript, String label) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record CorpusRecord(String questionnaireId, int version, int questionId, String transcript,
+                                boolean matched, String category, double confidence) {
+    }
+
+    private static final class Tally {
+        private long count;
+        private long agreed;
+
+        void add(boolean agreement) {
+            count++;
+            if (agreement) {
+                agreed++;
+            }
+        }
+
+        double rate() {
+            return count == 0 ? 0.0 : (double) agreed / count;
+        }
+    }
+}
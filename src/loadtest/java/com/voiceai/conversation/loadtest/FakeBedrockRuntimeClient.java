@@ -0,0 +1,153 @@
+package com.voiceai.conversation.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.model.BedrockRuntimeException;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
+import software.amazon.awssdk.services.bedrockruntime.model.ThrottlingException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process Bedrock stand-in producing canned Claude-style classifications.
+ * A matched answer picks one of the valid categories listed in the prompt.
+ * Requests that force a tool get the classification as that tool's input.
+ * Responses arrive after a sampled latency; cancelling the returned future
+ * drops the response, as cancelling a real call aborts its request.
+ */
+@RequiredArgsConstructor
+public class FakeBedrockRuntimeClient implements BedrockRuntimeAsyncClient {
+
+    private static final String CATEGORIES_MARKER = "Valid categories: ";
+
+    private final SimulatedDependency dependency;
+    private final double unmatchedRate;
+    private final ScheduledExecutorService scheduler;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public CompletableFuture<InvokeModelResponse> invokeModel(InvokeModelRequest request) {
+        CompletableFuture<InvokeModelResponse> future = new CompletableFuture<>();
+        ScheduledFuture<?> response = scheduler.schedule(() -> {
+            try {
+                future.complete(respond(request));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, dependency.sampleLatencyMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                response.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    private InvokeModelResponse respond(InvokeModelRequest request) {
+        failIfScheduled();
+
+        String requestBody = request.body().asUtf8String();
+        Map<String, Object> classification = ThreadLocalRandom.current().nextDouble() < unmatchedRate
+                ? classification(false, null, 0.2, "Sorry, I didn't catch that. Could you pick one of the options?")
+                : classification(true, pickCategory(requestBody), 0.9, "");
+        String forcedTool = forcedTool(requestBody);
+
+        try {
+            Map<String, Object> content = forcedTool != null
+                    ? Map.of("type", "tool_use", "id", "toolu_fake", "name", forcedTool, "input", classification)
+                    : Map.of("type", "text", "text", objectMapper.writeValueAsString(classification));
+            Map<String, Object> response = Map.of(
+                    "content", List.of(content),
+                    "stop_reason", forcedTool != null ? "tool_use" : "end_turn",
+                    "usage", Map.of("input_tokens", requestBody.length() / 4, "output_tokens", 30)
+            );
+
+            return InvokeModelResponse.builder()
+                    .contentType("application/json")
+                    .body(SdkBytes.fromUtf8String(objectMapper.writeValueAsString(response)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static Map<String, Object> classification(boolean matched, String category, double confidence,
+                                                      String retryMessage) {
+        Map<String, Object> classification = new LinkedHashMap<>();
+        classification.put("matched", matched);
+        classification.put("category", category);
+        classification.put("confidence", confidence);
+        classification.put("retryMessage", retryMessage);
+        return classification;
+    }
+
+    /**
+     * Name of the tool the request forces via {@code tool_choice}, or {@code null}.
+     */
+    private String forcedTool(String requestBody) {
+        try {
+            JsonNode toolChoice = objectMapper.readTree(requestBody).path("tool_choice");
+            return "tool".equals(toolChoice.path("type").asText()) ? toolChoice.path("name").asText() : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private String pickCategory(String requestBody) {
+        int start = requestBody.indexOf(CATEGORIES_MARKER);
+        if (start < 0) {
+            return "unknown";
+        }
+        start += CATEGORIES_MARKER.length();
+        int end = requestBody.indexOf("\\n", start);
+        String[] categories = requestBody.substring(start, end < 0 ? requestBody.length() : end).split(", ");
+        return categories[ThreadLocalRandom.current().nextInt(categories.length)];
+    }
+
+    private void failIfScheduled() {
+        switch (dependency.nextOutcome()) {
+            case THROTTLED -> throw (ThrottlingException) ThrottlingException.builder()
+                    .statusCode(429)
+                    .awsErrorDetails(errorDetails("ThrottlingException"))
+                    .message("Simulated throttling")
+                    .build();
+            case FAILED -> throw (BedrockRuntimeException) BedrockRuntimeException.builder()
+                    .statusCode(500)
+                    .awsErrorDetails(errorDetails("InternalServerException"))
+                    .message("Simulated failure")
+                    .build();
+            default -> {
+            }
+        }
+    }
+
+    private static AwsErrorDetails errorDetails(String errorCode) {
+        return AwsErrorDetails.builder()
+                .errorCode(errorCode)
+                .errorMessage("Simulated " + errorCode)
+                .serviceName(SERVICE_NAME)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.voiceai.conversation.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.polly.PollyClient;
+import software.amazon.awssdk.services.polly.model.DescribeVoicesRequest;
+import software.amazon.awssdk.services.polly.model.DescribeVoicesResponse;
+import software.amazon.awssdk.services.polly.model.OutputFormat;
+import software.amazon.awssdk.services.polly.model.PollyException;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechRequest;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+/**
+ * In-process Polly stand-in that returns filler audio (MP3-framed, whatever format
+ * was requested) after a simulated delay.
+ */
+@RequiredArgsConstructor
+public class FakePollyClient implements PollyClient {
+
+    /** Roughly what Polly's 24 kHz MP3 output weighs per input character. */
+    private static final int BYTES_PER_CHARACTER = 400;
+
+    private final SimulatedDependency dependency;
+
+    @Override
+    public ResponseInputStream<SynthesizeSpeechResponse> synthesizeSpeech(SynthesizeSpeechRequest request) {
+        dependency.simulateLatency();
+        failIfScheduled();
+
+        byte[] audio = new byte[Math.max(1024, request.text().length() * BYTES_PER_CHARACTER)];
+        Arrays.fill(audio, (byte) 0x55);
+        audio[0] = (byte) 0xFF;
+        audio[1] = (byte) 0xFB;
+
+        SynthesizeSpeechResponse response = SynthesizeSpeechResponse.builder()
+                .contentType(contentType(request.outputFormat()))
+                .requestCharacters(request.text().length())
+                .build();
+
+        return new ResponseInputStream<>(response, AbortableInputStream.create(new ByteArrayInputStream(audio)));
+    }
+
+    @Override
+    public DescribeVoicesResponse describeVoices(DescribeVoicesRequest request) {
+        return DescribeVoicesResponse.builder().build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static String contentType(OutputFormat format) {
+        return switch (format) {
+            case OGG_VORBIS -> "audio/ogg";
+            case PCM -> "audio/pcm";
+            default -> "audio/mpeg";
+        };
+    }
+
+    private void failIfScheduled() {
+        switch (dependency.nextOutcome()) {
+            case THROTTLED -> throw pollyException(400, "ThrottlingException");
+            case FAILED -> throw pollyException(500, "ServiceFailureException");
+            default -> {
+            }
+        }
+    }
+
+    private static PollyException pollyException(int statusCode, String errorCode) {
+        return (PollyException) PollyException.builder()
+                .statusCode(statusCode)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode(errorCode)
+                        .errorMessage("Simulated " + errorCode)
+                        .serviceName(SERVICE_NAME)
+                        .build())
+                .message("Simulated " + errorCode)
+                .build();
+    }
+}
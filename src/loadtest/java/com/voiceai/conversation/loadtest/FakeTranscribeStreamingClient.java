@@ -0,0 +1,144 @@
+package com.voiceai.conversation.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
+import software.amazon.awssdk.services.transcribestreaming.model.Alternative;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioStream;
+import software.amazon.awssdk.services.transcribestreaming.model.Result;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionRequest;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionResponse;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionResponseHandler;
+import software.amazon.awssdk.services.transcribestreaming.model.Transcript;
+import software.amazon.awssdk.services.transcribestreaming.model.TranscriptEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.TranscriptResultStream;
+import software.amazon.awssdk.services.transcribestreaming.model.TranscribeStreamingException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process Transcribe Streaming stand-in. Drains the audio publisher like the
+ * real client, then emits one final transcript picked from a canned list once
+ * the simulated latency has elapsed.
+ */
+@RequiredArgsConstructor
+public class FakeTranscribeStreamingClient implements TranscribeStreamingAsyncClient {
+
+    private final SimulatedDependency dependency;
+    private final List<String> transcripts;
+    private final ScheduledExecutorService scheduler;
+
+    @Override
+    public CompletableFuture<Void> startStreamTranscription(
+            StartStreamTranscriptionRequest request,
+            Publisher<AudioStream> requestStream,
+            StartStreamTranscriptionResponseHandler responseHandler) {
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        requestStream.subscribe(new Subscriber<AudioStream>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(AudioStream event) {
+                // Audio content is irrelevant to the simulation; it is drained and dropped
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                responseHandler.exceptionOccurred(t);
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onComplete() {
+                scheduler.schedule(() -> respond(responseHandler, future),
+                        dependency.sampleLatencyMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+
+        return future;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void respond(StartStreamTranscriptionResponseHandler responseHandler, CompletableFuture<Void> future) {
+        SimulatedDependency.Outcome outcome = dependency.nextOutcome();
+        if (outcome != SimulatedDependency.Outcome.OK) {
+            boolean throttled = outcome == SimulatedDependency.Outcome.THROTTLED;
+            TranscribeStreamingException exception = (TranscribeStreamingException) TranscribeStreamingException.builder()
+                    .statusCode(throttled ? 429 : 500)
+                    .awsErrorDetails(AwsErrorDetails.builder()
+                            .errorCode(throttled ? "LimitExceededException" : "InternalFailureException")
+                            .serviceName(SERVICE_NAME)
+                            .build())
+                    .message("Simulated " + outcome.name().toLowerCase())
+                    .build();
+            responseHandler.exceptionOccurred(exception);
+            future.completeExceptionally(exception);
+            return;
+        }
+
+        String text = transcripts.get(ThreadLocalRandom.current().nextInt(transcripts.size()));
+        TranscriptEvent event = TranscriptEvent.builder()
+                .transcript(Transcript.builder()
+                        .results(Result.builder()
+                                .isPartial(false)
+                                .alternatives(Alternative.builder().transcript(text).build())
+                                .build())
+                        .build())
+                .build();
+
+        responseHandler.responseReceived(StartStreamTranscriptionResponse.builder().build());
+        responseHandler.onEventStream(SdkPublisher.adapt(new SingleEventPublisher(event)));
+        responseHandler.complete();
+        future.complete(null);
+    }
+
+    /**
+     * Emits a single transcript event, honouring subscriber demand.
+     */
+    @RequiredArgsConstructor
+    private static class SingleEventPublisher implements Publisher<TranscriptResultStream> {
+
+        private final TranscriptResultStream event;
+
+        @Override
+        public void subscribe(Subscriber<? super TranscriptResultStream> subscriber) {
+            AtomicBoolean emitted = new AtomicBoolean();
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n > 0 && emitted.compareAndSet(false, true)) {
+                        subscriber.onNext(event);
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    emitted.set(true);
+                }
+            });
+        }
+    }
+}
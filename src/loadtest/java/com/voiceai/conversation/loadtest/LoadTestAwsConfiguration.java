@@ -0,0 +1,104 @@
+package com.voiceai.conversation.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.polly.PollyClient;
+import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Replaces the AWS clients from {@code AwsConfiguration} with in-process fakes
+ * so turn throughput can be measured without touching AWS.
+ */
+@Slf4j
+@Configuration
+@Profile("loadtest")
+public class LoadTestAwsConfiguration {
+
+    @Value("${loadtest.transcribe.latency-median-ms:800}")
+    private long transcribeMedianMs;
+
+    @Value("${loadtest.transcribe.latency-p99-ms:3000}")
+    private long transcribeP99Ms;
+
+    @Value("${loadtest.transcribe.error-rate:0.0}")
+    private double transcribeErrorRate;
+
+    @Value("${loadtest.transcribe.throttle-rate:0.0}")
+    private double transcribeThrottleRate;
+
+    @Value("${loadtest.transcribe.transcripts}")
+    private List<String> transcripts;
+
+    @Value("${loadtest.bedrock.latency-median-ms:1200}")
+    private long bedrockMedianMs;
+
+    @Value("${loadtest.bedrock.latency-p99-ms:6000}")
+    private long bedrockP99Ms;
+
+    @Value("${loadtest.bedrock.error-rate:0.0}")
+    private double bedrockErrorRate;
+
+    @Value("${loadtest.bedrock.throttle-rate:0.0}")
+    private double bedrockThrottleRate;
+
+    @Value("${loadtest.bedrock.unmatched-rate:0.15}")
+    private double bedrockUnmatchedRate;
+
+    @Value("${loadtest.polly.latency-median-ms:300}")
+    private long pollyMedianMs;
+
+    @Value("${loadtest.polly.latency-p99-ms:1500}")
+    private long pollyP99Ms;
+
+    @Value("${loadtest.polly.error-rate:0.0}")
+    private double pollyErrorRate;
+
+    @Value("${loadtest.polly.throttle-rate:0.0}")
+    private double pollyThrottleRate;
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService loadTestScheduler() {
+        return Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "fake-aws");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public PollyClient pollyClient() {
+        log.warn("Using simulated Polly client (median={}ms, p99={}ms)", pollyMedianMs, pollyP99Ms);
+        return new FakePollyClient(new SimulatedDependency(
+                "polly", pollyMedianMs, pollyP99Ms, pollyErrorRate, pollyThrottleRate));
+    }
+
+    @Bean
+    public TranscribeStreamingAsyncClient transcribeClient(ScheduledExecutorService loadTestScheduler) {
+        log.warn("Using simulated Transcribe client (median={}ms, p99={}ms)", transcribeMedianMs, transcribeP99Ms);
+        return new FakeTranscribeStreamingClient(
+                new SimulatedDependency("transcribe", transcribeMedianMs, transcribeP99Ms,
+                        transcribeErrorRate, transcribeThrottleRate),
+                transcripts,
+                loadTestScheduler
+        );
+    }
+
+    @Bean
+    public BedrockRuntimeAsyncClient bedrockRuntimeClient(ScheduledExecutorService loadTestScheduler) {
+        log.warn("Using simulated Bedrock client (median={}ms, p99={}ms)", bedrockMedianMs, bedrockP99Ms);
+        return new FakeBedrockRuntimeClient(
+                new SimulatedDependency("bedrock", bedrockMedianMs, bedrockP99Ms,
+                        bedrockErrorRate, bedrockThrottleRate),
+                bedrockUnmatchedRate,
+                loadTestScheduler
+        );
+    }
+}
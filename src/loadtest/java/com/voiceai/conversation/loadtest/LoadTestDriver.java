@@ -0,0 +1,389 @@
+package com.voiceai.conversation.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.voiceai.conversation.model.dto.QuestionResponse;
+import com.voiceai.conversation.model.dto.ResponseSubmissionResult;
+import com.voiceai.conversation.model.dto.SessionStartResponse;
+import com.voiceai.conversation.service.TokenSessionStore;
+import com.voiceai.conversation.service.TurnDeduplicator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Drives N concurrent simulated sessions through the public HTTP API
+ * (start, question, question audio, voice response, retry audio) against
+ * the local server and writes a throughput/latency/JVM report.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+@ConditionalOnProperty(name = "loadtest.driver.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class LoadTestDriver implements ApplicationRunner {
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    private static final List<String> SERVER_STAGE_TIMERS = List.of(
+            "questionnaire.stt.latency",
+            "questionnaire.classification.latency",
+            "questionnaire.tts.latency"
+    );
+
+    private final WebServerApplicationContext applicationContext;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${loadtest.driver.sessions:100}")
+    private int sessions;
+
+    @Value("${loadtest.driver.concurrency:20}")
+    private int concurrency;
+
+    @Value("${loadtest.driver.max-turns-per-session:20}")
+    private int maxTurnsPerSession;
+
+    @Value("${loadtest.driver.audio-bytes:160000}")
+    private int audioBytes;
+
+    @Value("${loadtest.driver.fetch-audio:true}")
+    private boolean fetchAudio;
+
+    @Value("${loadtest.driver.fetch-responses:false}")
+    private boolean fetchResponses;
+
+    @Value("${loadtest.driver.report-dir:build/reports/loadtest}")
+    private String reportDir;
+
+    @Value("${loadtest.driver.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    private final MeterRegistry stageRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger completedSessions = new AtomicInteger();
+    private final AtomicInteger failedSessions = new AtomicInteger();
+    private final AtomicLong turns = new AtomicLong();
+    private final AtomicLong peakHeapUsed = new AtomicLong();
+    private final AtomicLong peakBusyRequestThreads = new AtomicLong();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int port = applicationContext.getWebServer().getPort();
+        RestClient restClient = RestClient.builder().baseUrl("http://localhost:" + port).build();
+        byte[] audio = silentWav(audioBytes);
+
+        log.info("Load test starting: sessions={}, concurrency={}, audioBytes={}", sessions, concurrency, audioBytes);
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(this::sampleJvm, 0, 100, TimeUnit.MILLISECONDS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long startNanos = System.nanoTime();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            futures.add(workers.submit(() -> runSession(restClient, audio)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        workers.shutdown();
+        sampler.shutdownNow();
+
+        Map<String, Object> report = buildReport(elapsedMillis);
+        Path reportFile = writeReport(report);
+        log.info("Load test finished in {}ms: {} turns ({} turns/s), report at {}",
+                elapsedMillis, turns.get(), report.get("turnsPerSecond"), reportFile.toAbsolutePath());
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private void runSession(RestClient restClient, byte[] audio) {
+        // Carries client-held state when session.store=token; unused otherwise
+        AtomicReference<String> sessionToken = new AtomicReference<>();
+        try {
+            SessionStartResponse start = timed("start", () -> carryToken(sessionToken, restClient.post()
+                    .uri("/questionnaire/start")
+                    .retrieve()
+                    .toEntity(SessionStartResponse.class)));
+            String sessionId = start.getSessionId();
+
+            for (int turn = 0; turn < maxTurnsPerSession; turn++) {
+                QuestionResponse question = timed("question", () -> carryToken(sessionToken, restClient.get()
+                        .uri("/questionnaire/question/{sessionId}", sessionId)
+                        .headers(headers -> withToken(headers, sessionToken))
+                        .retrieve()
+                        .toEntity(QuestionResponse.class)));
+                if (question.isCompleted()) {
+                    complete(restClient, sessionId, sessionToken);
+                    return;
+                }
+
+                if (fetchAudio) {
+                    timed("question-audio", () -> carryToken(sessionToken, restClient.get()
+                            .uri("/questionnaire/question/{sessionId}/audio", sessionId)
+                            .headers(headers -> withToken(headers, sessionToken))
+                            .retrieve()
+                            .toEntity(byte[].class)));
+                }
+
+                ResponseSubmissionResult result = timed("response", () -> carryToken(sessionToken, restClient.post()
+                        .uri("/questionnaire/response/{sessionId}", sessionId)
+                        .headers(headers -> withToken(headers, sessionToken))
+                        // The harness sends the same clip every turn, so audio hashing would see duplicates
+                        .header(TurnDeduplicator.IDEMPOTENCY_HEADER, UUID.randomUUID().toString())
+                        .contentType(MediaType.MULTIPART_FORM_DATA)
+                        .body(audioPart(audio))
+                        .retrieve()
+                        .toEntity(ResponseSubmissionResult.class)));
+                turns.incrementAndGet();
+
+                if (result.isCompleted()) {
+                    complete(restClient, sessionId, sessionToken);
+                    return;
+                }
+
+                if (fetchAudio && result.getRetryAudioToken() != null) {
+                    timed("retry-audio", () -> carryToken(sessionToken, restClient.get()
+                            .uri(uri -> uri.path("/questionnaire/retry/{sessionId}/audio")
+                                    .queryParam("token", result.getRetryAudioToken())
+                                    .build(sessionId))
+                            .headers(headers -> withToken(headers, sessionToken))
+                            .retrieve()
+                            .toEntity(byte[].class)));
+                }
+            }
+            failedSessions.incrementAndGet();
+        } catch (Exception e) {
+            failedSessions.incrementAndGet();
+            log.debug("Simulated session failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Counts the session and, if enabled, reads its answers back through the
+     * read-only (replica-served) endpoint.
+     */
+    private void complete(RestClient restClient, String sessionId, AtomicReference<String> sessionToken) {
+        completedSessions.incrementAndGet();
+        if (fetchResponses) {
+            timed("responses", () -> restClient.get()
+                    .uri("/questionnaire/responses/{sessionId}", sessionId)
+                    .headers(headers -> withToken(headers, sessionToken))
+                    .retrieve()
+                    .body(Map.class));
+        }
+    }
+
+    private static <T> T carryToken(AtomicReference<String> sessionToken, ResponseEntity<T> response) {
+        String issued = response.getHeaders().getFirst(TokenSessionStore.TOKEN_HEADER);
+        if (issued != null) {
+            sessionToken.set(issued);
+        }
+        return response.getBody();
+    }
+
+    private static void withToken(HttpHeaders headers, AtomicReference<String> sessionToken) {
+        String token = sessionToken.get();
+        if (token != null) {
+            headers.set(TokenSessionStore.TOKEN_HEADER, token);
+        }
+    }
+
+    private <T> T timed(String stage, Supplier<T> call) {
+        Timer timer = Timer.builder("loadtest.stage")
+                .tag("stage", stage)
+                .publishPercentiles(PERCENTILES)
+                .register(stageRegistry);
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            stageRegistry.counter("loadtest.stage.errors", "stage", stage).increment();
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void sampleJvm() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        peakHeapUsed.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+
+        Gauge busyThreads = meterRegistry.find("tomcat.threads.busy").gauge();
+        if (busyThreads != null) {
+            peakBusyRequestThreads.accumulateAndGet((long) busyThreads.value(), Math::max);
+        }
+    }
+
+    private Map<String, Object> buildReport(long elapsedMillis) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("sessions", sessions);
+        report.put("concurrency", concurrency);
+        report.put("audioBytes", audioBytes);
+        report.put("elapsedMillis", elapsedMillis);
+        report.put("completedSessions", completedSessions.get());
+        report.put("failedSessions", failedSessions.get());
+        report.put("turns", turns.get());
+        report.put("turnsPerSecond", elapsedMillis == 0 ? 0.0 : turns.get() * 1000.0 / elapsedMillis);
+
+        Map<String, Object> clientStages = new LinkedHashMap<>();
+        stageRegistry.find("loadtest.stage").timers().forEach(timer -> {
+            String stage = timer.getId().getTag("stage");
+            Map<String, Object> summary = summarize(timer);
+            summary.put("errors", (long) stageRegistry.counter("loadtest.stage.errors", "stage", stage).count());
+            clientStages.put(stage, summary);
+        });
+        report.put("clientStages", clientStages);
+
+        Map<String, Object> serverStages = new LinkedHashMap<>();
+        for (String name : SERVER_STAGE_TIMERS) {
+            Timer timer = meterRegistry.find(name).timer();
+            if (timer != null) {
+                serverStages.put(name, summarize(timer));
+            }
+        }
+        report.put("serverStages", serverStages);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("liveThreads", threads.getThreadCount());
+        jvm.put("peakThreads", threads.getPeakThreadCount());
+        jvm.put("peakBusyRequestThreads", peakBusyRequestThreads.get());
+        jvm.put("peakHeapUsedBytes", peakHeapUsed.get());
+        jvm.put("heapCommittedBytes", memory.getHeapMemoryUsage().getCommitted());
+        jvm.put("gcCount", gcCount);
+        jvm.put("gcTimeMillis", gcMillis);
+        jvm.put("peakRssBytes", peakRssBytes());
+        report.put("jvm", jvm);
+
+        return report;
+    }
+
+    private Map<String, Object> summarize(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.count());
+        summary.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            summary.put("p" + Math.round(percentile.percentile() * 100) + "Millis",
+                    percentile.value(TimeUnit.MILLISECONDS));
+        }
+        summary.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));
+        return summary;
+    }
+
+    private Path writeReport(Map<String, Object> report) throws IOException {
+        Path directory = Path.of(reportDir);
+        Files.createDirectories(directory);
+        Path file = directory.resolve("loadtest-" + System.currentTimeMillis() + ".json");
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    /**
+     * Process high-water RSS from /proc (Linux only, -1 elsewhere); comparable
+     * between the JVM and native builds, unlike the heap figures.
+     */
+    private static long peakRssBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Peak RSS unavailable: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    private static MultiValueMap<String, Object> audioPart(byte[] audio) {
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("audio", new ByteArrayResource(audio) {
+            @Override
+            public String getFilename() {
+                return "response.wav";
+            }
+        });
+        return parts;
+    }
+
+    /**
+     * 16 kHz mono 16-bit PCM WAV of the given total size (silence).
+     */
+    private static byte[] silentWav(int totalBytes) {
+        byte[] data = new byte[Math.max(44, totalBytes)];
+        ByteBuffer header = ByteBuffer.wrap(data, 0, 44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'});
+        header.putInt(data.length - 8);
+        header.put(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16);
+        header.putShort((short) 1);
+        header.putShort((short) 1);
+        header.putInt(16000);
+        header.putInt(16000 * 2);
+        header.putShort((short) 2);
+        header.putShort((short) 16);
+        header.put(new byte[]{'d', 'a', 't', 'a'});
+        header.putInt(data.length - 44);
+        return data;
+    }
+}
@@ -0,0 +1,62 @@
+package com.voiceai.conversation.loadtest;
+
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency and fault model for one simulated AWS dependency.
+ * Latencies follow a log-normal distribution fitted to a median and a p99.
+ */
+public class SimulatedDependency {
+
+    private static final double Z_99 = 2.326;
+
+    @Getter
+    private final String name;
+    private final double medianMs;
+    private final double sigma;
+    private final double errorRate;
+    private final double throttleRate;
+
+    public SimulatedDependency(String name, long medianMs, long p99Ms, double errorRate, double throttleRate) {
+        this.name = name;
+        this.medianMs = Math.max(1, medianMs);
+        this.sigma = p99Ms > medianMs ? Math.log((double) p99Ms / this.medianMs) / Z_99 : 0.0;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+    }
+
+    public long sampleLatencyMillis() {
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return Math.round(medianMs * Math.exp(sigma * gaussian));
+    }
+
+    public Outcome nextOutcome() {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < throttleRate) {
+            return Outcome.THROTTLED;
+        }
+        if (roll < throttleRate + errorRate) {
+            return Outcome.FAILED;
+        }
+        return Outcome.OK;
+    }
+
+    /**
+     * Blocks the calling thread for one sampled latency, as a synchronous SDK call would.
+     */
+    public void simulateLatency() {
+        try {
+            Thread.sleep(sampleLatencyMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public enum Outcome {
+        OK,
+        FAILED,
+        THROTTLED
+    }
+}
@@ -1,9 +1,16 @@
 package com.voiceai.conversation;
 
+import com.voiceai.conversation.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// RedisConfig defines every Redis bean, and none with the in-memory session store
+@SpringBootApplication(exclude = RedisAutoConfiguration.class)
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class ConversationApplication {
 
 	public static void main(String[] args) {
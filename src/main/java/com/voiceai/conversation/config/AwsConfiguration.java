@@ -1,14 +1,25 @@
 package com.voiceai.conversation.config;
+import com.voiceai.conversation.service.MetricsService;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.http.Protocol;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.Http2Configuration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
 import software.amazon.awssdk.services.polly.PollyClient;
 import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
 
@@ -16,11 +27,24 @@ import java.time.Duration;
 
 /**
  * AWS service client configuration with production-grade retry and timeout settings.
+ * Polly uses a tuned Apache transport, Transcribe an HTTP/2 Netty transport
+ * and Bedrock its own HTTP/1.1 Netty transport, so a cancelled (hedged) call
+ * really aborts its request; pool sizes and keep-alive come from {@code aws.http.*}.
+ * SDK retries per service are capped by a {@link RetryBudget}; the budget is
+ * per instance, so its burst allowance is the fleet-wide figure split over
+ * {@code aws.retry-budget.instances}. Replaced by
+ * in-process fakes (the {@code loadtest} source set) under the
+ * {@code loadtest} profile.
  */
 @Slf4j
 @Configuration
+@Profile("!loadtest")
+@RequiredArgsConstructor
 public class AwsConfiguration {
 
+    private final ObservationRegistry observationRegistry;
+    private final MetricsService metricsService;
+
     @Value("${aws.region}")
     private String awsRegion;
 
@@ -30,17 +54,81 @@ public class AwsConfiguration {
     @Value("${aws.max-retries:3}")
     private int maxRetries;
 
+    @Value("${aws.retry-budget.ratio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${aws.retry-budget.max-tokens:10}")
+    private double retryBudgetMaxTokens;
+
+    @Value("${aws.retry-budget.instances:1}")
+    private int retryBudgetInstances;
+
+    @Value("${aws.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${aws.http.connection-timeout-millis:2000}")
+    private long connectionTimeoutMillis;
+
+    @Value("${aws.http.socket-timeout-millis:30000}")
+    private long socketTimeoutMillis;
+
+    @Value("${aws.http.connection-max-idle-seconds:60}")
+    private long connectionMaxIdleSeconds;
+
+    @Value("${aws.http.connection-ttl-seconds:300}")
+    private long connectionTtlSeconds;
+
+    @Value("${aws.http.tcp-keep-alive:true}")
+    private boolean tcpKeepAlive;
+
+    @Value("${aws.http.async.max-concurrency:100}")
+    private int asyncMaxConcurrency;
+
+    @Value("${aws.http.async.max-streams-per-connection:50}")
+    private long asyncMaxStreams;
+
+    @Value("${aws.http.async.health-check-ping-seconds:5}")
+    private long asyncHealthCheckPingSeconds;
+
+    /**
+     * Owns the shared transports so they can be closed and rebuilt around a
+     * CRaC checkpoint (see {@link RecyclableHttpClients}).
+     */
+    @Bean
+    public RecyclableHttpClients awsHttpClients() {
+        return new RecyclableHttpClients(this::buildSyncHttpClient, this::buildAsyncHttpClient,
+                this::buildBedrockHttpClient);
+    }
+
+    /**
+     * Pooled Apache transport shared by the synchronous clients (Polly).
+     */
+    @Bean(destroyMethod = "close")
+    public SdkHttpClient awsSyncHttpClient(RecyclableHttpClients awsHttpClients) {
+        return awsHttpClients.syncClient();
+    }
+
+    /**
+     * HTTP/2 Netty transport for Transcribe Streaming; each transcription is a
+     * stream multiplexed over a small number of kept-alive connections.
+     */
+    @Bean(destroyMethod = "close")
+    public SdkAsyncHttpClient awsAsyncHttpClient(RecyclableHttpClients awsHttpClients) {
+        return awsHttpClients.asyncClient();
+    }
+
     /**
      * Creates Amazon Polly client with retry policy and timeouts.
      */
     @Bean
-    public PollyClient pollyClient() {
+    public PollyClient pollyClient(SdkHttpClient awsSyncHttpClient) {
         log.info("Initializing Polly client for region: {}", awsRegion);
 
         return PollyClient.builder()
                 .region(Region.of(awsRegion))
+                .httpClient(awsSyncHttpClient)
                 .credentialsProvider(DefaultCredentialsProvider.create())
-                .overrideConfiguration(createClientConfig())
+                .overrideConfiguration(createClientConfig(ResilienceConfiguration.POLLY))
                 .build();
     }
 
@@ -48,41 +136,90 @@ public class AwsConfiguration {
      * Creates Amazon Transcribe Streaming async client with retry policy.
      */
     @Bean
-    public TranscribeStreamingAsyncClient transcribeClient() {
+    public TranscribeStreamingAsyncClient transcribeClient(SdkAsyncHttpClient awsAsyncHttpClient) {
         log.info("Initializing Transcribe Streaming client for region: {}", awsRegion);
 
         return TranscribeStreamingAsyncClient.builder()
                 .region(Region.of(awsRegion))
+                .httpClient(awsAsyncHttpClient)
                 .credentialsProvider(DefaultCredentialsProvider.create())
-                .overrideConfiguration(createClientConfig())
+                .overrideConfiguration(createClientConfig(ResilienceConfiguration.TRANSCRIBE))
                 .build();
     }
 
     /**
-     * Creates Amazon Bedrock Runtime client for Claude model access.
+     * Creates Amazon Bedrock Runtime async client for Claude model access.
      */
     @Bean
-    public BedrockRuntimeClient bedrockRuntimeClient() {
+    public BedrockRuntimeAsyncClient bedrockRuntimeClient(RecyclableHttpClients awsHttpClients) {
         log.info("Initializing Bedrock Runtime client for region: {}", awsRegion);
 
-        return BedrockRuntimeClient.builder()
+        return BedrockRuntimeAsyncClient.builder()
                 .region(Region.of(awsRegion))
+                .httpClient(awsHttpClients.bedrockClient())
                 .credentialsProvider(DefaultCredentialsProvider.create())
-                .overrideConfiguration(createClientConfig())
+                .overrideConfiguration(createClientConfig(ResilienceConfiguration.BEDROCK))
                 .build();
     }
 
     /**
-     * Creates standard client configuration with retry policy and timeouts.
+     * Creates standard client configuration with retry policy, timeouts,
+     * retry budget and attempt tracing.
      */
-    private ClientOverrideConfiguration createClientConfig() {
+    private ClientOverrideConfiguration createClientConfig(String service) {
+        // Each instance holds its own bucket: the ratio holds fleet-wide as it
+        // is, but N full buckets would let N times the burst through at once
+        double maxTokens = Math.max(1, retryBudgetMaxTokens / Math.max(1, retryBudgetInstances));
+        RetryBudget retryBudget = new RetryBudget(service, retryBudgetRatio, maxTokens, metricsService);
+
         return ClientOverrideConfiguration.builder()
                 .apiCallTimeout(Duration.ofSeconds(apiTimeoutSeconds))
                 .apiCallAttemptTimeout(Duration.ofSeconds(apiTimeoutSeconds / 2))
                 .retryPolicy(RetryPolicy.builder()
                         .numRetries(maxRetries)
                         .backoffStrategy(BackoffStrategy.defaultStrategy())
+                        .retryCondition(retryBudget.retryCondition(RetryCondition.defaultRetryCondition()))
+                        .build())
+                .addExecutionInterceptor(retryBudget.depositInterceptor())
+                .addExecutionInterceptor(new AwsTracingInterceptor(observationRegistry))
+                .build();
+    }
+
+    private SdkHttpClient buildSyncHttpClient() {
+        return ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMillis))
+                .socketTimeout(Duration.ofMillis(socketTimeoutMillis))
+                .connectionMaxIdleTime(Duration.ofSeconds(connectionMaxIdleSeconds))
+                .connectionTimeToLive(Duration.ofSeconds(connectionTtlSeconds))
+                .tcpKeepAlive(tcpKeepAlive)
+                .useIdleConnectionReaper(true)
+                .build();
+    }
+
+    private SdkAsyncHttpClient buildAsyncHttpClient() {
+        return NettyNioAsyncHttpClient.builder()
+                .protocol(Protocol.HTTP2)
+                .maxConcurrency(asyncMaxConcurrency)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMillis))
+                .connectionMaxIdleTime(Duration.ofSeconds(connectionMaxIdleSeconds))
+                .tcpKeepAlive(tcpKeepAlive)
+                .http2Configuration(Http2Configuration.builder()
+                        .maxStreams(asyncMaxStreams)
+                        .healthCheckPingPeriod(Duration.ofSeconds(asyncHealthCheckPingSeconds))
                         .build())
                 .build();
     }
-}
\ No newline at end of file
+
+    private SdkAsyncHttpClient buildBedrockHttpClient() {
+        return NettyNioAsyncHttpClient.builder()
+                .protocol(Protocol.HTTP1_1)
+                .maxConcurrency(maxConnections)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMillis))
+                .readTimeout(Duration.ofMillis(socketTimeoutMillis))
+                .connectionMaxIdleTime(Duration.ofSeconds(connectionMaxIdleSeconds))
+                .connectionTimeToLive(Duration.ofSeconds(connectionTtlSeconds))
+                .tcpKeepAlive(tcpKeepAlive)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.voiceai.conversation.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Counts HTTP attempts (initial call plus SDK retries) per AWS API call and
+ * attaches them to the observation that was current when the call was made.
+ */
+@RequiredArgsConstructor
+public class AwsTracingInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Integer> ATTEMPTS =
+            new ExecutionAttribute<>("questionnaire.aws.attempts");
+    private static final ExecutionAttribute<Observation> OBSERVATION =
+            new ExecutionAttribute<>("questionnaire.aws.observation");
+
+    private final ObservationRegistry observationRegistry;
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(ATTEMPTS, 0);
+
+        // Captured here because async clients complete on SDK threads with no observation in scope
+        Observation observation = observationRegistry.getCurrentObservation();
+        if (observation != null) {
+            executionAttributes.putAttribute(OBSERVATION, observation);
+        }
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        executionAttributes.putAttribute(ATTEMPTS, attempts == null ? 1 : attempts + 1);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        tagObservation(executionAttributes);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        tagObservation(executionAttributes);
+    }
+
+    private void tagObservation(ExecutionAttributes executionAttributes) {
+        Observation observation = executionAttributes.getAttribute(OBSERVATION);
+        if (observation == null) {
+            return;
+        }
+
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        int attemptCount = attempts == null ? 0 : attempts;
+
+        observation.highCardinalityKeyValue("aws.operation",
+                String.valueOf(executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME)));
+        observation.highCardinalityKeyValue("aws.attempts", String.valueOf(attemptCount));
+        observation.highCardinalityKeyValue("aws.retries", String.valueOf(Math.max(0, attemptCount - 1)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.voiceai.conversation.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Async appender that keeps request threads off the log I/O path.
+ *
+ * <p>Events are queued and written by a single background thread. Once the
+ * queue is past the discarding threshold (80% full by default), everything
+ * below ERROR is dropped instead of blocking the caller; errors still wait for
+ * space. Drops are counted per appender and exported as
+ * {@code questionnaire.log.events.dropped}. Caller data is never captured.
+ */
+public class DiscardingAsyncAppender extends AsyncAppender {
+
+    private static final Map<String, LongAdder> DROPPED_EVENTS = new ConcurrentHashMap<>();
+
+    private LongAdder dropped = new LongAdder();
+
+    /**
+     * Drop counters by appender name, for metrics registration.
+     */
+    public static Map<String, LongAdder> droppedEvents() {
+        return Collections.unmodifiableMap(DROPPED_EVENTS);
+    }
+
+    @Override
+    public void start() {
+        dropped = DROPPED_EVENTS.computeIfAbsent(getName(), name -> new LongAdder());
+        setIncludeCallerData(false);
+        super.start();
+    }
+
+    /**
+     * Only called once the queue is past the discarding threshold.
+     */
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(Level.ERROR)) {
+            return false;
+        }
+        dropped.increment();
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package com.voiceai.conversation.config;
+
+import com.voiceai.conversation.model.AudioMetadata;
+import com.voiceai.conversation.model.AwsUsage;
+import com.voiceai.conversation.model.ClassificationResult;
+import com.voiceai.conversation.model.Question;
+import com.voiceai.conversation.model.QuestionnaireDefinition;
+import com.voiceai.conversation.model.Session;
+import com.voiceai.conversation.model.UserResponse;
+import com.voiceai.conversation.model.bedrock.MessagesRequest;
+import com.voiceai.conversation.model.bedrock.MessagesResponse;
+import com.voiceai.conversation.model.dto.ErrorResponse;
+import com.voiceai.conversation.model.dto.QuestionResponse;
+import com.voiceai.conversation.model.dto.ResponseSubmissionResult;
+import com.voiceai.conversation.model.dto.SessionStartResponse;
+import com.voiceai.conversation.service.TurnDeduplicator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the native image
+ * ({@code ./gradlew nativeCompile -Pnative=true}).
+ *
+ * <p>Covers what Spring AOT cannot infer on its own: Jackson-bound Lombok
+ * types (HTTP DTOs, questionnaire files, Bedrock request and response envelopes), the
+ * concrete classes the polymorphic session serializer in {@link RedisConfig}
+ * writes by name, the questionnaire definition files, and the AWS SDK
+ * interceptor lists. The SDK clients themselves ship their own metadata.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                Session.class,
+                UserResponse.class,
+                AwsUsage.class,
+                ClassificationResult.class,
+                MessagesRequest.class,
+                MessagesResponse.class,
+                Question.class,
+                QuestionnaireDefinition.class,
+                AudioMetadata.class,
+                SessionStartResponse.class,
+                QuestionResponse.class,
+                ResponseSubmissionResult.class,
+                TurnDeduplicator.TurnOutcome.class,
+                ErrorResponse.class);
+
+        // Default typing stores these as "@class" and resolves them by name on read
+        for (Class<?> type : List.of(HashMap.class, LinkedHashMap.class, ArrayList.class, Instant.class)) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        hints.resources()
+                .registerPattern("questionnaires/*.json")
+                .registerPattern("software/amazon/awssdk/global/handlers/execution.interceptors")
+                .registerPattern("software/amazon/awssdk/services/*/execution.interceptors");
+    }
+}
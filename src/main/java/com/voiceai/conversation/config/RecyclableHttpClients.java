@@ -0,0 +1,145 @@
+package com.voiceai.conversation.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.AsyncExecuteRequest;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Shared AWS HTTP transports that can be closed and rebuilt while the SDK
+ * clients using them stay in place.
+ *
+ * <p>The transports are stopped as a {@link SmartLifecycle} after the web
+ * server, which also happens around a CRaC checkpoint: every pooled socket is
+ * closed before the process image is written, and a fresh pool is built
+ * lazily on the first call after restore, so no connection from the
+ * checkpointed process is ever reused.
+ */
+@Slf4j
+public class RecyclableHttpClients implements SmartLifecycle {
+
+    private final Recyclable<SdkHttpClient> sync;
+    private final Recyclable<SdkAsyncHttpClient> async;
+    private final Recyclable<SdkAsyncHttpClient> bedrock;
+    private volatile boolean running;
+
+    public RecyclableHttpClients(Supplier<SdkHttpClient> syncFactory, Supplier<SdkAsyncHttpClient> asyncFactory,
+                                 Supplier<SdkAsyncHttpClient> bedrockFactory) {
+        this.sync = new Recyclable<>(syncFactory);
+        this.async = new Recyclable<>(asyncFactory);
+        this.bedrock = new Recyclable<>(bedrockFactory);
+    }
+
+    public SdkHttpClient syncClient() {
+        return new SyncDelegate();
+    }
+
+    public SdkAsyncHttpClient asyncClient() {
+        return new AsyncDelegate(async);
+    }
+
+    public SdkAsyncHttpClient bedrockClient() {
+        return new AsyncDelegate(bedrock);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        sync.close();
+        async.close();
+        bedrock.close();
+        log.info("Closed AWS HTTP connection pools");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stopped after the web server (which runs at a higher phase) has drained
+     * in-flight requests.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private static final class Recyclable<T extends SdkAutoCloseable> {
+
+        private final Supplier<T> factory;
+        private T current;
+
+        Recyclable(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        synchronized T get() {
+            if (current == null) {
+                current = factory.get();
+            }
+            return current;
+        }
+
+        synchronized void close() {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+
+    private final class SyncDelegate implements SdkHttpClient {
+
+        @Override
+        public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+            return sync.get().prepareRequest(request);
+        }
+
+        @Override
+        public String clientName() {
+            return sync.get().clientName();
+        }
+
+        @Override
+        public void close() {
+            sync.close();
+        }
+    }
+
+    private static final class AsyncDelegate implements SdkAsyncHttpClient {
+
+        private final Recyclable<SdkAsyncHttpClient> client;
+
+        AsyncDelegate(Recyclable<SdkAsyncHttpClient> client) {
+            this.client = client;
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(AsyncExecuteRequest request) {
+            return client.get().execute(request);
+        }
+
+        @Override
+        public String clientName() {
+            return client.get().clientName();
+        }
+
+        @Override
+        public void close() {
+            client.close();
+        }
+    }
+}
@@ -4,26 +4,57 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+
 
 /**
  * Redis configuration for distributed session management.
  * Supports horizontal scaling by storing session data in Redis.
+ *
+ * <p>{@code redis.topology} selects a single node ({@code standalone}),
+ * Sentinel-managed failover ({@code sentinel}) or Redis Cluster
+ * ({@code cluster}, with periodic and adaptive topology refresh). Writes
+ * and read-your-writes lookups always go to the primary; with
+ * {@code redis.replica-reads.enabled} a second connection serves read-only
+ * endpoints from replicas through {@code replicaRedisTemplate}.
+ *
+ * <p>Replaces Spring Boot's Redis auto-configuration, and is skipped
+ * entirely with {@code session.store=memory}: single-node deployments then
+ * neither need a Redis server nor report one in health checks. Beans that
+ * only use Redis when sessions are shared take an {@code ObjectProvider}.
  */
 @Slf4j
 @Configuration
+@ConditionalOnExpression("'${session.store:redis}' != 'memory'")
 public class RedisConfig {
 
+    @Value("${redis.topology:standalone}")
+    private String topology;
+
     @Value("${spring.data.redis.host}")
     private String redisHost;
 
@@ -33,30 +64,144 @@ public class RedisConfig {
     @Value("${spring.data.redis.password:#{null}}")
     private String redisPassword;
 
+    @Value("${spring.data.redis.timeout:5000ms}")
+    private Duration commandTimeout;
+
+    @Value("${redis.sentinel.master:sessions}")
+    private String sentinelMaster;
+
+    @Value("${redis.sentinel.nodes:}")
+    private List<String> sentinelNodes;
+
+    @Value("${redis.cluster.nodes:}")
+    private List<String> clusterNodes;
+
+    @Value("${redis.cluster.max-redirects:3}")
+    private int clusterMaxRedirects;
+
+    @Value("${redis.cluster.refresh-period-seconds:30}")
+    private long clusterRefreshPeriodSeconds;
+
+    @Value("${redis.replica-reads.enabled:false}")
+    private boolean replicaReadsEnabled;
+
+    @Value("${redis.replica-reads.read-from:replicaPreferred}")
+    private String replicaReadFrom;
+
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        log.info("Configuring Redis connection to {}:{}", redisHost, redisPort);
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory() {
+        log.info("Configuring {} Redis connection", topology);
+        return connectionFactory(ReadFrom.UPSTREAM);
+    }
 
+    /**
+     * Connection that prefers replicas, for endpoints that tolerate
+     * replication lag.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "redis.replica-reads.enabled", havingValue = "true")
+    public LettuceConnectionFactory replicaRedisConnectionFactory() {
+        log.info("Configuring Redis replica reads ({})", replicaReadFrom);
+        return connectionFactory(ReadFrom.valueOf(replicaReadFrom));
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> template = template(connectionFactory);
+        log.info("RedisTemplate configured with polymorphic JSON serialization");
+        return template;
+    }
+
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+        return new StringRedisTemplate(connectionFactory);
+    }
+
+    /**
+     * Same serialization as {@code redisTemplate}; served by replicas when
+     * replica reads are enabled, otherwise by the primary.
+     */
+    @Bean
+    public RedisTemplate<String, Object> replicaRedisTemplate(RedisConnectionFactory connectionFactory) {
+        return template(replicaReadsEnabled ? replicaRedisConnectionFactory() : connectionFactory);
+    }
+
+    private LettuceConnectionFactory connectionFactory(ReadFrom readFrom) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder client = LettuceClientConfiguration.builder()
+                .commandTimeout(commandTimeout)
+                .readFrom(readFrom);
+
+        if (isCluster()) {
+            client.clientOptions(ClusterClientOptions.builder()
+                    .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                            .enablePeriodicRefresh(Duration.ofSeconds(clusterRefreshPeriodSeconds))
+                            .enableAllAdaptiveRefreshTriggers()
+                            .build())
+                    .build());
+        }
+
+        return new LettuceConnectionFactory(topologyConfiguration(), client.build());
+    }
+
+    private RedisConfiguration topologyConfiguration() {
+        boolean hasPassword = redisPassword != null && !redisPassword.isEmpty();
+
+        if (isCluster()) {
+            log.info("Redis Cluster seed nodes: {}", clusterNodes);
+            RedisClusterConfiguration config = new RedisClusterConfiguration(clusterNodes);
+            config.setMaxRedirects(clusterMaxRedirects);
+            if (hasPassword) {
+                config.setPassword(redisPassword);
+            }
+            return config;
+        }
+
+        if ("sentinel".equalsIgnoreCase(topology)) {
+            log.info("Redis Sentinel master {} via {}", sentinelMaster, sentinelNodes);
+            RedisSentinelConfiguration config =
+                    new RedisSentinelConfiguration(sentinelMaster, new HashSet<>(sentinelNodes));
+            if (hasPassword) {
+                config.setPassword(redisPassword);
+            }
+            return config;
+        }
+
+        log.info("Redis standalone at {}:{}", redisHost, redisPort);
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
         config.setHostName(redisHost);
         config.setPort(redisPort);
-
-        if (redisPassword != null && !redisPassword.isEmpty()) {
+        if (hasPassword) {
             config.setPassword(redisPassword);
         }
-
-        return new LettuceConnectionFactory(config);
+        return config;
     }
 
+    private boolean isCluster() {
+        return "cluster".equalsIgnoreCase(topology);
+    }
 
-    @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    private static RedisTemplate<String, Object> template(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
 
+        GenericJackson2JsonRedisSerializer serializer = sessionSerializer();
+
+        template.setValueSerializer(serializer);
+        template.setHashValueSerializer(serializer);
+
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * Polymorphic JSON serializer used for session values. Exposed statically so
+     * benchmarks exercise exactly the production configuration.
+     */
+    public static GenericJackson2JsonRedisSerializer sessionSerializer() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
 
@@ -68,16 +213,6 @@ public class RedisConfig {
                 JsonTypeInfo.As.PROPERTY
         );
 
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-
-
-        template.setValueSerializer(serializer);
-        template.setHashValueSerializer(serializer);
-
-        template.afterPropertiesSet();
-
-        log.info("RedisTemplate configured with polymorphic JSON serialization");
-
-        return template;
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.voiceai.conversation.config;
+
+import com.voiceai.conversation.config.exception.AudioUploadException;
+import com.voiceai.conversation.config.exception.InvalidAudioException;
+import com.voiceai.conversation.service.MetricsService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Circuit breakers for the AWS dependencies, one per service.
+ * Breaker state and call outcomes are exported through Micrometer.
+ */
+@Slf4j
+@Configuration
+public class ResilienceConfiguration {
+
+    public static final String TRANSCRIBE = "transcribe";
+    public static final String BEDROCK = "bedrock";
+    public static final String POLLY = "polly";
+
+    @Value("${resilience.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${resilience.circuit-breaker.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+
+    @Value("${resilience.circuit-breaker.slow-call-duration-millis:10000}")
+    private long slowCallDurationMillis;
+
+    @Value("${resilience.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${resilience.circuit-breaker.minimum-number-of-calls:10}")
+    private int minimumNumberOfCalls;
+
+    @Value("${resilience.circuit-breaker.wait-duration-open-seconds:30}")
+    private int waitDurationOpenSeconds;
+
+    @Value("${resilience.circuit-breaker.permitted-calls-half-open:3}")
+    private int permittedCallsHalfOpen;
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry, MetricsService metricsService) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMillis))
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(Duration.ofSeconds(waitDurationOpenSeconds))
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsHalfOpen)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // Bad input, a broken client upload and cancellations (an exhausted
+                // turn budget, an interrupted caller) say nothing about the dependency's health
+                .ignoreExceptions(InvalidAudioException.class, IllegalArgumentException.class,
+                        AudioUploadException.class, CancellationException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        registry.getEventPublisher().onEntryAdded(event -> {
+            CircuitBreaker circuitBreaker = event.getAddedEntry();
+            circuitBreaker.getEventPublisher().onStateTransition(transition -> {
+                log.warn("Circuit breaker {} changed state: {}",
+                        transition.getCircuitBreakerName(), transition.getStateTransition());
+                metricsService.incrementCircuitBreakerTransition(
+                        transition.getCircuitBreakerName(),
+                        transition.getStateTransition().getFromState().name(),
+                        transition.getStateTransition().getToState().name());
+            });
+        });
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        // Create eagerly so the state gauges exist before the first call
+        registry.circuitBreaker(TRANSCRIBE);
+        registry.circuitBreaker(BEDROCK);
+        registry.circuitBreaker(POLLY);
+
+        return registry;
+    }
+}
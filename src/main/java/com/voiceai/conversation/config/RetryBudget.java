@@ -0,0 +1,90 @@
+package com.voiceai.conversation.config;
+
+import com.voiceai.conversation.service.MetricsService;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+
+/**
+ * Token bucket limiting SDK retries to a fraction of the calls made to one
+ * AWS service.
+ *
+ * <p>Every call deposits {@code ratio} tokens (capped at {@code maxTokens})
+ * and every retry withdraws one. With a ratio of 0.1, retries can add at
+ * most ~10% to the traffic this instance sends, so the fleet as a whole
+ * never multiplies load on a service that is already failing.
+ *
+ * <p>The bucket lives in this instance only. The ratio therefore holds for
+ * the fleet as well, but a fleet of N instances can spend N full buckets at
+ * once; callers size {@code maxTokens} as their share of the fleet's burst.
+ */
+public class RetryBudget {
+
+    private final String service;
+    private final double ratio;
+    private final double maxTokens;
+    private final MetricsService metricsService;
+    private double tokens;
+
+    public RetryBudget(String service, double ratio, double maxTokens, MetricsService metricsService) {
+        this.service = service;
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.metricsService = metricsService;
+        this.tokens = maxTokens;
+    }
+
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Takes one token for a retry; returns {@code false} if the budget is spent.
+     */
+    public boolean tryAcquire() {
+        synchronized (this) {
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+        }
+        metricsService.incrementRetryBudgetExhausted(service);
+        return false;
+    }
+
+    /**
+     * Retries only when {@code delegate} allows it and the budget has a token left.
+     */
+    public RetryCondition retryCondition(RetryCondition delegate) {
+        return new RetryCondition() {
+            @Override
+            public boolean shouldRetry(RetryPolicyContext context) {
+                return delegate.shouldRetry(context) && tryAcquire();
+            }
+
+            @Override
+            public void requestWillNotBeRetried(RetryPolicyContext context) {
+                delegate.requestWillNotBeRetried(context);
+            }
+
+            @Override
+            public void requestSucceeded(RetryPolicyContext context) {
+                delegate.requestSucceeded(context);
+            }
+        };
+    }
+
+    /**
+     * Deposits into the budget once per API call (not per attempt).
+     */
+    public ExecutionInterceptor depositInterceptor() {
+        return new ExecutionInterceptor() {
+            @Override
+            public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+                deposit();
+            }
+        };
+    }
+}
@@ -33,7 +33,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(allowedOrigins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
-        configuration.setExposedHeaders(Arrays.asList("Content-Disposition", "X-Session-Id"));
+        configuration.setExposedHeaders(Arrays.asList("Content-Disposition", "X-Session-Id", "X-Session-Token"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(corsMaxAge);
 
@@ -6,7 +6,9 @@ import org.springframework.web.servlet.config.annotation.ContentNegotiationConfi
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * Web MVC configuration for content negotiation.
+ * Web MVC configuration for content negotiation. The audio endpoints resolve
+ * the client's {@code Accept} header through the same manager to pick a
+ * synthesized audio format.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -18,6 +20,8 @@ public class WebConfig implements WebMvcConfigurer {
                 .ignoreAcceptHeader(false)
                 .defaultContentType(MediaType.APPLICATION_JSON)
                 .mediaType("json", MediaType.APPLICATION_JSON)
-                .mediaType("mp3", MediaType.parseMediaType("audio/mpeg"));
+                .mediaType("mp3", MediaType.parseMediaType("audio/mpeg"))
+                .mediaType("ogg", MediaType.parseMediaType("audio/ogg"))
+                .mediaType("pcm", MediaType.parseMediaType("audio/pcm"));
     }
 }
\ No newline at end of file
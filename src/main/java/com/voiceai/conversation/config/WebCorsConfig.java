@@ -22,7 +22,8 @@ public class WebCorsConfig implements WebMvcConfigurer {
                 )
                 .allowedHeaders("*")
                 .exposedHeaders(
-                        "Content-Disposition" // needed for MP3 response
+                        "Content-Disposition", // needed for MP3 response
+                        "X-Session-Token" // client-held state for session.store=token
                 )
                 .allowCredentials(false)
                 .maxAge(3600);
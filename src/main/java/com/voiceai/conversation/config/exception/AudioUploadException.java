@@ -0,0 +1,11 @@
+package com.voiceai.conversation.config.exception;
+
+/**
+ * The client's audio upload broke off while it was being streamed (client
+ * disconnect, truncated body). A client error, not a Transcribe failure.
+ */
+public class AudioUploadException extends RuntimeException {
+    public AudioUploadException(Throwable cause) {
+        super("Audio upload interrupted: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,22 @@
+package com.voiceai.conversation.config.exception;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * A voice turn ran out of its time budget. A cancellation rather than a
+ * dependency failure: circuit breakers ignore it, and callers sharing the
+ * cancelled call retry under their own deadline.
+ */
+public class DeadlineExceededException extends CancellationException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super("Turn deadline exceeded during " + stage);
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
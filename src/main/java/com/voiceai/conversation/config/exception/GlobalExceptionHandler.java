@@ -30,6 +30,42 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(QuestionnaireNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleQuestionnaireNotFound(
+            QuestionnaireNotFoundException ex, WebRequest request) {
+        log.warn("Questionnaire not found: {}", ex.getMessage());
+        return buildErrorResponse(
+                "QUESTIONNAIRE_NOT_FOUND",
+                ex.getMessage(),
+                request.getDescription(false),
+                HttpStatus.NOT_FOUND
+        );
+    }
+
+    @ExceptionHandler(RetryAudioNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleRetryAudioNotFound(
+            RetryAudioNotFoundException ex, WebRequest request) {
+        log.warn("Retry audio not found: {}", ex.getMessage());
+        return buildErrorResponse(
+                "RETRY_AUDIO_NOT_FOUND",
+                ex.getMessage(),
+                request.getDescription(false),
+                HttpStatus.NOT_FOUND
+        );
+    }
+
+    @ExceptionHandler(StaleSessionTokenException.class)
+    public ResponseEntity<ErrorResponse> handleStaleSessionToken(
+            StaleSessionTokenException ex, WebRequest request) {
+        log.warn("Stale session token: {}", ex.getMessage());
+        return buildErrorResponse(
+                "STALE_SESSION_TOKEN",
+                ex.getMessage(),
+                request.getDescription(false),
+                HttpStatus.CONFLICT
+        );
+    }
+
     @ExceptionHandler(InvalidAudioException.class)
     public ResponseEntity<ErrorResponse> handleInvalidAudio(
             InvalidAudioException ex, WebRequest request) {
@@ -42,6 +78,18 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(AudioUploadException.class)
+    public ResponseEntity<ErrorResponse> handleAudioUpload(
+            AudioUploadException ex, WebRequest request) {
+        log.warn("Audio upload failed: {}", ex.getMessage());
+        return buildErrorResponse(
+                "AUDIO_UPLOAD_FAILED",
+                "The audio upload was interrupted. Please try again.",
+                request.getDescription(false),
+                HttpStatus.BAD_REQUEST
+        );
+    }
+
     @ExceptionHandler(ServiceUnavailableException.class)
     public ResponseEntity<ErrorResponse> handleServiceUnavailable(
             ServiceUnavailableException ex, WebRequest request) {
@@ -54,6 +102,18 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDeadlineExceeded(
+            DeadlineExceededException ex, WebRequest request) {
+        log.warn("Deadline exceeded: {}", ex.getMessage());
+        return buildErrorResponse(
+                "DEADLINE_EXCEEDED",
+                "The request could not be completed in time. Please try again.",
+                request.getDescription(false),
+                HttpStatus.GATEWAY_TIMEOUT
+        );
+    }
+
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<ErrorResponse> handleMaxUploadSize(
             MaxUploadSizeExceededException ex, WebRequest request) {
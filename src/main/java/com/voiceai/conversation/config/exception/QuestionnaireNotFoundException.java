@@ -0,0 +1,7 @@
+package com.voiceai.conversation.config.exception;
+
+public class QuestionnaireNotFoundException extends RuntimeException {
+    public QuestionnaireNotFoundException(String questionnaireId, Integer version) {
+        super("Questionnaire not found: " + questionnaireId + (version == null ? "" : " v" + version));
+    }
+}
@@ -0,0 +1,7 @@
+package com.voiceai.conversation.config.exception;
+
+public class RetryAudioNotFoundException extends RuntimeException {
+    public RetryAudioNotFoundException(String sessionId) {
+        super("No retry audio pending for session: " + sessionId);
+    }
+}
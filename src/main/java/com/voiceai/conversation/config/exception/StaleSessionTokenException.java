@@ -0,0 +1,21 @@
+package com.voiceai.conversation.config.exception;
+
+import com.voiceai.conversation.model.Session;
+
+public class StaleSessionTokenException extends RuntimeException {
+
+    private final transient Session presented;
+
+    public StaleSessionTokenException(Session presented, long latest) {
+        super("Session token for " + presented.getSessionId() + " is out of date (revision "
+                + presented.getRevision() + ", latest " + latest + ")");
+        this.presented = presented;
+    }
+
+    /**
+     * The session as encoded in the rejected token.
+     */
+    public Session getPresented() {
+        return presented;
+    }
+}
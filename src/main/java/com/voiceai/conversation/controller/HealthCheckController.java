@@ -1,35 +1,29 @@
 package com.voiceai.conversation.controller;
 
+import com.voiceai.conversation.service.AwsWarmUp;
+import com.voiceai.conversation.service.DependencyHealthMonitor;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
-import software.amazon.awssdk.services.polly.PollyClient;
-import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
 
 import java.time.Instant;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Health check endpoints for load balancer and monitoring.
  */
-@Slf4j
 @RestController
 @RequestMapping("/health")
 @RequiredArgsConstructor
 public class HealthCheckController {
 
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final PollyClient pollyClient;
-    private final TranscribeStreamingAsyncClient transcribeClient;
-    private final BedrockRuntimeClient bedrockClient;
+    private final DependencyHealthMonitor healthMonitor;
+    private final AwsWarmUp awsWarmUp;
 
     @GetMapping
     public ResponseEntity<HealthStatus> healthCheck() {
@@ -40,35 +34,23 @@ public class HealthCheckController {
         ));
     }
 
+    /**
+     * Serves the state cached by {@link DependencyHealthMonitor}; never calls
+     * a dependency on the request thread. Not ready until warm-up has finished.
+     */
     @GetMapping("/ready")
     public ResponseEntity<ReadinessStatus> readinessCheck() {
-        Map<String, Boolean> dependencies = new HashMap<>();
-        boolean allHealthy = true;
+        Map<String, DependencyHealthMonitor.DependencyStatus> details = healthMonitor.getStatuses();
 
-        try {
-            redisTemplate.hasKey("health-check");
-            dependencies.put("redis", true);
-        } catch (Exception e) {
-            log.error("Redis health check failed", e);
-            dependencies.put("redis", false);
-            allHealthy = false;
-        }
-
-        try {
-            pollyClient.describeVoices();
-            dependencies.put("polly", true);
-        } catch (Exception e) {
-            log.error("Polly health check failed", e);
-            dependencies.put("polly", false);
-            allHealthy = false;
-        }
-
-        dependencies.put("transcribe", true);
-        dependencies.put("bedrock", true);
+        Map<String, Boolean> dependencies = new LinkedHashMap<>();
+        details.forEach((name, status) -> dependencies.put(name, status.isUp()));
+        dependencies.put("warmup", awsWarmUp.isComplete());
+        boolean allHealthy = dependencies.values().stream().allMatch(Boolean::booleanValue);
 
         ReadinessStatus status = new ReadinessStatus(
                 allHealthy ? "READY" : "NOT_READY",
-                dependencies
+                dependencies,
+                details
         );
 
         return allHealthy ?
@@ -89,5 +71,6 @@ public class HealthCheckController {
     static class ReadinessStatus {
         private String status;
         private Map<String, Boolean> dependencies;
+        private Map<String, DependencyHealthMonitor.DependencyStatus> details;
     }
 }
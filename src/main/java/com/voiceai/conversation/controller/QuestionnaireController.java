@@ -1,12 +1,23 @@
 package com.voiceai.conversation.controller;
 
+import com.voiceai.conversation.model.AudioOutputFormat;
 import com.voiceai.conversation.model.Question;
 import com.voiceai.conversation.model.Session;
 import com.voiceai.conversation.model.dto.QuestionResponse;
 import com.voiceai.conversation.model.dto.ResponseSubmissionResult;
 import com.voiceai.conversation.model.dto.SessionStartResponse;
+import com.voiceai.conversation.service.AudioValidator;
+import com.voiceai.conversation.service.CompiledQuestionnaire;
 import com.voiceai.conversation.service.QuestionnaireOrchestrator;
+import com.voiceai.conversation.service.QuestionnaireRegistry;
 import com.voiceai.conversation.service.SessionService;
+import com.voiceai.conversation.service.TokenSessionStore;
+import com.voiceai.conversation.service.TurnDeadline;
+import com.voiceai.conversation.service.TurnDeduplicator;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,11 +25,15 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -33,15 +48,34 @@ public class QuestionnaireController {
 
     private final QuestionnaireOrchestrator orchestrator;
     private final SessionService sessionService;
-    private final List<Question> questions;
+    private final AudioValidator audioValidator;
+    private final QuestionnaireRegistry questionnaireRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final ContentNegotiationManager contentNegotiationManager;
+    private final TurnDeduplicator turnDeduplicator;
 
     @Value("${session.timeout-minutes:30}")
     private long sessionTimeoutMinutes;
 
+    @Value("${questionnaire.turn.deadline-millis:15000}")
+    private long turnDeadlineMillis;
+
+    @Value("${questionnaire.turn.max-deadline-millis:30000}")
+    private long maxTurnDeadlineMillis;
+
+    /**
+     * Starts a session on the latest version of the requested (or default)
+     * questionnaire; the session stays on that version until it ends.
+     */
     @PostMapping("/start")
-    public ResponseEntity<SessionStartResponse> startSession() {
-        log.info("Starting new questionnaire session");
-        String sessionId = sessionService.createSession();
+    public ResponseEntity<SessionStartResponse> startSession(
+            @RequestParam(required = false) String questionnaireId) {
+        CompiledQuestionnaire questionnaire = questionnaireId == null
+                ? questionnaireRegistry.getDefault()
+                : questionnaireRegistry.latest(questionnaireId);
+
+        log.info("Starting new questionnaire session ({} v{})", questionnaire.getId(), questionnaire.getVersion());
+        String sessionId = sessionService.createSession(questionnaire.getId(), questionnaire.getVersion());
 
         SessionStartResponse response = new SessionStartResponse(
                 sessionId,
@@ -54,67 +88,85 @@ public class QuestionnaireController {
 
     @GetMapping("/question/{sessionId}")
     public ResponseEntity<QuestionResponse> getCurrentQuestion(@PathVariable String sessionId) {
-        log.info("Getting current question for session: {}", sessionId);
+        log.debug("Getting current question for session: {}", sessionId);
 
         Question question = orchestrator.getCurrentQuestion(sessionId);
+        Session session = sessionService.getSession(sessionId);
+        int totalQuestions = orchestrator.questionnaireFor(session).size();
 
         if (question == null) {
             return ResponseEntity.ok(new QuestionResponse(
                     null,
                     "Questionnaire completed",
                     true,
-                    questions.size(),
-                    questions.size()
+                    totalQuestions,
+                    totalQuestions
             ));
         }
 
-        Session session = sessionService.getSession(sessionId);
-
         return ResponseEntity.ok(new QuestionResponse(
                 question,
                 "Current question retrieved",
                 false,
-                questions.size(),
+                totalQuestions,
                 session.getCurrentQuestionIndex() + 1
         ));
     }
 
+    /**
+     * Question audio in the format negotiated from {@code Accept}
+     * (see {@link AudioOutputFormat}); MP3 unless the client asks otherwise.
+     * Waits for a synthesis shared with other requests are bounded by the
+     * {@value TurnDeadline#HEADER} budget, or the configured default.
+     */
     @GetMapping("/question/{sessionId}/audio")
-    public ResponseEntity<byte[]> getQuestionAudio(@PathVariable String sessionId) {
-        log.info("Getting question audio for session: {}", sessionId);
-
-        byte[] audioData = orchestrator.getQuestionAudio(sessionId);
+    public ResponseEntity<byte[]> getQuestionAudio(
+            @PathVariable String sessionId,
+            @RequestHeader(value = TurnDeadline.HEADER, required = false) Long deadlineMillis,
+            HttpServletRequest request) {
+        log.debug("Getting question audio for session: {}", sessionId);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("audio/mpeg"));
-        headers.setContentLength(audioData.length);
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=question.mp3");
+        AudioOutputFormat format = negotiateAudioFormat(request);
+        byte[] audioData = orchestrator.getQuestionAudio(sessionId, format, turnDeadline(deadlineMillis));
 
-        return new ResponseEntity<>(audioData, headers, HttpStatus.OK);
+        return audioResponse(audioData, format, "question");
     }
 
+    /**
+     * Retry prompt audio, addressed by the {@code retryAudioToken} from the
+     * last response; synthesis was started when that response was produced.
+     * Waits are bounded as for question audio.
+     */
     @GetMapping("/retry/{sessionId}/audio")
     public ResponseEntity<byte[]> getRetryAudio(
             @PathVariable String sessionId,
-            @RequestParam String message) {
-        log.info("Getting retry audio for session: {}", sessionId);
+            @RequestParam String token,
+            @RequestHeader(value = TurnDeadline.HEADER, required = false) Long deadlineMillis,
+            HttpServletRequest request) {
+        log.debug("Getting retry audio for session: {}", sessionId);
 
-        byte[] audioData = orchestrator.getRetryAudio(message);
+        AudioOutputFormat format = negotiateAudioFormat(request);
+        byte[] audioData = orchestrator.getRetryAudio(sessionId, token, format, turnDeadline(deadlineMillis));
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("audio/mpeg"));
-        headers.setContentLength(audioData.length);
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=retry.mp3");
-
-        return new ResponseEntity<>(audioData, headers, HttpStatus.OK);
+        return audioResponse(audioData, format, "retry");
     }
 
+    /**
+     * Idempotent: a resubmission of the same turn (same {@code Idempotency-Key},
+     * or, if enabled, same audio for the same turn) returns the original result, see
+     * {@link TurnDeduplicator}. The turn must finish within the client's
+     * {@value TurnDeadline#HEADER} budget, or the configured default.
+     */
     @PostMapping("/response/{sessionId}")
     public ResponseEntity<ResponseSubmissionResult> processVoiceResponse(
             @PathVariable String sessionId,
-            @RequestParam("audio") MultipartFile audioFile) throws IOException {
+            @RequestParam("audio") MultipartFile audioFile,
+            @RequestHeader(value = TurnDeduplicator.IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = TurnDeadline.HEADER, required = false) Long deadlineMillis,
+            HttpServletResponse response) throws IOException {
 
-        log.info("Processing voice response for session: {}", sessionId);
+        TurnDeadline deadline = turnDeadline(deadlineMillis);
+        log.debug("Processing voice response for session: {}", sessionId);
 
         if (audioFile.isEmpty()) {
             return ResponseEntity.badRequest().body(
@@ -126,6 +178,7 @@ public class QuestionnaireController {
                             false,
                             0.0,
                             null,
+                            null,
                             false
                     )
             );
@@ -133,10 +186,18 @@ public class QuestionnaireController {
 
         try {
             byte[] audioData = audioFile.getBytes();
-            QuestionnaireOrchestrator.ProcessingResult result =
-                    orchestrator.processVoiceResponse(sessionId, audioData);
-
-            return ResponseEntity.ok(mapToDto(result));
+            TurnDeduplicator.TurnOutcome outcome = turnDeduplicator.submit(sessionId, idempotencyKey, audioData, deadline, session -> {
+                QuestionnaireOrchestrator.ProcessingResult result =
+                        Observation.createNotStarted("questionnaire.turn", observationRegistry)
+                                .contextualName("voice-turn")
+                                .highCardinalityKeyValue("session.id", sessionId)
+                                .highCardinalityKeyValue("audio.bytes", String.valueOf(audioData.length))
+                                .observe(() -> orchestrator.processVoiceResponse(
+                                        sessionId, session, audioData, deadline));
+                return outcome(result, response);
+            });
+
+            return turnResponse(outcome, response);
 
         } catch (Exception e) {
             log.error("Error processing response: {}", e.getMessage(), e);
@@ -144,6 +205,45 @@ public class QuestionnaireController {
         }
     }
 
+    /**
+     * Streaming variant of {@link #processVoiceResponse}: the raw request body
+     * ({@code application/octet-stream} or {@code audio/*}) is piped into
+     * transcription without buffering the whole clip.
+     */
+    @PostMapping(
+            value = "/response/{sessionId}/stream",
+            consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "audio/*"}
+    )
+    public ResponseEntity<ResponseSubmissionResult> processVoiceResponseStream(
+            @PathVariable String sessionId,
+            @RequestHeader(value = TurnDeduplicator.IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = TurnDeadline.HEADER, required = false) Long deadlineMillis,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        TurnDeadline deadline = turnDeadline(deadlineMillis);
+
+        log.debug("Processing streamed voice response for session: {}", sessionId);
+
+        audioValidator.validateDeclaredLength(request.getContentLengthLong());
+
+        // The body is not buffered, so only the Idempotency-Key header can identify a duplicate
+        try (InputStream audioStream = request.getInputStream()) {
+            TurnDeduplicator.TurnOutcome outcome = turnDeduplicator.submit(sessionId, idempotencyKey, null, deadline, session -> {
+                QuestionnaireOrchestrator.ProcessingResult result =
+                        Observation.createNotStarted("questionnaire.turn", observationRegistry)
+                                .contextualName("voice-turn-stream")
+                                .highCardinalityKeyValue("session.id", sessionId)
+                                .highCardinalityKeyValue("audio.declared.bytes",
+                                        String.valueOf(request.getContentLengthLong()))
+                                .observe(() -> orchestrator.processVoiceResponse(sessionId, audioStream, deadline));
+                return outcome(result, response);
+            });
+
+            return turnResponse(outcome, response);
+        }
+    }
+
     @PostMapping("/cancel/{sessionId}")
     public ResponseEntity<Map<String, Object>> cancelSession(@PathVariable String sessionId) {
         log.info("Cancelling session: {}", sessionId);
@@ -166,9 +266,9 @@ public class QuestionnaireController {
 
     @GetMapping("/responses/{sessionId}")
     public ResponseEntity<Map<Integer, String>> getSessionResponses(@PathVariable String sessionId) {
-        log.info("Getting responses for session: {}", sessionId);
+        log.debug("Getting responses for session: {}", sessionId);
 
-        Session session = sessionService.getSession(sessionId);
+        Session session = sessionService.getSessionForRead(sessionId);
         Map<Integer, String> responses = session.getResponses().entrySet().stream()
                 .collect(Collectors.toMap(
                         Map.Entry::getKey,
@@ -178,6 +278,52 @@ public class QuestionnaireController {
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Starts the turn's clock on arrival, so time spent waiting on a
+     * duplicate or reading the upload counts against it.
+     */
+    private TurnDeadline turnDeadline(Long requestedMillis) {
+        long millis = requestedMillis == null || requestedMillis <= 0
+                ? turnDeadlineMillis
+                : Math.min(requestedMillis, maxTurnDeadlineMillis);
+        return TurnDeadline.after(Duration.ofMillis(millis));
+    }
+
+    private AudioOutputFormat negotiateAudioFormat(HttpServletRequest request) {
+        try {
+            return AudioOutputFormat.negotiate(
+                    contentNegotiationManager.resolveMediaTypes(new ServletWebRequest(request)));
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return AudioOutputFormat.DEFAULT;
+        }
+    }
+
+    private static ResponseEntity<byte[]> audioResponse(byte[] audioData, AudioOutputFormat format, String name) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.getMediaType());
+        headers.setContentLength(audioData.length);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=" + name + "." + format.getFileExtension());
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        return new ResponseEntity<>(audioData, headers, HttpStatus.OK);
+    }
+
+    private TurnDeduplicator.TurnOutcome outcome(
+            QuestionnaireOrchestrator.ProcessingResult result, HttpServletResponse response) {
+        return new TurnDeduplicator.TurnOutcome(mapToDto(result), response.getHeader(TokenSessionStore.TOKEN_HEADER));
+    }
+
+    /**
+     * A replayed outcome re-issues the session token the original response carried.
+     */
+    private static ResponseEntity<ResponseSubmissionResult> turnResponse(
+            TurnDeduplicator.TurnOutcome outcome, HttpServletResponse response) {
+        if (outcome.sessionToken() != null) {
+            response.setHeader(TokenSessionStore.TOKEN_HEADER, outcome.sessionToken());
+        }
+        return ResponseEntity.ok(outcome.result());
+    }
+
     private ResponseSubmissionResult mapToDto(QuestionnaireOrchestrator.ProcessingResult result) {
         return new ResponseSubmissionResult(
                 result.getStatus().name(),
@@ -187,6 +333,9 @@ public class QuestionnaireController {
                 result.getStatus() == QuestionnaireOrchestrator.ProcessingStatus.COMPLETED,
                 result.getClassification() != null ? result.getClassification().getConfidence() : 0.0,
                 result.getRetryMessage(),
+                result.getStatus() == QuestionnaireOrchestrator.ProcessingStatus.RETRY
+                        ? result.getSession().getRetryAudioToken()
+                        : null,
                 result.getSession().isSuccessful()
         );
     }
@@ -0,0 +1,28 @@
+package com.voiceai.conversation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Container format and sample rate detected from an uploaded clip's header.
+ * Channels and bits per sample are only known for WAV; they are 0 otherwise.
+ */
+@Data
+@AllArgsConstructor
+public class AudioMetadata {
+
+    private AudioFormat format;
+    private int sampleRateHertz;
+    private int channels;
+    private int bitsPerSample;
+
+    public AudioMetadata(AudioFormat format, int sampleRateHertz) {
+        this(format, sampleRateHertz, 0, 0);
+    }
+
+    public enum AudioFormat {
+        WAV,
+        OGG_OPUS,
+        FLAC
+    }
+}
@@ -0,0 +1,83 @@
+package com.voiceai.conversation.model;
+
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthesized audio formats offered to clients, chosen from the
+ * {@code Accept} header. A {@code rate} parameter selects the sample rate
+ * where a type is offered at several (e.g. {@code audio/mpeg;rate=16000}).
+ * PCM is signed 16-bit little-endian mono, as Polly returns it.
+ */
+public enum AudioOutputFormat {
+
+    MP3("audio/mpeg", 24000, "mp3"),
+    MP3_16K("audio/mpeg", 16000, "mp3"),
+    OGG_VORBIS("audio/ogg", 16000, "ogg"),
+    PCM_8K("audio/pcm", 8000, "pcm");
+
+    public static final AudioOutputFormat DEFAULT = MP3;
+
+    private static final String RATE = "rate";
+
+    private final MediaType mediaType;
+    private final int sampleRateHertz;
+    private final String fileExtension;
+
+    AudioOutputFormat(String mediaType, int sampleRateHertz, String fileExtension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.sampleRateHertz = sampleRateHertz;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Content type sent back, with the rate for PCM since the bytes carry no header.
+     */
+    public MediaType getMediaType() {
+        return this == PCM_8K
+                ? new MediaType(mediaType, Map.of(RATE, String.valueOf(sampleRateHertz)))
+                : mediaType;
+    }
+
+    public int getSampleRateHertz() {
+        return sampleRateHertz;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * First format acceptable by quality order; {@link #DEFAULT} when the
+     * client accepts anything or none of the offered formats.
+     */
+    public static AudioOutputFormat negotiate(List<MediaType> accepted) {
+        List<MediaType> byQuality = accepted.stream()
+                .filter(type -> type.getQualityValue() > 0)
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .toList();
+
+        for (MediaType acceptedType : byQuality) {
+            if (acceptedType.isWildcardType()) {
+                return DEFAULT;
+            }
+            for (AudioOutputFormat format : values()) {
+                if (format.matches(acceptedType)) {
+                    return format;
+                }
+            }
+        }
+        return DEFAULT;
+    }
+
+    private boolean matches(MediaType acceptedType) {
+        if (!acceptedType.includes(mediaType)) {
+            return false;
+        }
+        String rate = acceptedType.getParameter(RATE);
+        return rate == null || rate.equals(String.valueOf(sampleRateHertz));
+    }
+}
@@ -0,0 +1,67 @@
+package com.voiceai.conversation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Billable AWS units: Bedrock tokens as reported in the model's {@code usage}
+ * block, Transcribe audio streamed and Polly characters synthesized.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AwsUsage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private long bedrockInputTokens;
+    private long bedrockOutputTokens;
+    private long bedrockCacheReadTokens;
+    private long bedrockCacheWriteTokens;
+    private long transcribeMillis;
+    private long pollyCharacters;
+
+    public void add(AwsUsage other) {
+        bedrockInputTokens += other.bedrockInputTokens;
+        bedrockOutputTokens += other.bedrockOutputTokens;
+        bedrockCacheReadTokens += other.bedrockCacheReadTokens;
+        bedrockCacheWriteTokens += other.bedrockCacheWriteTokens;
+        transcribeMillis += other.transcribeMillis;
+        pollyCharacters += other.pollyCharacters;
+    }
+
+    public void addBedrockTokens(long input, long output, long cacheRead, long cacheWrite) {
+        bedrockInputTokens += input;
+        bedrockOutputTokens += output;
+        bedrockCacheReadTokens += cacheRead;
+        bedrockCacheWriteTokens += cacheWrite;
+    }
+
+    public void addTranscribeMillis(long millis) {
+        transcribeMillis += millis;
+    }
+
+    public void addPollyCharacters(long characters) {
+        pollyCharacters += characters;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return bedrockInputTokens == 0 && bedrockOutputTokens == 0
+                && bedrockCacheReadTokens == 0 && bedrockCacheWriteTokens == 0
+                && transcribeMillis == 0 && pollyCharacters == 0;
+    }
+
+    public AwsUsage copy() {
+        return new AwsUsage(bedrockInputTokens, bedrockOutputTokens, bedrockCacheReadTokens,
+                bedrockCacheWriteTokens, transcribeMillis, pollyCharacters);
+    }
+}
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * Result of classifying a user response via LLM.
- * Matches the JSON format returned by Claude.
+ * Matches the input schema of the classification tool the model is asked to call.
  */
 @Data
 @NoArgsConstructor
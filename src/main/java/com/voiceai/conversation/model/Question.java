@@ -22,12 +22,4 @@ public class Question implements Serializable {
     private int id;
     private String text;
     private List<String> validCategories;
-
-    public boolean isValidCategory(String category) {
-        if (category == null) {
-            return false;
-        }
-        return validCategories.stream()
-                .anyMatch(valid -> valid.equalsIgnoreCase(category.trim()));
-    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.voiceai.conversation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A versioned questionnaire as loaded from a definition file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionnaireDefinition {
+
+    private String id;
+    private int version;
+    private List<Question> questions;
+}
@@ -27,6 +27,8 @@ public class Session implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private String sessionId;
+    private String questionnaireId;
+    private int questionnaireVersion;
     private int currentQuestionIndex;
     private int retryCount;
     private Map<Integer, UserResponse> responses;
@@ -35,9 +37,36 @@ public class Session implements Serializable {
     private Instant lastModifiedAt;
     private SessionStatus status;
     private boolean hasMaxRetriesExceeded;
+    private String retryAudioToken;
+    private String retryAudioText;
+    private Instant retryAudioExpiresAt;
+    private AudioOutputFormat audioFormat;
+    /**
+     * Incremented on every save by stores that hand state to the client, so
+     * an older copy can be told apart from the latest one.
+     */
+    private long revision;
+    /**
+     * Voice turns processed so far, whether or not they were answered.
+     */
+    private int turnCount;
+    /**
+     * AWS usage attributed to each question id; 0 collects usage after the
+     * last question (e.g. the closing prompt).
+     */
+    private Map<Integer, AwsUsage> usageByQuestion;
 
     public Session(String sessionId) {
+        this(sessionId, null, 0);
+    }
+
+    /**
+     * New session pinned to one questionnaire version for its whole lifetime.
+     */
+    public Session(String sessionId, String questionnaireId, int questionnaireVersion) {
         this.sessionId = sessionId;
+        this.questionnaireId = questionnaireId;
+        this.questionnaireVersion = questionnaireVersion;
         this.currentQuestionIndex = 0;
         this.retryCount = 0;
         this.responses = new HashMap<>();
@@ -46,6 +75,63 @@ public class Session implements Serializable {
         this.lastModifiedAt = Instant.now();
         this.status = SessionStatus.ACTIVE;
         this.hasMaxRetriesExceeded = false;
+        this.usageByQuestion = new HashMap<>();
+    }
+
+    /**
+     * Copy with its own response map and transcript history, for stores that
+     * keep sessions on-heap instead of serializing them.
+     */
+    public Session copy() {
+        return new Session(
+                sessionId,
+                questionnaireId,
+                questionnaireVersion,
+                currentQuestionIndex,
+                retryCount,
+                new HashMap<>(responses),
+                new ArrayList<>(transcriptHistory),
+                createdAt,
+                lastModifiedAt,
+                status,
+                hasMaxRetriesExceeded,
+                retryAudioToken,
+                retryAudioText,
+                retryAudioExpiresAt,
+                audioFormat,
+                revision,
+                turnCount,
+                copyUsage()
+        );
+    }
+
+    public void recordUsage(int questionId, AwsUsage usage) {
+        if (usage.isEmpty()) {
+            return;
+        }
+        if (usageByQuestion == null) {
+            usageByQuestion = new HashMap<>();
+        }
+        usageByQuestion.computeIfAbsent(questionId, id -> new AwsUsage()).add(usage);
+    }
+
+    /**
+     * Usage summed over all questions.
+     */
+    public AwsUsage totalUsage() {
+        AwsUsage total = new AwsUsage();
+        if (usageByQuestion != null) {
+            usageByQuestion.values().forEach(total::add);
+        }
+        return total;
+    }
+
+    private Map<Integer, AwsUsage> copyUsage() {
+        Map<Integer, AwsUsage> copy = new HashMap<>();
+        if (usageByQuestion != null) {
+            usageByQuestion.forEach((questionId, usage) -> copy.put(questionId, usage.copy()));
+        }
+        return copy;
     }
 
     public void recordResponse(UserResponse response) {
@@ -56,9 +142,37 @@ public class Session implements Serializable {
                 response.getClassifiedCategory()));
         this.currentQuestionIndex++;
         this.retryCount = 0;
+        clearRetryAudio();
         this.lastModifiedAt = Instant.now();
     }
 
+    /**
+     * Retry prompt the client may fetch as audio with {@code token} until
+     * {@code expiresAt}.
+     */
+    public void setRetryAudio(String token, String text, Instant expiresAt) {
+        this.retryAudioToken = token;
+        this.retryAudioText = text;
+        this.retryAudioExpiresAt = expiresAt;
+    }
+
+    public void clearRetryAudio() {
+        this.retryAudioToken = null;
+        this.retryAudioText = null;
+        this.retryAudioExpiresAt = null;
+    }
+
+    public boolean isRetryAudioValid(String token, Instant now) {
+        return retryAudioToken != null
+                && retryAudioToken.equals(token)
+                && retryAudioExpiresAt != null
+                && now.isBefore(retryAudioExpiresAt);
+    }
+
+    public void recordTurn() {
+        this.turnCount++;
+    }
+
     public void incrementRetry() {
         this.retryCount++;
         this.lastModifiedAt = Instant.now();
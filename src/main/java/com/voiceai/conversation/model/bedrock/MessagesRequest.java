@@ -0,0 +1,52 @@
+package com.voiceai.conversation.model.bedrock;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Body of an Anthropic Messages API call through Bedrock {@code InvokeModel}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MessagesRequest(
+        @JsonProperty("anthropic_version") String anthropicVersion,
+        @JsonProperty("max_tokens") int maxTokens,
+        @JsonProperty("temperature") Double temperature,
+        @JsonProperty("messages") List<Message> messages,
+        @JsonProperty("tools") List<Tool> tools,
+        @JsonProperty("tool_choice") ToolChoice toolChoice) {
+
+    public static final String ANTHROPIC_VERSION = "bedrock-2023-05-31";
+
+    public record Message(
+            @JsonProperty("role") String role,
+            @JsonProperty("content") String content) {
+
+        public static Message user(String content) {
+            return new Message("user", content);
+        }
+    }
+
+    /**
+     * @param inputSchema JSON Schema the model's tool input must satisfy
+     */
+    public record Tool(
+            @JsonProperty("name") String name,
+            @JsonProperty("description") String description,
+            @JsonProperty("input_schema") Map<String, Object> inputSchema) {
+    }
+
+    /**
+     * {@code type=tool} with a {@code name} forces the model to answer with that tool call only.
+     */
+    public record ToolChoice(
+            @JsonProperty("type") String type,
+            @JsonProperty("name") String name) {
+
+        public static ToolChoice tool(String name) {
+            return new ToolChoice("tool", name);
+        }
+    }
+}
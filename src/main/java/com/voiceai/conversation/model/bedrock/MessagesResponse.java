@@ -0,0 +1,51 @@
+package com.voiceai.conversation.model.bedrock;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.voiceai.conversation.model.ClassificationResult;
+
+import java.util.List;
+
+/**
+ * Anthropic Messages API response, bound only as far as classification needs:
+ * a {@code tool_use} block's input is read straight into a
+ * {@link ClassificationResult}, so the body is parsed once.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record MessagesResponse(
+        @JsonProperty("content") List<ContentBlock> content,
+        @JsonProperty("stop_reason") String stopReason,
+        @JsonProperty("usage") Usage usage) {
+
+    /**
+     * Input of the first call to {@code toolName}, or {@code null}.
+     */
+    public ClassificationResult toolInput(String toolName) {
+        if (content == null) {
+            return null;
+        }
+        for (ContentBlock block : content) {
+            if (ContentBlock.TOOL_USE.equals(block.type()) && toolName.equals(block.name())) {
+                return block.input();
+            }
+        }
+        return null;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ContentBlock(
+            @JsonProperty("type") String type,
+            @JsonProperty("name") String name,
+            @JsonProperty("input") ClassificationResult input) {
+
+        public static final String TOOL_USE = "tool_use";
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Usage(
+            @JsonProperty("input_tokens") long inputTokens,
+            @JsonProperty("output_tokens") long outputTokens,
+            @JsonProperty("cache_read_input_tokens") long cacheReadInputTokens,
+            @JsonProperty("cache_creation_input_tokens") long cacheCreationInputTokens) {
+    }
+}
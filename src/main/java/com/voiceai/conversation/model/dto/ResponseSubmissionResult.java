@@ -16,5 +16,6 @@ public class ResponseSubmissionResult {
     private boolean completed;
     private double confidence;
     private String retryMessage;
+    private String retryAudioToken;
     private boolean isSuccessful;
 }
\ No newline at end of file
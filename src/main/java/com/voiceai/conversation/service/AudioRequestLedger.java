@@ -0,0 +1,203 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.AudioOutputFormat;
+import com.voiceai.conversation.model.AwsUsage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the audio GET endpoints learn about a session, kept outside the
+ * session so those requests do not write it: the Polly characters they were
+ * billed (per question) and the audio format the client asked for.
+ *
+ * <p>A GET that saved the session could overwrite a turn saved meanwhile
+ * (rolling back answers) or, with client-held sessions, mint a revision the
+ * client never receives. Instead, usage is added to an atomic per-session
+ * counter. Turns only read the ledger when they need it: the format when a
+ * retry prompt is pre-synthesized ({@link #format}), the usage once, when the
+ * session completes ({@link #takeUsage}).
+ *
+ * <p>In memory the entries expire on a {@link TimingWheel} advanced by the
+ * ledger's own calls; with the Redis store they are a Redis hash expiring
+ * with the session. Client-held (token) sessions have nowhere shared to keep
+ * them, so the ledger is off: audio usage is only reported as metrics and
+ * retry prompts are prepared in the session's format.
+ */
+@Slf4j
+@Service
+public class AudioRequestLedger {
+
+    private static final String FORMAT_FIELD = "format";
+    private static final long TICK_MILLIS = 1000;
+
+    /**
+     * Returns every field and removes the ledger.
+     */
+    private static final RedisScript<List> TAKE = new DefaultRedisScript<>("""
+            local entries = redis.call('HGETALL', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            return entries
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisKeys redisKeys;
+    private final Mode mode;
+    private final Duration ttl;
+    private final Map<String, Entry> local = new ConcurrentHashMap<>();
+    private final TimingWheel<Entry> wheel = new TimingWheel<>(currentTick());
+
+    public AudioRequestLedger(
+            SessionStore sessionStore,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            RedisKeys redisKeys,
+            @Value("${session.timeout-minutes:30}") long sessionTimeoutMinutes) {
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.redisKeys = redisKeys;
+        this.mode = switch (sessionStore.name()) {
+            case "memory" -> Mode.LOCAL;
+            case "token" -> Mode.OFF;
+            default -> Mode.SHARED;
+        };
+        this.ttl = Duration.ofMinutes(sessionTimeoutMinutes);
+    }
+
+    /**
+     * Records an audio request; {@code questionId} is 0 once the
+     * questionnaire is finished, and {@code format} may be {@code null}.
+     */
+    public void record(String sessionId, int questionId, AudioOutputFormat format, long pollyCharacters) {
+        if (mode == Mode.OFF || (format == null && pollyCharacters == 0)) {
+            return;
+        }
+        if (mode == Mode.LOCAL) {
+            expireLocal();
+            Entry entry = local.computeIfAbsent(sessionId, Entry::new);
+            synchronized (entry) {
+                if (format != null) {
+                    entry.format = format;
+                }
+                if (pollyCharacters > 0) {
+                    entry.pollyCharacters.merge(questionId, pollyCharacters, Long::sum);
+                }
+            }
+            wheel.schedule(entry, currentTick() + ttl.toMillis() / TICK_MILLIS + 1);
+            return;
+        }
+
+        String key = redisKeys.audioLedger(sessionId);
+        if (format != null) {
+            redisTemplate.opsForHash().put(key, FORMAT_FIELD, format.name());
+        }
+        if (pollyCharacters > 0) {
+            redisTemplate.opsForHash().increment(key, Integer.toString(questionId), pollyCharacters);
+        }
+        redisTemplate.expire(key, ttl);
+    }
+
+    /**
+     * The format last requested by the client, or {@code fallback}.
+     */
+    public AudioOutputFormat format(String sessionId, AudioOutputFormat fallback) {
+        if (mode == Mode.OFF) {
+            return fallback;
+        }
+        if (mode == Mode.LOCAL) {
+            expireLocal();
+            Entry entry = local.get(sessionId);
+            if (entry == null) {
+                return fallback;
+            }
+            synchronized (entry) {
+                return entry.format != null ? entry.format : fallback;
+            }
+        }
+        Object name = redisTemplate.opsForHash().get(redisKeys.audioLedger(sessionId), FORMAT_FIELD);
+        try {
+            return name == null ? fallback : AudioOutputFormat.valueOf(name.toString());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Removes the session's ledger and returns the usage recorded in it, by
+     * question.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, AwsUsage> takeUsage(String sessionId) {
+        Map<Integer, AwsUsage> usage = new HashMap<>();
+        if (mode == Mode.OFF) {
+            return usage;
+        }
+        if (mode == Mode.LOCAL) {
+            expireLocal();
+            Entry entry = local.remove(sessionId);
+            if (entry != null) {
+                wheel.cancel(entry);
+                synchronized (entry) {
+                    entry.pollyCharacters.forEach((questionId, characters) -> usage.put(questionId, polly(characters)));
+                }
+            }
+            return usage;
+        }
+
+        List<Object> taken = redisTemplate.execute(TAKE, List.of(redisKeys.audioLedger(sessionId)));
+        if (taken != null) {
+            for (int i = 0; i + 1 < taken.size(); i += 2) {
+                if (FORMAT_FIELD.equals(taken.get(i).toString())) {
+                    continue;
+                }
+                try {
+                    int questionId = Integer.parseInt(taken.get(i).toString());
+                    usage.put(questionId, polly(Long.parseLong(taken.get(i + 1).toString())));
+                } catch (NumberFormatException e) {
+                    log.debug("Ignoring malformed audio usage field {} of session {}", taken.get(i), sessionId);
+                }
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Drops entries whose session has had no audio request for the session
+     * timeout; the wheel only hands over what is due.
+     */
+    private void expireLocal() {
+        wheel.advanceTo(currentTick(), entry -> local.remove(entry.sessionId, entry));
+    }
+
+    private static long currentTick() {
+        return System.currentTimeMillis() / TICK_MILLIS;
+    }
+
+    private static AwsUsage polly(long characters) {
+        AwsUsage usage = new AwsUsage();
+        usage.addPollyCharacters(characters);
+        return usage;
+    }
+
+    private enum Mode {
+        LOCAL, SHARED, OFF
+    }
+
+    private static final class Entry extends TimingWheel.Node {
+        private final String sessionId;
+        private AudioOutputFormat format;
+        private final Map<Integer, Long> pollyCharacters = new HashMap<>();
+
+        private Entry(String sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+}
@@ -2,12 +2,27 @@ package com.voiceai.conversation.service;
 
 
 import com.voiceai.conversation.config.exception.InvalidAudioException;
+import com.voiceai.conversation.model.AudioMetadata;
+import com.voiceai.conversation.model.AudioMetadata.AudioFormat;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
 /**
  * Service for validating audio input.
+ * Sniffs the container (WAV, OGG/Opus, FLAC) and reads the sample rate from
+ * the stream metadata so compressed audio can be passed through to
+ * Transcribe without decoding. MP3 is recognized only to be rejected:
+ * Transcribe streaming cannot decode it, and declaring it as PCM would
+ * transcribe noise.
  */
 @Slf4j
 @Service
@@ -19,12 +34,24 @@ public class AudioValidator {
     @Value("${audio.min-size-bytes:1000}")
     private long minAudioSizeBytes;
 
+    /** Bytes read up front from a streamed upload; enough for the OGG page and OpusHead. */
+    private static final int STREAM_HEADER_BYTES = 64;
+
+    private static final int DEFAULT_SAMPLE_RATE = 16000;
+    private static final int OPUS_SAMPLE_RATE = 48000;
+    private static final String UNSUPPORTED_FORMAT_MESSAGE =
+            "Unsupported audio format. Please use WAV, OGG/Opus or FLAC.";
+
     private static final byte[] WAV_HEADER = new byte[]{'R', 'I', 'F', 'F'};
     private static final byte[] MP3_HEADER_1 = new byte[]{(byte) 0xFF, (byte) 0xFB};
     private static final byte[] MP3_HEADER_2 = new byte[]{(byte) 0xFF, (byte) 0xF3};
     private static final byte[] MP3_HEADER_3 = new byte[]{(byte) 0xFF, (byte) 0xF2};
+    private static final byte[] WAVE_FMT = new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '};
+    private static final byte[] OGG_HEADER = new byte[]{'O', 'g', 'g', 'S'};
+    private static final byte[] OPUS_HEAD = new byte[]{'O', 'p', 'u', 's', 'H', 'e', 'a', 'd'};
+    private static final byte[] FLAC_HEADER = new byte[]{'f', 'L', 'a', 'C'};
 
-    public void validateAudio(byte[] audioData) {
+    public AudioMetadata validateAudio(byte[] audioData) {
         if (audioData == null || audioData.length == 0) {
             throw new InvalidAudioException("Audio data is empty");
         }
@@ -43,19 +70,153 @@ public class AudioValidator {
             );
         }
 
-        if (!isValidAudioFormat(audioData)) {
-            throw new InvalidAudioException("Unsupported audio format. Please use WAV or MP3.");
+        AudioMetadata metadata = detectFormat(audioData, audioData.length);
+        if (metadata == null) {
+            throw new InvalidAudioException(UNSUPPORTED_FORMAT_MESSAGE);
+        }
+
+        log.debug("Audio validation passed: {} bytes, {}", audioData.length, metadata);
+        return metadata;
+    }
+
+    /**
+     * Rejects a streamed upload whose declared Content-Length is already out of bounds.
+     * A negative length (unknown/chunked) is accepted and enforced while streaming.
+     */
+    public void validateDeclaredLength(long contentLength) {
+        if (contentLength > maxAudioSizeBytes) {
+            throw new InvalidAudioException(
+                    String.format("Audio too large: %d bytes (maximum: %d bytes)",
+                            contentLength, maxAudioSizeBytes)
+            );
+        }
+    }
+
+    /**
+     * Validates the format from the first bytes of a streamed upload and returns
+     * a stream that enforces the size limits as the remaining audio is read.
+     */
+    public ValidatedAudioStream validateStream(InputStream audioStream) {
+        byte[] header;
+        try {
+            header = audioStream.readNBytes(STREAM_HEADER_BYTES);
+        } catch (IOException e) {
+            throw new InvalidAudioException("Failed to read audio stream", e);
+        }
+
+        if (header.length == 0) {
+            throw new InvalidAudioException("Audio data is empty");
+        }
+
+        AudioMetadata metadata = detectFormat(header, header.length);
+        if (metadata == null) {
+            throw new InvalidAudioException(UNSUPPORTED_FORMAT_MESSAGE);
+        }
+
+        log.debug("Audio stream header validation passed: {}", metadata);
+        return new ValidatedAudioStream(metadata, new SizeLimitedInputStream(
+                new SequenceInputStream(new ByteArrayInputStream(header), audioStream)));
+    }
+
+    /**
+     * Identifies the container from the first {@code length} bytes, or returns
+     * {@code null} if it is not supported.
+     */
+    private AudioMetadata detectFormat(byte[] data, int length) {
+        if (length < 4) {
+            return null;
+        }
+
+        if (hasWavHeader(data)) {
+            return wavMetadata(data, length);
         }
+        if (matchesAt(data, length, 0, FLAC_HEADER)) {
+            return new AudioMetadata(AudioFormat.FLAC, flacSampleRate(data, length));
+        }
+        if (matchesAt(data, length, 0, OGG_HEADER)) {
+            return oggOpusMetadata(data, length);
+        }
+        if (hasMp3Header(data)) {
+            throw new InvalidAudioException("MP3 is not supported. Please use WAV, OGG/Opus or FLAC.");
+        }
+        return null;
+    }
 
-        log.debug("Audio validation passed: {} bytes", audioData.length);
+    /**
+     * Sample rate, channels and bits per sample from a canonical RIFF/WAVE
+     * header ({@code fmt } chunk first). Without one the clip is assumed to
+     * be 16 kHz, and its layout is left unknown.
+     */
+    private AudioMetadata wavMetadata(byte[] data, int length) {
+        if (length < 36 || !matchesAt(data, length, 8, WAVE_FMT)) {
+            return new AudioMetadata(AudioFormat.WAV, DEFAULT_SAMPLE_RATE);
+        }
+        int sampleRate = readIntLittleEndian(data, 24);
+        int channels = readShortLittleEndian(data, 22);
+        int bitsPerSample = readShortLittleEndian(data, 34);
+        return new AudioMetadata(AudioFormat.WAV, sampleRate > 0 ? sampleRate : DEFAULT_SAMPLE_RATE,
+                channels, bitsPerSample);
     }
 
-    private boolean isValidAudioFormat(byte[] data) {
-        if (data.length < 4) {
+    /**
+     * Sample rate from the STREAMINFO block, which the FLAC spec requires to be
+     * the first metadata block: 20 bits starting at byte 18.
+     */
+    private int flacSampleRate(byte[] data, int length) {
+        if (length < 21 || (data[4] & 0x7F) != 0) {
+            throw new InvalidAudioException("FLAC stream is missing STREAMINFO metadata");
+        }
+        int sampleRate = ((data[18] & 0xFF) << 12) | ((data[19] & 0xFF) << 4) | ((data[20] & 0xF0) >> 4);
+        if (sampleRate == 0) {
+            throw new InvalidAudioException("FLAC stream has an invalid sample rate");
+        }
+        return sampleRate;
+    }
+
+    /**
+     * The first OGG page must carry the OpusHead identification header. Opus
+     * always decodes at 48 kHz; the original input rate is used when present.
+     */
+    private AudioMetadata oggOpusMetadata(byte[] data, int length) {
+        if (length < 27) {
+            return null;
+        }
+        int payloadOffset = 27 + (data[26] & 0xFF);
+        if (!matchesAt(data, length, payloadOffset, OPUS_HEAD)) {
+            throw new InvalidAudioException("Only Opus is supported inside OGG containers");
+        }
+
+        int sampleRate = OPUS_SAMPLE_RATE;
+        if (length >= payloadOffset + 16) {
+            int inputRate = readIntLittleEndian(data, payloadOffset + 12);
+            if (inputRate >= 8000 && inputRate <= OPUS_SAMPLE_RATE) {
+                sampleRate = inputRate;
+            }
+        }
+        return new AudioMetadata(AudioFormat.OGG_OPUS, sampleRate);
+    }
+
+    private boolean matchesAt(byte[] data, int length, int offset, byte[] pattern) {
+        if (offset + pattern.length > length) {
             return false;
         }
+        for (int i = 0; i < pattern.length; i++) {
+            if (data[offset + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readShortLittleEndian(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
 
-        return hasWavHeader(data) || hasMp3Header(data);
+    private static int readIntLittleEndian(byte[] data, int offset) {
+        return (data[offset] & 0xFF)
+                | (data[offset + 1] & 0xFF) << 8
+                | (data[offset + 2] & 0xFF) << 16
+                | (data[offset + 3] & 0xFF) << 24;
     }
 
     private boolean hasWavHeader(byte[] data) {
@@ -89,4 +250,60 @@ public class AudioValidator {
         }
         return true;
     }
+
+    /**
+     * A streamed upload whose header has been validated.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class ValidatedAudioStream {
+        private final AudioMetadata metadata;
+        private final InputStream stream;
+    }
+
+    /**
+     * Counts bytes as they are read, failing once the maximum is exceeded and,
+     * at end of stream, if the minimum was not reached.
+     */
+    private class SizeLimitedInputStream extends FilterInputStream {
+
+        private long bytesRead;
+
+        SizeLimitedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            count(value < 0 ? -1 : 1);
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            count(read);
+            return read;
+        }
+
+        private void count(int read) {
+            if (read < 0) {
+                if (bytesRead < minAudioSizeBytes) {
+                    throw new InvalidAudioException(
+                            String.format("Audio too short: %d bytes (minimum: %d bytes)",
+                                    bytesRead, minAudioSizeBytes)
+                    );
+                }
+                return;
+            }
+
+            bytesRead += read;
+            if (bytesRead > maxAudioSizeBytes) {
+                throw new InvalidAudioException(
+                        String.format("Audio too large: more than %d bytes", maxAudioSizeBytes)
+                );
+            }
+        }
+    }
 }
@@ -0,0 +1,197 @@
+package com.voiceai.conversation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceai.conversation.model.bedrock.MessagesRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
+import software.amazon.awssdk.services.polly.PollyClient;
+import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
+import software.amazon.awssdk.services.transcribestreaming.model.LanguageCode;
+import software.amazon.awssdk.services.transcribestreaming.model.MediaEncoding;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionRequest;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionResponseHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the AWS clients before the instance reports ready.
+ *
+ * <p>Runs before any other {@link ApplicationRunner}: resolves credentials and
+ * opens pooled connections with one cheap call per service (Polly
+ * DescribeVoices, a one-token Bedrock invocation, a fraction of a second of
+ * silence through Transcribe) and runs the classification prompt/parse path
+ * so Jackson and the JIT are warm for the first real turn. Failures are
+ * logged and do not block startup; {@code /health/ready} reports
+ * {@code warmup=false} until this has finished.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class AwsWarmUp implements ApplicationRunner {
+
+    private static final byte[] SAMPLE_MODEL_RESPONSE = """
+            {"id": "msg_warmup", "type": "message", "role": "assistant", "stop_reason": "tool_use",
+             "content": [{"type": "tool_use", "id": "toolu_warmup", "name": "record_classification",
+                          "input": {"matched": true, "category": "yes", "confidence": 0.9, "retryMessage": ""}}],
+             "usage": {"input_tokens": 900, "output_tokens": 40}}
+            """.getBytes(StandardCharsets.UTF_8);
+    private static final int SILENCE_BYTES = 6400; // 200ms of 16 kHz 16-bit mono
+
+    private final PollyClient pollyClient;
+    private final BedrockRuntimeAsyncClient bedrockClient;
+    private final TranscribeStreamingAsyncClient transcribeClient;
+    private final ResponseClassifier responseClassifier;
+    private final SpeechToTextService speechToTextService;
+    private final QuestionnaireRegistry questionnaireRegistry;
+    private final MetricsService metricsService;
+    private final ObjectMapper objectMapper;
+
+    private volatile boolean complete;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.timeout-seconds:20}")
+    private int timeoutSeconds;
+
+    @Value("${warmup.transcribe.enabled:true}")
+    private boolean transcribeEnabled;
+
+    @Value("${warmup.parse-iterations:200}")
+    private int parseIterations;
+
+    @Value("${aws.bedrock.model-id}")
+    private String modelId;
+
+    @Value("${aws.bedrock.fast-model-id:}")
+    private String fastModelId;
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Withholds readiness until the next {@link #warmUp()}, e.g. for a process
+     * about to be checkpointed whose connections will not survive restore.
+     */
+    public void markPending() {
+        complete = !enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    public void warmUp() {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        log.info("Warming up AWS clients");
+
+        CompletableFuture<?> warmUp = CompletableFuture.allOf(
+                step("polly", () -> pollyClient.describeVoices(request -> request.languageCode("en-US"))),
+                step("bedrock", this::warmUpBedrock),
+                step("transcribe", this::warmUpTranscribe),
+                step("classification-parsing", this::warmUpClassificationParsing)
+        );
+
+        try {
+            warmUp.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Warm-up did not finish within {}s; continuing", timeoutSeconds);
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        metricsService.recordWarmUpDuration(duration);
+        complete = true;
+        log.info("Warm-up completed in {}ms", duration);
+    }
+
+    private CompletableFuture<Void> step(String name, Runnable action) {
+        return CompletableFuture.runAsync(() -> {
+            long startTime = System.currentTimeMillis();
+            try {
+                action.run();
+                log.info("Warm-up step {} took {}ms", name, System.currentTimeMillis() - startTime);
+            } catch (Exception e) {
+                log.warn("Warm-up step {} failed after {}ms: {}",
+                        name, System.currentTimeMillis() - startTime, e.getMessage());
+            }
+        });
+    }
+
+    private void warmUpBedrock() {
+        invokeMinimal(modelId);
+        if (fastModelId != null && !fastModelId.isBlank()) {
+            invokeMinimal(fastModelId);
+        }
+    }
+
+    private void invokeMinimal(String targetModelId) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(new MessagesRequest(
+                    MessagesRequest.ANTHROPIC_VERSION, 1, null,
+                    List.of(MessagesRequest.Message.user("Reply with OK.")), null, null));
+            bedrockClient.invokeModel(InvokeModelRequest.builder()
+                    .modelId(targetModelId)
+                    .body(SdkBytes.fromByteArrayUnsafe(body))
+                    .build()).join();
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void warmUpTranscribe() {
+        if (!transcribeEnabled) {
+            return;
+        }
+
+        StartStreamTranscriptionRequest request = StartStreamTranscriptionRequest.builder()
+                .languageCode(LanguageCode.EN_US)
+                .mediaEncoding(MediaEncoding.PCM)
+                .mediaSampleRateHertz(16000)
+                .build();
+
+        StartStreamTranscriptionResponseHandler handler = StartStreamTranscriptionResponseHandler.builder()
+                .subscriber(event -> {
+                })
+                .build();
+
+        transcribeClient.startStreamTranscription(
+                        request, speechToTextService.createAudioPublisher(new byte[SILENCE_BYTES]), handler)
+                .join();
+    }
+
+    private void warmUpClassificationParsing() {
+        List<CompiledQuestion> questions = questionnaireRegistry.getDefault().getQuestions();
+
+        try {
+            for (int i = 0; i < parseIterations; i++) {
+                CompiledQuestion question = questions.get(i % questions.size());
+                ClassificationPrompt.render(question.getPromptPrefix(), "yes");
+                responseClassifier.parseClassificationResult(SAMPLE_MODEL_RESPONSE);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.Question;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A question with everything derived from it computed once at load time:
+ * the category lookup table, the rendered classification prompt prefix and
+ * the key under which its synthesized audio is cached.
+ */
+@Getter
+public class CompiledQuestion {
+
+    private final Question question;
+    private final Map<String, String> categoriesByNormalizedName;
+    private final List<String> categoriesLongestFirst;
+    private final String promptPrefix;
+    private final String audioCacheKey;
+
+    CompiledQuestion(String questionnaireId, int version, Question question) {
+        this.question = question;
+
+        Map<String, String> lookup = new LinkedHashMap<>();
+        for (String category : question.getValidCategories()) {
+            lookup.put(normalizeCategory(category), category);
+        }
+        this.categoriesByNormalizedName = Collections.unmodifiableMap(lookup);
+        this.categoriesLongestFirst = question.getValidCategories().stream()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .toList();
+
+        this.promptPrefix = ClassificationPrompt.prefix(question);
+        this.audioCacheKey = questionnaireId + ":v" + version + ":q" + question.getId() + ":" + digest(question.getText());
+    }
+
+    public int getId() {
+        return question.getId();
+    }
+
+    public String getText() {
+        return question.getText();
+    }
+
+    /**
+     * Returns the canonical spelling of {@code category} if it is one of this
+     * question's categories (ignoring case, apostrophes and extra spaces),
+     * otherwise {@code null}.
+     */
+    public String canonicalCategory(String category) {
+        if (category == null) {
+            return null;
+        }
+        return categoriesByNormalizedName.get(normalizeCategory(category));
+    }
+
+    static String normalizeCategory(String category) {
+        return category.toLowerCase(Locale.ROOT)
+                .replace("'", "")
+                .replace("’", "")
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    private static String digest(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.QuestionnaireDefinition;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Immutable, precompiled form of one questionnaire version.
+ */
+@Getter
+public class CompiledQuestionnaire {
+
+    private final String id;
+    private final int version;
+    private final List<CompiledQuestion> questions;
+    @Getter(AccessLevel.NONE)
+    private final QuestionnaireDefinition definition;
+
+    CompiledQuestionnaire(QuestionnaireDefinition definition) {
+        this.definition = definition;
+        this.id = definition.getId();
+        this.version = definition.getVersion();
+        this.questions = definition.getQuestions().stream()
+                .map(question -> new CompiledQuestion(id, version, question))
+                .toList();
+    }
+
+    /**
+     * Whether this version was compiled from exactly {@code other}.
+     */
+    boolean compiledFrom(QuestionnaireDefinition other) {
+        return definition.equals(other);
+    }
+
+    public int size() {
+        return questions.size();
+    }
+
+    /**
+     * Question at {@code index}, or {@code null} once the questionnaire is finished.
+     */
+    public CompiledQuestion questionAt(int index) {
+        return index < questions.size() ? questions.get(index) : null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.voiceai.conversation.service;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.crac.CheckpointException;
+import org.crac.Core;
+import org.crac.RestoreException;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Takes a CRaC checkpoint once {@link AwsWarmUp} has finished, so restored
+ * instances start with a refreshed context and JIT-compiled hot paths.
+ *
+ * <p>Enabled with {@code crac.checkpoint-after-warmup} on a CRaC-capable JVM
+ * started with {@code -XX:CRaCCheckpointTo}. Spring stops all lifecycle
+ * beans around the checkpoint (web server, Redis connection factory, AWS
+ * transports) and restarts them on restore; log files are closed and
+ * reopened here, and the AWS clients are warmed again before the instance
+ * reports ready. If the checkpoint fails the
+ * process simply carries on as a normal start.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class CracCheckpoint implements ApplicationRunner {
+
+    private final AwsWarmUp awsWarmUp;
+
+    @Value("${crac.checkpoint-after-warmup:false}")
+    private boolean checkpointAfterWarmUp;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!checkpointAfterWarmUp) {
+            return;
+        }
+
+        log.info("Warm-up finished, taking CRaC checkpoint");
+        awsWarmUp.markPending();
+        List<FileAppender<ILoggingEvent>> fileAppenders = fileAppenders();
+        fileAppenders.forEach(FileAppender::stop);
+        try {
+            Core.checkpointRestore();
+            log.info("Restored from CRaC checkpoint");
+        } catch (CheckpointException | RestoreException e) {
+            log.warn("CRaC checkpoint failed, continuing without it: {}", e.toString());
+        } finally {
+            fileAppenders.forEach(FileAppender::start);
+        }
+
+        // Pooled connections were closed before the checkpoint either way
+        awsWarmUp.warmUp();
+    }
+
+    /**
+     * Open files are not allowed in a checkpoint. File appenders sit behind
+     * the async appenders on the root logger.
+     */
+    private static List<FileAppender<ILoggingEvent>> fileAppenders() {
+        List<FileAppender<ILoggingEvent>> appenders = new ArrayList<>();
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context) {
+            collectFileAppenders(context.getLogger(Logger.ROOT_LOGGER_NAME), appenders);
+        }
+        return appenders;
+    }
+
+    private static void collectFileAppenders(AppenderAttachable<ILoggingEvent> parent,
+                                             List<FileAppender<ILoggingEvent>> appenders) {
+        Iterator<Appender<ILoggingEvent>> iterator = parent.iteratorForAppenders();
+        while (iterator.hasNext()) {
+            Appender<ILoggingEvent> appender = iterator.next();
+            if (appender instanceof FileAppender<ILoggingEvent> fileAppender) {
+                appenders.add(fileAppender);
+            } else if (appender instanceof AppenderAttachable<?> attachable) {
+                @SuppressWarnings("unchecked")
+                AppenderAttachable<ILoggingEvent> nested = (AppenderAttachable<ILoggingEvent>) attachable;
+                collectFileAppenders(nested, appenders);
+            }
+        }
+    }
+}
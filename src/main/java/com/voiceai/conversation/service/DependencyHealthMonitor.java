@@ -0,0 +1,201 @@
+package com.voiceai.conversation.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.services.polly.PollyClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Probes the session store, Polly, Transcribe and Bedrock in the background
+ * and caches the results, so readiness probes never call AWS themselves.
+ *
+ * <p>Each probe runs on its own thread with a hard timeout. Transcribe
+ * Streaming and Bedrock Runtime have no cheap read-only API, so they are
+ * checked by resolving credentials and opening a TLS port connection to the
+ * regional endpoint. A dependency whose last result is older than
+ * {@code health.probe.stale-after-millis} counts as down.
+ */
+@Slf4j
+@Component
+public class DependencyHealthMonitor {
+
+    private static final String TRANSCRIBE_HOST = "transcribestreaming.%s.amazonaws.com";
+    private static final String BEDROCK_HOST = "bedrock-runtime.%s.amazonaws.com";
+    private static final int HTTPS_PORT = 443;
+
+    private final SessionStore sessionStore;
+    private final PollyClient pollyClient;
+    private final long timeoutMillis;
+    private final long staleAfterMillis;
+    private final boolean endpointChecksEnabled;
+    private final Map<String, Probe> probes = new LinkedHashMap<>();
+    private final Map<String, DependencyStatus> statuses = new ConcurrentHashMap<>();
+    private final ExecutorService probeExecutor;
+
+    public DependencyHealthMonitor(
+            SessionStore sessionStore,
+            PollyClient pollyClient,
+            MetricsService metricsService,
+            @Value("${aws.region}") String awsRegion,
+            @Value("${health.probe.timeout-millis:2000}") long timeoutMillis,
+            @Value("${health.probe.stale-after-millis:60000}") long staleAfterMillis,
+            @Value("${health.probe.endpoint-checks-enabled:true}") boolean endpointChecksEnabled) {
+        this.sessionStore = sessionStore;
+        this.pollyClient = pollyClient;
+        this.timeoutMillis = timeoutMillis;
+        this.staleAfterMillis = staleAfterMillis;
+        this.endpointChecksEnabled = endpointChecksEnabled;
+
+        probes.put(sessionStore.name(), this::probeSessionStore);
+        probes.put("polly", this::probePolly);
+        probes.put("transcribe", () -> probeEndpoint(String.format(TRANSCRIBE_HOST, awsRegion)));
+        probes.put("bedrock", () -> probeEndpoint(String.format(BEDROCK_HOST, awsRegion)));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.probeExecutor = Executors.newFixedThreadPool(probes.size(), runnable -> {
+            Thread thread = new Thread(runnable, "health-probe-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        probes.keySet().forEach(name -> metricsService.registerDependencyHealth(name, () -> isUp(name)));
+    }
+
+    /**
+     * Runs all probes in parallel and replaces the cached results.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${health.probe.interval-millis:10000}")
+    public void refresh() {
+        Map<String, Future<String>> running = new LinkedHashMap<>();
+        Map<String, Long> startTimes = new LinkedHashMap<>();
+
+        probes.forEach((name, probe) -> {
+            startTimes.put(name, System.nanoTime());
+            running.put(name, probeExecutor.submit(probe::check));
+        });
+
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        running.forEach((name, future) -> statuses.put(name, await(name, future, startTimes.get(name), deadlineNanos)));
+    }
+
+    /**
+     * Last known state of every dependency.
+     */
+    public Map<String, DependencyStatus> getStatuses() {
+        Map<String, DependencyStatus> snapshot = new LinkedHashMap<>();
+        probes.keySet().forEach(name -> snapshot.put(name, currentStatus(name)));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    public boolean isReady() {
+        return probes.keySet().stream().allMatch(this::isUp);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
+
+    private DependencyStatus await(String name, Future<String> future, long startNanos, long deadlineNanos) {
+        try {
+            String detail = future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return new DependencyStatus(true, elapsedMillis(startNanos), Instant.now().toString(), detail);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Health probe for {} timed out after {}ms", name, timeoutMillis);
+            return new DependencyStatus(false, elapsedMillis(startNanos), Instant.now().toString(),
+                    "Timed out after " + timeoutMillis + "ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.warn("Health probe for {} failed: {}", name, cause.getMessage());
+            return new DependencyStatus(false, elapsedMillis(startNanos), Instant.now().toString(),
+                    cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return new DependencyStatus(false, elapsedMillis(startNanos), Instant.now().toString(), "Interrupted");
+        }
+    }
+
+    private DependencyStatus currentStatus(String name) {
+        DependencyStatus status = statuses.get(name);
+        if (status == null) {
+            return new DependencyStatus(false, 0, null, "Not checked yet");
+        }
+        if (isStale(status)) {
+            return new DependencyStatus(false, status.getLatencyMillis(), status.getCheckedAt(),
+                    "Last check is stale");
+        }
+        return status;
+    }
+
+    private boolean isUp(String name) {
+        DependencyStatus status = statuses.get(name);
+        return status != null && status.isUp() && !isStale(status);
+    }
+
+    private boolean isStale(DependencyStatus status) {
+        return Instant.parse(status.getCheckedAt()).plusMillis(staleAfterMillis).isBefore(Instant.now());
+    }
+
+    private String probeSessionStore() {
+        sessionStore.ping();
+        return "ok";
+    }
+
+    private String probePolly() {
+        pollyClient.describeVoices(request -> request.languageCode("en-US"));
+        return "ok";
+    }
+
+    private String probeEndpoint(String host) throws IOException {
+        if (!endpointChecksEnabled) {
+            return "endpoint check disabled";
+        }
+
+        DefaultCredentialsProvider.create().resolveCredentials();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, HTTPS_PORT), (int) timeoutMillis);
+        }
+        return host + " reachable";
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @FunctionalInterface
+    private interface Probe {
+        String check() throws Exception;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class DependencyStatus {
+        private boolean up;
+        private long latencyMillis;
+        private String checkedAt;
+        private String detail;
+    }
+}
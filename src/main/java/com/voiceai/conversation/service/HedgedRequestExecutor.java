@@ -0,0 +1,235 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.RetryBudget;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Hedging for Bedrock classification calls.
+ *
+ * <p>The primary request is sent immediately. If it has not completed after
+ * the hedge delay, an identical (or alternate-model) request is sent and the
+ * first successful response wins. Both are asynchronous SDK calls started
+ * from the caller's thread, so no extra threads are involved; the loser's
+ * future is cancelled, which aborts its HTTP request. A loser that had
+ * already answered is handed to the caller so its tokens are still billed.
+ * The delay is either fixed or the configured percentile of recently
+ * observed latencies. Hedges are limited by a {@link RetryBudget}, so they
+ * add at most a fixed fraction of extra calls.
+ */
+@Slf4j
+@Component
+public class HedgedRequestExecutor {
+
+    private static final String PRIMARY = "primary";
+    private static final String HEDGE = "hedge";
+    private static final int LATENCY_WINDOW = 200;
+    private static final int MIN_SAMPLES = 20;
+
+    private final MetricsService metricsService;
+    private final boolean enabled;
+    private final long fixedDelayMillis;
+    private final double percentile;
+    private final long initialDelayMillis;
+    private final long minDelayMillis;
+    private final RetryBudget budget;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyIndex;
+
+    public HedgedRequestExecutor(
+            MetricsService metricsService,
+            @Value("${aws.bedrock.hedging.enabled:false}") boolean enabled,
+            @Value("${aws.bedrock.hedging.delay-millis:0}") long fixedDelayMillis,
+            @Value("${aws.bedrock.hedging.percentile:0.9}") double percentile,
+            @Value("${aws.bedrock.hedging.initial-delay-millis:2000}") long initialDelayMillis,
+            @Value("${aws.bedrock.hedging.min-delay-millis:250}") long minDelayMillis,
+            @Value("${aws.bedrock.hedging.budget-ratio:0.1}") double budgetRatio) {
+        this.metricsService = metricsService;
+        this.enabled = enabled;
+        this.fixedDelayMillis = fixedDelayMillis;
+        this.percentile = percentile;
+        this.initialDelayMillis = initialDelayMillis;
+        this.minDelayMillis = minDelayMillis;
+        this.budget = new RetryBudget("bedrock-hedge", budgetRatio, 10, metricsService);
+
+        if (enabled) {
+            metricsService.registerHedgeDelay(this, HedgedRequestExecutor::currentDelayMillis);
+            log.info("Bedrock request hedging enabled (delay={})",
+                    fixedDelayMillis > 0 ? fixedDelayMillis + "ms" : "p" + Math.round(percentile * 100));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sends {@code primary}, hedging with {@code hedge} if it is slow, and
+     * waits for the first successful result; if both fail, the primary's
+     * failure is rethrown. Each supplier is called when its request is sent
+     * and must return the SDK's own future, so that cancelling it aborts the
+     * call. {@code loserResult} receives the other response if it arrived too.
+     */
+    public <T> T execute(Supplier<CompletableFuture<T>> primary, Supplier<CompletableFuture<T>> hedge,
+                         Consumer<T> loserResult) throws Exception {
+        if (!enabled) {
+            return await(primary.get());
+        }
+
+        budget.deposit();
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> primaryFuture = primary.get();
+        CompletableFuture<T> hedgeFuture = null;
+
+        try {
+            try {
+                T result = primaryFuture.get(currentDelayMillis(), TimeUnit.MILLISECONDS);
+                recordLatency(System.nanoTime() - startNanos);
+                return result;
+            } catch (TimeoutException e) {
+                // Slow: hedge below if the budget allows
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+
+            if (!budget.tryAcquire()) {
+                T result = await(primaryFuture);
+                recordLatency(System.nanoTime() - startNanos);
+                return result;
+            }
+            hedgeFuture = hedge.get();
+            metricsService.incrementHedgeSent();
+            log.debug("Bedrock call slower than {}ms, sent hedge", currentDelayMillis());
+
+            String winner;
+            try {
+                winner = await(firstSuccess(primaryFuture, hedgeFuture));
+            } catch (BothFailed e) {
+                throw unwrap(primaryFuture);
+            }
+            recordLatency(System.nanoTime() - startNanos);
+            metricsService.incrementHedgeWin(winner);
+
+            CompletableFuture<T> winning = PRIMARY.equals(winner) ? primaryFuture : hedgeFuture;
+            CompletableFuture<T> losing = PRIMARY.equals(winner) ? hedgeFuture : primaryFuture;
+            T result = winning.join();
+            // cancel() fails only if the loser has already finished
+            if (!losing.cancel(true) && !losing.isCompletedExceptionally()) {
+                loserResult.accept(losing.join());
+            }
+            return result;
+        } finally {
+            primaryFuture.cancel(true);
+            if (hedgeFuture != null) {
+                hedgeFuture.cancel(true);
+            }
+        }
+    }
+
+    long currentDelayMillis() {
+        if (fixedDelayMillis > 0) {
+            return fixedDelayMillis;
+        }
+
+        long[] snapshot;
+        synchronized (latencies) {
+            if (latencyCount < MIN_SAMPLES) {
+                return initialDelayMillis;
+            }
+            snapshot = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(snapshot);
+        int index = (int) Math.min(snapshot.length - 1, Math.ceil(percentile * snapshot.length) - 1);
+        return Math.max(minDelayMillis, TimeUnit.NANOSECONDS.toMillis(snapshot[Math.max(0, index)]));
+    }
+
+    private void recordLatency(long nanos) {
+        synchronized (latencies) {
+            latencies[latencyIndex] = nanos;
+            latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+        }
+    }
+
+    /**
+     * Completes with the name of the first attempt to succeed, or with
+     * {@link BothFailed} once both have failed.
+     */
+    private static <T> CompletableFuture<String> firstSuccess(CompletableFuture<T> primary,
+                                                              CompletableFuture<T> hedge) {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((value, error) -> settle(first, failures, PRIMARY, error));
+        hedge.whenComplete((value, error) -> settle(first, failures, HEDGE, error));
+        return first;
+    }
+
+    private static void settle(CompletableFuture<String> first, AtomicInteger failures, String name,
+                               Throwable error) {
+        if (error == null) {
+            first.complete(name);
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(new BothFailed());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            // Keep the flag so callers can tell an abandoned call from a failed one
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * The failure of a call that is known to have failed.
+     */
+    private static Exception unwrap(CompletableFuture<?> failed) {
+        try {
+            failed.join();
+            return new IllegalStateException("Call did not fail");
+        } catch (CompletionException e) {
+            return unwrap(new ExecutionException(e.getCause()));
+        } catch (CancellationException e) {
+            return e;
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return cause instanceof Exception exception ? exception : e;
+    }
+
+    private static final class BothFailed extends RuntimeException {
+        BothFailed() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.Session;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process session store for single-node deployments, kiosks and tests.
+ *
+ * <p>Sessions live in a concurrent map; expiry is driven by a hierarchical
+ * {@link TimingWheel} advanced once per tick, so there is neither a timer per
+ * session nor a periodic scan of the map. The store is bounded by
+ * {@code session.memory.max-entries}: when full, the sessions closest to
+ * expiry (i.e. least recently saved) are evicted first.
+ *
+ * <p>Stored sessions are defensive copies, matching the value semantics of
+ * the Redis store.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "memory")
+public class InMemorySessionStore implements SessionStore {
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final MetricsService metricsService;
+    private final long tickMillis;
+    private final int maxEntries;
+    private final TimingWheel<Entry> wheel;
+    private final ScheduledExecutorService ticker;
+
+    public InMemorySessionStore(
+            MetricsService metricsService,
+            @Value("${session.memory.tick-millis:1000}") long tickMillis,
+            @Value("${session.memory.max-entries:100000}") int maxEntries) {
+        this.metricsService = metricsService;
+        this.tickMillis = tickMillis;
+        this.maxEntries = maxEntries;
+        this.wheel = new TimingWheel<>(currentTick());
+
+        metricsService.registerSessionStoreSize(sessions, Map::size);
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-timing-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
+        log.info("In-memory session store enabled (tick={}ms, maxEntries={})", tickMillis, maxEntries);
+    }
+
+    @Override
+    public void save(Session session, Duration ttl) {
+        long expiresAtMillis = System.currentTimeMillis() + ttl.toMillis();
+        Entry entry = new Entry(session.getSessionId(), session.copy(), expiresAtMillis);
+
+        synchronized (wheel) {
+            Entry previous = sessions.put(entry.sessionId, entry);
+            if (previous != null) {
+                wheel.cancel(previous);
+            }
+            wheel.schedule(entry, toTick(expiresAtMillis));
+        }
+
+        if (sessions.size() > maxEntries) {
+            evictToCapacity();
+        }
+    }
+
+    @Override
+    public Session find(String sessionId) {
+        Entry entry = sessions.get(sessionId);
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return entry.session.copy();
+    }
+
+    @Override
+    public boolean delete(String sessionId) {
+        synchronized (wheel) {
+            Entry entry = sessions.remove(sessionId);
+            if (entry == null) {
+                return false;
+            }
+            wheel.cancel(entry);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean exists(String sessionId) {
+        Entry entry = sessions.get(sessionId);
+        return entry != null && !entry.isExpired(System.currentTimeMillis());
+    }
+
+    @Override
+    public void expire(String sessionId, Duration ttl) {
+        long expiresAtMillis = System.currentTimeMillis() + ttl.toMillis();
+
+        synchronized (wheel) {
+            Entry entry = sessions.get(sessionId);
+            if (entry == null) {
+                return;
+            }
+            Entry extended = new Entry(sessionId, entry.session, expiresAtMillis);
+            sessions.put(sessionId, extended);
+            wheel.cancel(entry);
+            wheel.schedule(extended, toTick(expiresAtMillis));
+        }
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public void ping() {
+        // Always reachable
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void advance() {
+        try {
+            wheel.advanceTo(currentTick(), entry -> {
+                if (sessions.remove(entry.sessionId, entry)) {
+                    metricsService.incrementSessionEviction("expired");
+                }
+            });
+        } catch (Exception e) {
+            log.error("Session expiry tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void evictToCapacity() {
+        while (sessions.size() > maxEntries) {
+            synchronized (wheel) {
+                Entry entry = wheel.pollEarliest();
+                if (entry == null) {
+                    return;
+                }
+                if (sessions.remove(entry.sessionId, entry)) {
+                    metricsService.incrementSessionEviction("capacity");
+                    log.debug("Evicted session {} to stay within {} entries", entry.sessionId, maxEntries);
+                }
+            }
+        }
+    }
+
+    private long currentTick() {
+        return System.currentTimeMillis() / tickMillis;
+    }
+
+    private long toTick(long epochMillis) {
+        return (epochMillis + tickMillis - 1) / tickMillis;
+    }
+
+    static final class Entry extends TimingWheel.Node {
+        private final String sessionId;
+        private final Session session;
+        private final long expiresAtMillis;
+
+        Entry(String sessionId, Session session, long expiresAtMillis) {
+            this.sessionId = sessionId;
+            this.session = session;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
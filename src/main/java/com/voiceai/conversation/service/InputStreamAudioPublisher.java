@@ -0,0 +1,123 @@
+package com.voiceai.conversation.service;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Audio publisher fed from an {@link InputStream} by the calling thread.
+ *
+ * <p>{@link #pump} reads one chunk only when Transcribe has signalled demand
+ * for it, so at most {@code demand x chunkSize} bytes of the upload are on
+ * the heap at any time. The stream can be consumed once; a re-subscription
+ * (e.g. an SDK retry) is rejected.
+ */
+class InputStreamAudioPublisher implements SdkPublisher<AudioStream> {
+
+    private static final long DEMAND_POLL_MILLIS = 100;
+
+    private final Object lock = new Object();
+    private Subscriber<? super AudioStream> subscriber;
+    private long demand;
+    private boolean cancelled;
+
+    @Override
+    public void subscribe(Subscriber<? super AudioStream> newSubscriber) {
+        synchronized (lock) {
+            if (subscriber != null) {
+                newSubscriber.onSubscribe(new Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                newSubscriber.onError(new IllegalStateException("Audio stream can only be consumed once"));
+                return;
+            }
+            subscriber = newSubscriber;
+        }
+
+        newSubscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                synchronized (lock) {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    lock.notifyAll();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                synchronized (lock) {
+                    cancelled = true;
+                    lock.notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Streams {@code input} to the subscriber chunk by chunk, blocking while
+     * there is no demand. Returns the number of bytes published. Stops early if
+     * the subscriber cancels or {@code streamResult} completes.
+     */
+    long pump(InputStream input, int chunkSize, CompletableFuture<?> streamResult, long deadlineNanos)
+            throws IOException, TimeoutException, InterruptedException {
+        long published = 0;
+
+        try {
+            while (awaitDemand(streamResult, deadlineNanos)) {
+                byte[] chunk = input.readNBytes(chunkSize);
+                if (chunk.length == 0) {
+                    subscriber.onComplete();
+                    break;
+                }
+
+                subscriber.onNext(AudioEvent.builder()
+                        .audioChunk(SdkBytes.fromByteArrayUnsafe(chunk))
+                        .build());
+                published += chunk.length;
+            }
+        } catch (IOException | RuntimeException e) {
+            subscriber.onError(e);
+            throw e;
+        }
+
+        return published;
+    }
+
+    private boolean awaitDemand(CompletableFuture<?> streamResult, long deadlineNanos)
+            throws TimeoutException, InterruptedException {
+        synchronized (lock) {
+            while (!cancelled && (subscriber == null || demand == 0)) {
+                if (streamResult.isDone()) {
+                    return false;
+                }
+
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException("Timed out waiting for Transcribe to accept audio");
+                }
+                lock.wait(Math.min(DEMAND_POLL_MILLIS, Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos))));
+            }
+
+            if (cancelled) {
+                return false;
+            }
+            demand--;
+            return true;
+        }
+    }
+}
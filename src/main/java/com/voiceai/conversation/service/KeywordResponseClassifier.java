@@ -0,0 +1,90 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.ClassificationResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local fallback classifier used while Bedrock is unavailable.
+ *
+ * <p>Only handles unambiguous answers: the response must contain a category
+ * verbatim (longest category wins, so "not very confident" beats "very
+ * confident") or, for numeric range categories such as {@code 1-3}, a single
+ * number inside the range. Anything else is reported as unmatched so the
+ * user is asked again.
+ */
+@Component
+public class KeywordResponseClassifier {
+
+    private static final Pattern RANGE = Pattern.compile("^(\\d+)\\s*-\\s*(\\d+)$");
+    private static final Pattern NUMBER = Pattern.compile("\\b(\\d+)\\b");
+    private static final Map<String, String> NUMBER_WORDS = Map.ofEntries(
+            Map.entry("zero", "0"), Map.entry("none", "0"), Map.entry("one", "1"), Map.entry("two", "2"),
+            Map.entry("three", "3"), Map.entry("four", "4"), Map.entry("five", "5"), Map.entry("six", "6"),
+            Map.entry("seven", "7"), Map.entry("every", "7"));
+
+    @Value("${questionnaire.fallback-classifier.confidence:0.7}")
+    private double matchConfidence;
+
+    public ClassificationResult classify(CompiledQuestion question, String userResponse) {
+        String normalized = " " + normalize(userResponse) + " ";
+        List<String> categories = question.getCategoriesLongestFirst();
+
+        for (String category : categories) {
+            if (normalized.contains(" " + normalize(category) + " ")) {
+                return new ClassificationResult(true, category, matchConfidence, null);
+            }
+        }
+
+        String numericMatch = matchNumericRange(categories, normalized);
+        if (numericMatch != null) {
+            return new ClassificationResult(true, numericMatch, matchConfidence, null);
+        }
+
+        return new ClassificationResult(false, null, 0.0, null);
+    }
+
+    private String matchNumericRange(List<String> categories, String normalized) {
+        Matcher numbers = NUMBER.matcher(normalized);
+        if (!numbers.find()) {
+            return null;
+        }
+        int value = Integer.parseInt(numbers.group(1));
+        if (numbers.find()) {
+            // Several numbers ("two or three") are left to the model
+            return null;
+        }
+
+        for (String category : categories) {
+            Matcher range = RANGE.matcher(category.trim());
+            if (range.matches()
+                    && value >= Integer.parseInt(range.group(1))
+                    && value <= Integer.parseInt(range.group(2))) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String text) {
+        String cleaned = text.toLowerCase(Locale.ROOT)
+                .replace("'", "")
+                .replaceAll("[^a-z0-9-]+", " ")
+                .trim();
+
+        StringBuilder normalized = new StringBuilder();
+        for (String word : cleaned.split(" ")) {
+            if (!normalized.isEmpty()) {
+                normalized.append(' ');
+            }
+            normalized.append(NUMBER_WORDS.getOrDefault(word, word));
+        }
+        return normalized.toString();
+    }
+}
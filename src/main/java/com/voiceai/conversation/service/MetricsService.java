@@ -1,12 +1,21 @@
 package com.voiceai.conversation.service;
 
+import com.voiceai.conversation.config.DiscardingAsyncAppender;
+import com.voiceai.conversation.model.AwsUsage;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Service for recording application metrics.
@@ -16,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class MetricsService {
 
+    private final MeterRegistry registry;
     private final Counter ttsSuccessCounter;
     private final Counter ttsErrorCounter;
     private final Counter sttSuccessCounter;
@@ -27,6 +37,8 @@ public class MetricsService {
     private final Timer classificationLatencyTimer;
 
     public MetricsService(MeterRegistry registry) {
+        this.registry = registry;
+
         this.ttsSuccessCounter = Counter.builder("questionnaire.tts.success")
                 .description("Successful text-to-speech conversions")
                 .register(registry);
@@ -62,6 +74,13 @@ public class MetricsService {
         this.classificationLatencyTimer = Timer.builder("questionnaire.classification.latency")
                 .description("Classification latency in milliseconds")
                 .register(registry);
+
+        // Logback starts before the context, so the async appenders already exist
+        DiscardingAsyncAppender.droppedEvents().forEach((appender, dropped) ->
+                FunctionCounter.builder("questionnaire.log.events.dropped", dropped, LongAdder::sum)
+                        .description("Log events dropped because the async queue was full")
+                        .tag("appender", appender)
+                        .register(registry));
     }
 
     public void incrementTtsSuccess() {
@@ -99,4 +118,186 @@ public class MetricsService {
     public void recordClassificationLatency(long milliseconds) {
         classificationLatencyTimer.record(milliseconds, TimeUnit.MILLISECONDS);
     }
+
+    public void incrementSessionEviction(String reason) {
+        Counter.builder("questionnaire.session.store.evictions")
+                .description("Sessions removed from the in-memory store")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementSessionTokenRejected(String reason) {
+        Counter.builder("questionnaire.session.token.rejected")
+                .description("Client session tokens rejected by the token store")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    public <T> void registerSessionStoreSize(T store, ToDoubleFunction<T> sizeFunction) {
+        Gauge.builder("questionnaire.session.store.size", store, sizeFunction)
+                .description("Sessions held in the in-memory store")
+                .register(registry);
+    }
+
+    public void registerDependencyHealth(String dependency, BooleanSupplier up) {
+        Gauge.builder("questionnaire.dependency.up", up, supplier -> supplier.getAsBoolean() ? 1 : 0)
+                .description("1 if the last background health probe of the dependency succeeded")
+                .tag("dependency", dependency)
+                .register(registry);
+    }
+
+    public void incrementCircuitBreakerTransition(String name, String fromState, String toState) {
+        Counter.builder("questionnaire.circuitbreaker.transitions")
+                .description("Circuit breaker state transitions")
+                .tag("name", name)
+                .tag("from", fromState)
+                .tag("to", toState)
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementRetryBudgetExhausted(String service) {
+        Counter.builder("questionnaire.aws.retry.budget.exhausted")
+                .description("SDK retries suppressed because the retry budget was spent")
+                .tag("service", service)
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementFallback(String dependency) {
+        Counter.builder("questionnaire.fallback")
+                .description("Requests served by a degraded fallback instead of the dependency")
+                .tag("dependency", dependency)
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementDeadlineExceeded(String stage) {
+        Counter.builder("questionnaire.turn.deadline.exceeded")
+                .description("Voice turns answered with a retry prompt because their deadline ran out")
+                .tag("stage", stage)
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementHedgeSent() {
+        Counter.builder("questionnaire.classification.hedge.sent")
+                .description("Hedged Bedrock requests sent after the hedge delay")
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementHedgeWin(String winner) {
+        Counter.builder("questionnaire.classification.hedge.wins")
+                .description("Hedged Bedrock calls by which request returned first")
+                .tag("winner", winner)
+                .register(registry)
+                .increment();
+    }
+
+    public <T> void registerHedgeDelay(T executor, ToDoubleFunction<T> delayMillis) {
+        Gauge.builder("questionnaire.classification.hedge.delay", executor, delayMillis)
+                .description("Current delay before a hedged Bedrock request is sent")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    public void recordClassificationTierLatency(String tier, long nanos) {
+        Timer.builder("questionnaire.classification.tier.latency")
+                .description("Bedrock classification latency per cascade tier")
+                .tag("tier", tier)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void incrementClassificationEscalation(String reason) {
+        Counter.builder("questionnaire.classification.escalations")
+                .description("Classifications escalated from the fast to the strong model")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordWarmUpDuration(long milliseconds) {
+        Timer.builder("questionnaire.warmup.duration")
+                .description("Time spent warming up AWS clients before reporting ready")
+                .register(registry)
+                .record(milliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    public void incrementRetryAudio(String source) {
+        Counter.builder("questionnaire.retry.audio")
+                .description("Retry prompts served, by whether the audio was pre-synthesized")
+                .tag("source", source)
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementTurnDeduplicated(String source) {
+        Counter.builder("questionnaire.turn.deduplicated")
+                .description("Duplicate voice-turn submissions answered with the original result")
+                .tag("source", source)
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementAwsCallsAvoided(String service) {
+        Counter.builder("questionnaire.aws.calls.avoided")
+                .description("AWS calls not made because a duplicate turn reused an earlier result")
+                .tag("service", service)
+                .register(registry)
+                .increment();
+    }
+
+    public void incrementCoalesced(String operation) {
+        Counter.builder("questionnaire.singleflight.coalesced")
+                .description("Callers that shared an identical in-flight call instead of making their own")
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Usage attributed to a question of a session; question 0 is usage after
+     * the last question.
+     */
+    public void recordAwsUsage(int questionId, AwsUsage usage) {
+        forEachUnit(usage, (unit, amount) -> Counter.builder("questionnaire.aws.usage")
+                .description("Billable AWS units consumed by questionnaire sessions")
+                .tag("unit", unit)
+                .tag("question", "Q" + questionId)
+                .register(registry)
+                .increment(amount));
+    }
+
+    /**
+     * Units not billed because a call was shared or a result reused.
+     */
+    public void recordAwsUsageAvoided(String reason, AwsUsage usage) {
+        forEachUnit(usage, (unit, amount) -> Counter.builder("questionnaire.aws.usage.avoided")
+                .description("Billable AWS units saved by coalescing and deduplication")
+                .tag("unit", unit)
+                .tag("reason", reason)
+                .register(registry)
+                .increment(amount));
+    }
+
+    public void recordCompletedSessionUsage(AwsUsage usage) {
+        forEachUnit(usage, (unit, amount) -> DistributionSummary.builder("questionnaire.session.usage")
+                .description("Billable AWS units per completed questionnaire")
+                .tag("unit", unit)
+                .register(registry)
+                .record(amount));
+    }
+
+    private static void forEachUnit(AwsUsage usage, BiConsumer<String, Double> action) {
+        action.accept("bedrock_input_tokens", (double) usage.getBedrockInputTokens());
+        action.accept("bedrock_output_tokens", (double) usage.getBedrockOutputTokens());
+        action.accept("bedrock_cache_read_tokens", (double) usage.getBedrockCacheReadTokens());
+        action.accept("bedrock_cache_write_tokens", (double) usage.getBedrockCacheWriteTokens());
+        action.accept("transcribe_seconds", usage.getTranscribeMillis() / 1000.0);
+        action.accept("polly_characters", (double) usage.getPollyCharacters());
+    }
 }
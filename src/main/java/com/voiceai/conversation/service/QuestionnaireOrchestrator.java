@@ -1,106 +1,333 @@
 package com.voiceai.conversation.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceai.conversation.config.exception.AudioUploadException;
+import com.voiceai.conversation.config.exception.DeadlineExceededException;
+import com.voiceai.conversation.config.exception.InvalidAudioException;
+import com.voiceai.conversation.config.exception.RetryAudioNotFoundException;
+import com.voiceai.conversation.config.exception.SessionNotFoundException;
+import com.voiceai.conversation.config.exception.StaleSessionTokenException;
 import com.voiceai.conversation.model.*;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Orchestrates the questionnaire flow including question progression,
  * retry logic, and response processing with dynamic retry messages from AI.
+ * AWS usage of each turn is attributed to the session's current question
+ * (see {@link UsageMeter}) before the session is saved. Audio requests save
+ * the session only to complete it (see {@link #currentQuestion}); their
+ * usage waits in the {@link AudioRequestLedger} until the session completes.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class QuestionnaireOrchestrator {
 
+    /**
+     * One INFO line per voice turn and per completed session; the per-stage
+     * detail is at DEBUG.
+     */
+    private static final Logger TURN_LOG = LoggerFactory.getLogger("com.voiceai.conversation.turn");
+    /** Opt-in classification corpus for {@code ClassificationReplay}; holds raw transcripts. */
+    private static final Logger CORPUS_LOG = LoggerFactory.getLogger("com.voiceai.conversation.corpus");
+    private static final String COMPLETION_TEXT =
+            "Thank you for completing the questionnaire. Your responses have been recorded.";
+
     private final SessionService sessionService;
     private final SpeechToTextService speechToTextService;
     private final TextToSpeechService textToSpeechService;
     private final ResponseClassifier responseClassifier;
     private final AudioValidator audioValidator;
-    private final List<Question> questions;
-
+    private final QuestionnaireRegistry questionnaireRegistry;
+    private final RetryAudioService retryAudioService;
+    private final ObservationRegistry observationRegistry;
+    private final MetricsService metricsService;
+    private final ObjectMapper objectMapper;
+    private final AudioRequestLedger audioRequestLedger;
 
     @Value("${questionnaire.confidence-threshold:0.6}")
     private double confidenceThreshold;
 
+    /**
+     * The questionnaire version the session is pinned to. Sessions created
+     * before versioning fall back to the latest default questionnaire.
+     */
+    public CompiledQuestionnaire questionnaireFor(Session session) {
+        if (session.getQuestionnaireId() == null) {
+            return questionnaireRegistry.getDefault();
+        }
+        return questionnaireRegistry.get(session.getQuestionnaireId(), session.getQuestionnaireVersion());
+    }
+
     public Question getCurrentQuestion(String sessionId) {
+        CompiledQuestion question = currentQuestion(sessionService.getSession(sessionId));
+        return question == null ? null : question.getQuestion();
+    }
+
+    /**
+     * Question audio in the negotiated format. The format is remembered so
+     * retry prompts are pre-synthesized in it; like the Polly usage, it goes
+     * to the {@link AudioRequestLedger} rather than into the session, which
+     * this request only saves if it finds the questionnaire finished.
+     */
+    public byte[] getQuestionAudio(String sessionId, AudioOutputFormat format, TurnDeadline deadline) {
         Session session = sessionService.getSession(sessionId);
+        CompiledQuestion question = currentQuestion(session);
+
+        try (UsageMeter meter = UsageMeter.open()) {
+            byte[] audio = question == null
+                    ? textToSpeechService.synthesizeSpeech(COMPLETION_TEXT, COMPLETION_TEXT, format, deadline)
+                    : textToSpeechService.synthesizeSpeech(
+                            question.getText(), question.getAudioCacheKey(), format, deadline);
+            recordAudioRequest(session, question, format, meter);
+            return audio;
+        }
+    }
 
-        if (session.getCurrentQuestionIndex() >= questions.size()) {
-            session.complete();
-            sessionService.saveSession(session);
-            return null;
+    /**
+     * Audio for the session's current retry prompt. Only the token issued with
+     * the last retry response is accepted; the text never comes from the client.
+     */
+    public byte[] getRetryAudio(String sessionId, String token, AudioOutputFormat format,
+                                TurnDeadline deadline) {
+        Session session = sessionService.getSession(sessionId);
+        if (!session.isRetryAudioValid(token, Instant.now())) {
+            throw new RetryAudioNotFoundException(sessionId);
         }
 
-        return questions.get(session.getCurrentQuestionIndex());
+        try (UsageMeter meter = UsageMeter.open()) {
+            byte[] audio = retryAudioService.getAudio(token, session.getRetryAudioText(), format, deadline);
+            // Billed if synthesized again on request, e.g. the pre-synthesized result was lost
+            recordAudioRequest(session, currentQuestion(session), null, meter);
+            return audio;
+        }
     }
 
-    public byte[] getQuestionAudio(String sessionId) {
-        Question question = getCurrentQuestion(sessionId);
+    /**
+     * Processes a response within {@code deadline}. Transcription and
+     * classification only get the time left; a turn that runs out of it is
+     * answered with the retry prompt.
+     */
+    public ProcessingResult processVoiceResponse(String sessionId, byte[] audioData, TurnDeadline deadline) {
+        return processVoiceResponse(sessionId, null, audioData, deadline);
+    }
 
-        String questionText;
-        if (question == null) {
-            questionText = "Thank you for completing the questionnaire. Your responses have been recorded.";
-        } else {
-            questionText = question.getText();
-        }
+    /**
+     * As {@link #processVoiceResponse(String, byte[], TurnDeadline)}, for a
+     * caller that has already read the session in this request; a
+     * {@code null} session is read here.
+     */
+    public ProcessingResult processVoiceResponse(String sessionId, Session session, byte[] audioData,
+                                                 TurnDeadline deadline) {
+        Observation observation = Observation.createNotStarted("questionnaire.orchestrate", observationRegistry)
+                .contextualName("process-voice-response")
+                .highCardinalityKeyValue("session.id", sessionId)
+                .highCardinalityKeyValue("audio.bytes", String.valueOf(audioData == null ? 0 : audioData.length));
+
+        return observation.observe(() -> {
+            ProcessingResult result = process(sessionId, session, audioData, deadline);
+            observation.lowCardinalityKeyValue("turn.status", result.getStatus().name());
+            return result;
+        });
+    }
 
-        return textToSpeechService.synthesizeSpeech(questionText);
+    /**
+     * Processes a response streamed from the request body. The header is
+     * validated before any AWS work starts; size limits are enforced while the
+     * audio is piped into Transcribe.
+     */
+    public ProcessingResult processVoiceResponse(String sessionId, InputStream audioStream, TurnDeadline deadline) {
+        Observation observation = Observation.createNotStarted("questionnaire.orchestrate", observationRegistry)
+                .contextualName("process-voice-response-stream")
+                .highCardinalityKeyValue("session.id", sessionId);
+
+        return observation.observe(() -> {
+            AudioValidator.ValidatedAudioStream validated = audioValidator.validateStream(audioStream);
+            ProcessingResult result = process(sessionId, null, deadline,
+                    () -> speechToTextService.transcribeAudio(validated.getStream(), validated.getMetadata(), deadline));
+            observation.lowCardinalityKeyValue("turn.status", result.getStatus().name());
+            return result;
+        });
     }
 
-    public byte[] getRetryAudio(String retryMessage) {
-        return textToSpeechService.synthesizeSpeech(retryMessage);
+    private ProcessingResult process(String sessionId, Session session, byte[] audioData, TurnDeadline deadline) {
+        AudioMetadata metadata = audioValidator.validateAudio(audioData);
+        return process(sessionId, session, deadline,
+                () -> speechToTextService.transcribeAudio(audioData, metadata, deadline));
     }
 
-    public ProcessingResult processVoiceResponse(String sessionId, byte[] audioData) {
-        audioValidator.validateAudio(audioData);
+    private ProcessingResult process(String sessionId, Session session, TurnDeadline deadline,
+                                     Supplier<String> transcriber) {
+        TurnSummary summary = new TurnSummary(sessionId);
+        try (UsageMeter ignored = UsageMeter.open()) {
+            ProcessingResult result = processTurn(sessionId, session, deadline, transcriber, summary);
+            summary.status = result.getStatus().name();
+            return result;
+        } finally {
+            if (TURN_LOG.isInfoEnabled()) {
+                TURN_LOG.info(summary.toString());
+            }
+        }
+    }
 
-        Session session = sessionService.getSession(sessionId);
-        Question currentQuestion = getCurrentQuestion(sessionId);
+    private ProcessingResult processTurn(String sessionId, Session preloaded, TurnDeadline deadline,
+                                         Supplier<String> transcriber, TurnSummary summary) {
+        Session session = preloaded != null ? preloaded : sessionService.getSession(sessionId);
+        CompiledQuestion currentQuestion = currentQuestion(session);
 
         if (currentQuestion == null) {
             return ProcessingResult.completed(session);
         }
 
-        log.info("Processing response for session={}, question={}", sessionId, currentQuestion.getId());
+        session.recordTurn();
+        summary.questionId = currentQuestion.getId();
+        log.debug("Processing response for session={}, question={}", sessionId, currentQuestion.getId());
 
         try {
-            String transcript = speechToTextService.transcribeAudio(audioData);
+            long sttStart = System.nanoTime();
+            String transcript = transcriber.get();
+            summary.sttNanos = System.nanoTime() - sttStart;
+            summary.transcriptChars = transcript.length();
 
             if (transcript.isEmpty()) {
                 log.warn("Empty transcript for session={}", sessionId);
-                return handleClassificationFailure(session, currentQuestion, "", null);
+                return handleClassificationFailure(session, currentQuestion, "", null, deadline);
             }
 
+            long classifyStart = System.nanoTime();
             ClassificationResult classification = responseClassifier.classifyResponse(
                     currentQuestion,
-                    transcript
+                    transcript,
+                    deadline
             );
+            summary.classifyNanos = System.nanoTime() - classifyStart;
+            summary.confidence = classification.getConfidence();
+            if (CORPUS_LOG.isInfoEnabled()) {
+                logCorpusRecord(session, currentQuestion, transcript, classification);
+            }
 
-            if (classification.isValid(confidenceThreshold)) {
+            // A category the question does not list is not recorded, however
+            // confident the model is; the caller is asked to answer again
+            String category = currentQuestion.canonicalCategory(classification.getCategory());
+            if (classification.isValid(confidenceThreshold) && category != null) {
+                classification.setCategory(category);
+                summary.category = category;
                 return handleSuccessfulClassification(session, currentQuestion, classification, transcript);
             } else {
-                log.info("Classification failed: matched={}, confidence={}",
+                log.debug("Classification failed: matched={}, confidence={}",
                         classification.isMatched(), classification.getConfidence());
-                return handleClassificationFailure(session, currentQuestion, transcript, classification);
+                return handleClassificationFailure(session, currentQuestion, transcript, classification, deadline);
             }
 
+        } catch (InvalidAudioException | AudioUploadException e) {
+            summary.status = "INVALID_AUDIO";
+            throw e;
+        } catch (StaleSessionTokenException | SessionNotFoundException e) {
+            // The save lost to another request; retrying it here would lose too
+            summary.error = e.getClass().getSimpleName();
+            throw e;
+        } catch (DeadlineExceededException e) {
+            log.warn("Turn deadline exceeded for session={} during {}", sessionId, e.getStage());
+            summary.error = e.getClass().getSimpleName();
+            metricsService.incrementDeadlineExceeded(e.getStage());
+            return handleClassificationFailure(session, currentQuestion, "", null, deadline);
         } catch (Exception e) {
             log.error("Error processing response: {}", e.getMessage(), e);
-            return handleClassificationFailure(session, currentQuestion, "", null);
+            summary.error = e.getClass().getSimpleName();
+            return handleClassificationFailure(session, currentQuestion, "", null, deadline);
+        }
+    }
+
+    /**
+     * The question the session is on; {@code null} once the questionnaire is
+     * finished, in which case a session not yet marked complete is completed
+     * and saved here, whichever request notices first.
+     */
+    private CompiledQuestion currentQuestion(Session session) {
+        CompiledQuestion question = questionnaireFor(session).questionAt(session.getCurrentQuestionIndex());
+
+        if (question == null && !session.isCompleted()) {
+            audioRequestLedger.takeUsage(session.getSessionId()).forEach(session::recordUsage);
+            session.complete();
+            sessionService.saveSession(session);
+            recordCompletion(session);
+        }
+
+        return question;
+    }
+
+    /**
+     * Moves the usage recorded so far by the open {@link UsageMeter} onto the
+     * session, under {@code question} (0 once the questionnaire is finished).
+     */
+    private void attributeUsage(Session session, CompiledQuestion question) {
+        UsageMeter meter = UsageMeter.current();
+        AwsUsage usage = meter == null ? null : meter.take();
+        if (usage == null || usage.isEmpty()) {
+            return;
+        }
+        int questionId = question == null ? 0 : question.getId();
+        session.recordUsage(questionId, usage);
+        metricsService.recordAwsUsage(questionId, usage);
+    }
+
+    /**
+     * Reports an audio request's usage and leaves it, with the requested
+     * format if any, in the ledger until the session completes. A completed
+     * session has already been accounted for.
+     */
+    private void recordAudioRequest(Session session, CompiledQuestion question, AudioOutputFormat format,
+                                    UsageMeter meter) {
+        AwsUsage usage = meter.take();
+        int questionId = question == null ? 0 : question.getId();
+        if (!usage.isEmpty()) {
+            metricsService.recordAwsUsage(questionId, usage);
+        }
+        if (session.isCompleted()) {
+            return;
+        }
+        audioRequestLedger.record(session.getSessionId(), questionId, format, usage.getPollyCharacters());
+    }
+
+    /**
+     * The completion record: what the whole questionnaire cost.
+     */
+    private void recordCompletion(Session session) {
+        AwsUsage usage = session.totalUsage();
+        metricsService.recordCompletedSessionUsage(usage);
+        if (TURN_LOG.isInfoEnabled()) {
+            TURN_LOG.info(String.format(Locale.ROOT,
+                    "completed session=%s questions=%d turns=%d bedrock_input_tokens=%d bedrock_output_tokens=%d "
+                            + "bedrock_cache_read_tokens=%d bedrock_cache_write_tokens=%d transcribe_seconds=%.1f "
+                            + "polly_characters=%d",
+                    session.getSessionId(), session.getResponses().size(), session.getTurnCount(),
+                    usage.getBedrockInputTokens(), usage.getBedrockOutputTokens(),
+                    usage.getBedrockCacheReadTokens(), usage.getBedrockCacheWriteTokens(),
+                    usage.getTranscribeMillis() / 1000.0, usage.getPollyCharacters()));
         }
     }
 
     private ProcessingResult handleSuccessfulClassification(
             Session session,
-            Question question,
+            CompiledQuestion question,
             ClassificationResult classification,
             String transcript) {
 
@@ -111,28 +338,47 @@ public class QuestionnaireOrchestrator {
                 classification.getConfidence()
         );
 
+        retryAudioService.discard(session.getRetryAudioToken());
+        attributeUsage(session, question);
         session.recordResponse(response);
         sessionService.saveSession(session);
 
-        Question nextQuestion = getCurrentQuestion(session.getSessionId());
+        CompiledQuestion nextQuestion = currentQuestion(session);
 
-        log.info("Response recorded: Q{}={} (confidence={})",
+        log.debug("Response recorded: Q{}={} (confidence={})",
                 question.getId(), classification.getCategory(), classification.getConfidence());
 
         if (nextQuestion == null) {
             return ProcessingResult.completed(session, classification, transcript);
         } else {
-            return ProcessingResult.success(session, classification, transcript, nextQuestion);
+            return ProcessingResult.success(session, classification, transcript, nextQuestion.getQuestion());
+        }
+    }
+
+    private void logCorpusRecord(Session session, CompiledQuestion question, String transcript,
+                                 ClassificationResult classification) {
+        CompiledQuestionnaire questionnaire = questionnaireFor(session);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("questionnaireId", questionnaire.getId());
+        record.put("version", questionnaire.getVersion());
+        record.put("questionId", question.getId());
+        record.put("transcript", transcript);
+        record.put("matched", classification.isMatched());
+        record.put("category", classification.getCategory());
+        record.put("confidence", classification.getConfidence());
+        try {
+            CORPUS_LOG.info(objectMapper.writeValueAsString(record));
+        } catch (JsonProcessingException e) {
+            log.debug("Could not write corpus record: {}", e.getMessage());
         }
     }
 
     private ProcessingResult handleClassificationFailure(
             Session session,
-            Question question,
+            CompiledQuestion question,
             String transcript,
-            ClassificationResult classification) {
-
-        sessionService.saveSession(session);
+            ClassificationResult classification,
+            TurnDeadline deadline) {
 
 //        if (session.getRetryCount() >= maxRetries) {
 //            log.warn("Max retries exceeded for session={}, question={}",
@@ -148,10 +394,61 @@ public class QuestionnaireOrchestrator {
                 ? classification.getRetryMessage()
                 : "I didn't quite catch that. Let me repeat the question. " + question.getText();
 
-        log.info("Session={}, question={}, retryMessage='{}'",
+        // Synthesis overlaps the response's trip back to the client; not
+        // started once the deadline has passed and the client may be gone
+        retryAudioService.discard(session.getRetryAudioToken());
+        AudioOutputFormat format = audioRequestLedger.format(session.getSessionId(),
+                session.getAudioFormat() != null ? session.getAudioFormat() : AudioOutputFormat.DEFAULT);
+        session.setAudioFormat(format);
+        String token = retryAudioService.prepare(retryMessage, format, deadline);
+        session.setRetryAudio(token, retryMessage,
+                Instant.now().plusMillis(retryAudioService.getTokenTtlMillis()));
+        attributeUsage(session, question);
+        sessionService.saveSession(session);
+
+        log.debug("Session={}, question={}, retryMessage='{}'",
                 session.getSessionId(), question.getId(), retryMessage);
 
-        return ProcessingResult.retry(session, question, transcript, retryMessage);
+        return ProcessingResult.retry(session, question.getQuestion(), transcript, retryMessage);
+    }
+
+    /**
+     * Key=value fields of the per-turn log line. Transcripts are not logged,
+     * only their length.
+     */
+    private static final class TurnSummary {
+        private final String sessionId;
+        private final long startNanos = System.nanoTime();
+        private Integer questionId;
+        private String status = "FAILED";
+        private String category;
+        private double confidence;
+        private int transcriptChars;
+        private long sttNanos;
+        private long classifyNanos;
+        private String error;
+
+        TurnSummary(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder(192)
+                    .append("turn session=").append(sessionId)
+                    .append(" question=").append(questionId)
+                    .append(" status=").append(status)
+                    .append(" category=").append(category)
+                    .append(" confidence=").append(String.format(Locale.ROOT, "%.2f", confidence))
+                    .append(" transcript_chars=").append(transcriptChars)
+                    .append(" stt_ms=").append(TimeUnit.NANOSECONDS.toMillis(sttNanos))
+                    .append(" classify_ms=").append(TimeUnit.NANOSECONDS.toMillis(classifyNanos))
+                    .append(" total_ms=").append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            if (error != null) {
+                line.append(" error=").append(error);
+            }
+            return line.toString();
+        }
     }
 
     @Data
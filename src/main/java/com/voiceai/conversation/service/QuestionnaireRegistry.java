@@ -0,0 +1,188 @@
+package com.voiceai.conversation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceai.conversation.config.exception.QuestionnaireNotFoundException;
+import com.voiceai.conversation.model.Question;
+import com.voiceai.conversation.model.QuestionnaireDefinition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ResourceUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versioned questionnaire definitions loaded from JSON files, indexed by id
+ * and version.
+ *
+ * <p>Definitions are compiled once per load (see {@link CompiledQuestion})
+ * and published as an immutable snapshot swapped through an
+ * {@link AtomicReference}, so readers never lock and never observe a
+ * half-loaded state. A {@code file:} location is rescanned every
+ * {@code questionnaire.reload-interval-millis}; classpath definitions only
+ * change with a new build, so they are read once. Versions that disappear
+ * from disk stay loaded so sessions pinned to them can finish. A loaded version
+ * is never replaced: a file that changes an existing id and version is
+ * rejected, so changes must ship as a new version. New sessions start on the
+ * latest version of {@code questionnaire.default-id}.
+ */
+@Slf4j
+@Service
+public class QuestionnaireRegistry {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(Map.of(), ""));
+    private final String location;
+    private final String defaultId;
+
+    public QuestionnaireRegistry(
+            @Value("${questionnaire.definitions-location:classpath:questionnaires/*.json}") String location,
+            @Value("${questionnaire.default-id:health-checkin}") String defaultId,
+            @Value("${questionnaire.reload-interval-millis:30000}") long reloadIntervalMillis,
+            TaskScheduler taskScheduler) {
+        this.location = location;
+        this.defaultId = defaultId;
+
+        reload();
+        latest(defaultId);
+
+        if (location.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
+            Duration interval = Duration.ofMillis(reloadIntervalMillis);
+            taskScheduler.scheduleWithFixedDelay(this::reload, Instant.now().plus(interval), interval);
+        }
+    }
+
+    /**
+     * Latest version of the default questionnaire.
+     */
+    public CompiledQuestionnaire getDefault() {
+        return latest(defaultId);
+    }
+
+    public CompiledQuestionnaire latest(String questionnaireId) {
+        NavigableMap<Integer, CompiledQuestionnaire> versions = snapshot.get().questionnaires.get(questionnaireId);
+        if (versions == null || versions.isEmpty()) {
+            throw new QuestionnaireNotFoundException(questionnaireId, null);
+        }
+        return versions.lastEntry().getValue();
+    }
+
+    public CompiledQuestionnaire get(String questionnaireId, int version) {
+        NavigableMap<Integer, CompiledQuestionnaire> versions = snapshot.get().questionnaires.get(questionnaireId);
+        CompiledQuestionnaire questionnaire = versions == null ? null : versions.get(version);
+        if (questionnaire == null) {
+            throw new QuestionnaireNotFoundException(questionnaireId, version);
+        }
+        return questionnaire;
+    }
+
+    /**
+     * Rescans the definition files and atomically publishes a new snapshot if
+     * anything changed. Invalid files are skipped and logged.
+     */
+    public synchronized void reload() {
+        Map<String, byte[]> files = readDefinitionFiles();
+        String fingerprint = fingerprint(files);
+        Snapshot current = snapshot.get();
+        if (fingerprint.equals(current.fingerprint)) {
+            return;
+        }
+
+        Map<String, NavigableMap<Integer, CompiledQuestionnaire>> questionnaires = new HashMap<>();
+        current.questionnaires.forEach((id, versions) -> questionnaires.put(id, new TreeMap<>(versions)));
+
+        files.forEach((name, content) -> {
+            try {
+                QuestionnaireDefinition definition = objectMapper.readValue(content, QuestionnaireDefinition.class);
+                validate(definition);
+                NavigableMap<Integer, CompiledQuestionnaire> versions =
+                        questionnaires.computeIfAbsent(definition.getId(), id -> new TreeMap<>());
+                CompiledQuestionnaire existing = versions.get(definition.getVersion());
+                if (existing != null) {
+                    if (!existing.compiledFrom(definition)) {
+                        log.error("Ignoring {}: questionnaire {} v{} is already loaded with different content;"
+                                        + " publish changes as a new version",
+                                name, definition.getId(), definition.getVersion());
+                    }
+                    return;
+                }
+                CompiledQuestionnaire compiled = new CompiledQuestionnaire(definition);
+                versions.put(definition.getVersion(), compiled);
+                log.info("Loaded questionnaire {} v{} ({} questions) from {}",
+                        compiled.getId(), compiled.getVersion(), compiled.size(), name);
+            } catch (Exception e) {
+                log.error("Skipping invalid questionnaire definition {}: {}", name, e.getMessage());
+            }
+        });
+
+        Map<String, NavigableMap<Integer, CompiledQuestionnaire>> frozen = new HashMap<>();
+        questionnaires.forEach((id, versions) -> frozen.put(id, Collections.unmodifiableNavigableMap(versions)));
+        snapshot.set(new Snapshot(Map.copyOf(frozen), fingerprint));
+    }
+
+    private Map<String, byte[]> readDefinitionFiles() {
+        Map<String, byte[]> files = new TreeMap<>();
+        try {
+            for (Resource resource : resolver.getResources(location)) {
+                try (InputStream input = resource.getInputStream()) {
+                    files.put(resource.getDescription(), input.readAllBytes());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read questionnaire definitions from {}: {}", location, e.getMessage());
+        }
+        return files;
+    }
+
+    private static String fingerprint(Map<String, byte[]> files) {
+        StringBuilder fingerprint = new StringBuilder();
+        files.forEach((name, content) ->
+                fingerprint.append(name).append('=').append(Arrays.hashCode(content)).append(';'));
+        return fingerprint.toString();
+    }
+
+    private static void validate(QuestionnaireDefinition definition) {
+        if (definition.getId() == null || definition.getId().isBlank()) {
+            throw new IllegalArgumentException("id is required");
+        }
+        if (definition.getVersion() <= 0) {
+            throw new IllegalArgumentException("version must be positive");
+        }
+        if (definition.getQuestions() == null || definition.getQuestions().isEmpty()) {
+            throw new IllegalArgumentException("at least one question is required");
+        }
+
+        Set<Integer> questionIds = new HashSet<>();
+        for (Question question : definition.getQuestions()) {
+            if (!questionIds.add(question.getId())) {
+                throw new IllegalArgumentException("duplicate question id " + question.getId());
+            }
+            if (question.getText() == null || question.getText().isBlank()) {
+                throw new IllegalArgumentException("question " + question.getId() + " has no text");
+            }
+            if (question.getValidCategories() == null || question.getValidCategories().isEmpty()) {
+                throw new IllegalArgumentException("question " + question.getId() + " has no categories");
+            }
+        }
+    }
+
+    private record Snapshot(Map<String, NavigableMap<Integer, CompiledQuestionnaire>> questionnaires,
+                            String fingerprint) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.voiceai.conversation.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis key layout for session data.
+ *
+ * <p>With {@code redis.topology=cluster} the session id is the hash tag, so
+ * every key of one session lands in the same slot (multi-key scripts stay
+ * legal) while different sessions, having random ids, spread evenly across
+ * slots. Standalone and Sentinel deployments keep the untagged layout they
+ * have always used, so their live sessions survive an upgrade.
+ */
+@Component
+class RedisKeys {
+
+    private final boolean clustered;
+
+    RedisKeys(@Value("${redis.topology:standalone}") String topology) {
+        this.clustered = "cluster".equalsIgnoreCase(topology);
+    }
+
+    String session(String sessionId) {
+        return "questionnaire:session:" + tag(sessionId);
+    }
+
+    String highWater(String sessionId) {
+        return clustered
+                ? "questionnaire:session:{" + sessionId + "}:hw"
+                : "questionnaire:session:hw:" + sessionId;
+    }
+
+    String result(String sessionId) {
+        return "questionnaire:result:" + tag(sessionId);
+    }
+
+    String audioLedger(String sessionId) {
+        return "questionnaire:audio:" + tag(sessionId);
+    }
+
+    String turn(String sessionId, String turnKey) {
+        return "questionnaire:turn:" + tag(sessionId) + ":" + turnKey;
+    }
+
+    private String tag(String sessionId) {
+        return clustered ? "{" + sessionId + "}" : sessionId;
+    }
+}
@@ -0,0 +1,75 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.Session;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Session store backed by Redis, shared by all application instances.
+ * Read-only lookups go through the replica template (see {@code RedisConfig}).
+ */
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "redis", matchIfMissing = true)
+public class RedisSessionStore implements SessionStore {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, Object> replicaRedisTemplate;
+    private final RedisKeys redisKeys;
+
+    public RedisSessionStore(
+            @Qualifier("redisTemplate") RedisTemplate<String, Object> redisTemplate,
+            @Qualifier("replicaRedisTemplate") RedisTemplate<String, Object> replicaRedisTemplate,
+            RedisKeys redisKeys) {
+        this.redisTemplate = redisTemplate;
+        this.replicaRedisTemplate = replicaRedisTemplate;
+        this.redisKeys = redisKeys;
+    }
+
+    @Override
+    public void save(Session session, Duration ttl) {
+        redisTemplate.opsForValue().set(buildKey(session.getSessionId()), session, ttl);
+    }
+
+    @Override
+    public Session find(String sessionId) {
+        return (Session) redisTemplate.opsForValue().get(buildKey(sessionId));
+    }
+
+    @Override
+    public Session findForRead(String sessionId) {
+        return (Session) replicaRedisTemplate.opsForValue().get(buildKey(sessionId));
+    }
+
+    @Override
+    public boolean delete(String sessionId) {
+        return Boolean.TRUE.equals(redisTemplate.delete(buildKey(sessionId)));
+    }
+
+    @Override
+    public boolean exists(String sessionId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(buildKey(sessionId)));
+    }
+
+    @Override
+    public void expire(String sessionId, Duration ttl) {
+        redisTemplate.expire(buildKey(sessionId), ttl);
+    }
+
+    @Override
+    public String name() {
+        return "redis";
+    }
+
+    @Override
+    public void ping() {
+        redisTemplate.hasKey("health-check");
+    }
+
+    private String buildKey(String sessionId) {
+        return redisKeys.session(sessionId);
+    }
+}
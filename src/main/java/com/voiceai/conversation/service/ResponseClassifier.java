@@ -1,69 +1,166 @@
 package com.voiceai.conversation.service;
 
+import com.voiceai.conversation.config.ResilienceConfiguration;
 import com.voiceai.conversation.config.exception.ClassificationException;
+import com.voiceai.conversation.config.exception.DeadlineExceededException;
 import com.voiceai.conversation.config.exception.ServiceUnavailableException;
+import com.voiceai.conversation.model.AwsUsage;
 import com.voiceai.conversation.model.ClassificationResult;
 import com.voiceai.conversation.model.Question;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceai.conversation.model.bedrock.MessagesRequest;
+import com.voiceai.conversation.model.bedrock.MessagesResponse;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Service for classifying user responses using Amazon Bedrock (Claude).
+ * When {@code aws.bedrock.fast-model-id} is set, a cheaper model runs first
+ * and the request escalates to {@code aws.bedrock.model-id} only if that
+ * result is unmatched, below the confidence threshold or failed. Falls
+ * back to {@link KeywordResponseClassifier} while Bedrock is failing or its
+ * circuit breaker is open. Identical concurrent requests (same compiled
+ * question, same transcript) share one classification; the callers that
+ * joined it report the tokens they did not spend as avoided.
+ *
+ * <p>The model is forced to answer with a single {@code record_classification}
+ * tool call (see {@link ClassificationPrompt}); its input is bound straight
+ * into a {@link ClassificationResult} by the application's {@link ObjectMapper}.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ResponseClassifier {
 
-    private final BedrockRuntimeClient bedrockClient;
+    private final BedrockRuntimeAsyncClient bedrockClient;
     private final MetricsService metricsService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObservationRegistry observationRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final KeywordResponseClassifier fallbackClassifier;
+    private final HedgedRequestExecutor hedgedRequestExecutor;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight<ClassificationKey, Classified> classificationCalls =
+            new SingleFlight<>(() -> metricsService.incrementCoalesced("classification"));
+
+    private static final String TIER_FAST = "fast";
+    private static final String TIER_STRONG = "strong";
 
     @Value("${aws.bedrock.model-id}")
     private String modelId;
 
+    /** First tier of the cascade; empty disables the cascade. */
+    @Value("${aws.bedrock.fast-model-id:}")
+    private String fastModelId;
+
+    @Value("${questionnaire.confidence-threshold:0.6}")
+    private double confidenceThreshold;
+
+    /** Model or inference profile used to hedge strong-tier requests; defaults to {@code modelId}. */
+    @Value("${aws.bedrock.hedging.alternate-model-id:}")
+    private String hedgeModelId;
+
+    /** Bounds every Bedrock call; a turn deadline can only shorten it. */
+    @Value("${aws.api-timeout-seconds:30}")
+    private long apiTimeoutSeconds;
+
     @Value("${aws.bedrock.max-tokens:500}")
     private int maxTokens;
 
     @Value("${aws.bedrock.temperature:0.3}")
     private double temperature;
 
-    public ClassificationResult classifyResponse(Question question, String userResponse) {
+    public ClassificationResult classifyResponse(CompiledQuestion question, String userResponse) {
+        return classifyResponse(question, userResponse, TurnDeadline.none());
+    }
+
+    /**
+     * Classifies within {@code deadline}: Bedrock calls are given only the
+     * time left, and {@link DeadlineExceededException} is thrown instead of
+     * falling back once it has passed.
+     */
+    public ClassificationResult classifyResponse(CompiledQuestion question, String userResponse,
+                                                 TurnDeadline deadline) {
         if (question == null || userResponse == null || userResponse.trim().isEmpty()) {
             throw new IllegalArgumentException("Question and response cannot be null or empty");
         }
 
-        log.info("Classifying response for Q{}: '{}'", question.getId(), userResponse);
+        return Observation.createNotStarted("questionnaire.classification", observationRegistry)
+                .contextualName("classify-response")
+                .lowCardinalityKeyValue("bedrock.model.id", modelId)
+                .lowCardinalityKeyValue("question.id", String.valueOf(question.getId()))
+                .highCardinalityKeyValue("transcript.length", String.valueOf(userResponse.length()))
+                .observe(() -> {
+                    boolean[] led = new boolean[1];
+                    Classified classified = classificationCalls.execute(
+                            new ClassificationKey(question, userResponse.trim()),
+                            deadline,
+                            "classification",
+                            () -> {
+                                led[0] = true;
+                                try (UsageMeter meter = UsageMeter.open()) {
+                                    return new Classified(
+                                            classifyWithFallback(question, userResponse, deadline), meter.total());
+                                }
+                            });
+                    if (!led[0]) {
+                        metricsService.recordAwsUsageAvoided("coalesced", classified.usage());
+                    }
+                    // Callers adjust the result (e.g. canonical category), so each gets its own
+                    ClassificationResult shared = classified.result();
+                    return new ClassificationResult(shared.isMatched(), shared.getCategory(),
+                            shared.getConfidence(), shared.getRetryMessage());
+                });
+    }
+
+    private ClassificationResult classifyWithFallback(CompiledQuestion question, String userResponse,
+                                                      TurnDeadline deadline) {
+        try {
+            return circuitBreakerRegistry.circuitBreaker(ResilienceConfiguration.BEDROCK)
+                    .executeSupplier(() -> classify(question, userResponse, deadline));
+        } catch (CallNotPermittedException | ClassificationException e) {
+            log.warn("Bedrock unavailable for Q{} ({}), using keyword classifier",
+                    question.getId(), e.getMessage());
+            metricsService.incrementFallback(ResilienceConfiguration.BEDROCK);
+            return fallbackClassifier.classify(question, userResponse);
+        }
+    }
+
+    private ClassificationResult classify(CompiledQuestion question, String userResponse, TurnDeadline deadline) {
+        log.debug("Classifying response for Q{}: '{}'", question.getId(), userResponse);
         long startTime = System.currentTimeMillis();
 
         try {
-            String prompt = buildClassificationPrompt(question, userResponse);
-            String response = invokeBedrockModel(prompt);
-            ClassificationResult result = parseClassificationResult(response);
+            String prompt = ClassificationPrompt.render(question.getPromptPrefix(), userResponse);
+            ClassificationResult result = classifyCascade(question, prompt, deadline);
 
             long duration = System.currentTimeMillis() - startTime;
             metricsService.recordClassificationLatency(duration);
             metricsService.incrementClassificationSuccess();
 
-            log.info("Classification result for Q{}: matched={}, category={}, confidence={}, retryMessage='{}'",
+            log.debug("Classification result for Q{}: matched={}, category={}, confidence={}, retryMessage='{}'",
                     question.getId(), result.isMatched(), result.getCategory(),
                     result.getConfidence(), result.getRetryMessage());
 
             return result;
 
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             metricsService.incrementClassificationError();
             log.error("Classification failed for Q{}: {}", question.getId(), e.getMessage(), e);
@@ -71,117 +168,178 @@ public class ResponseClassifier {
         }
     }
 
-    private String buildClassificationPrompt(Question question, String userResponse) {
-        String categoriesStr = String.join(", ", question.getValidCategories());
-
-        return String.format("""
-            You are a health questionnaire response classifier. Your task is to determine if a user's spoken response matches one of the predefined valid categories for a question.
-            
-            Question: "%s"
-            Valid categories: %s
-            User's spoken response: "%s"
-            
-            Classification rules:
-            1. Synonyms and Variations: Be flexible with synonyms, informal expressions, and subtle variations. For example, "pretty confident" matches "somewhat confident," and "fairly confident" can be mapped to "somewhat confident" too. Ensure to handle common informal phrases, e.g., "quite confident," "fairly confident," and other similar expressions.
-            2. American English and Slang: Consider variations in American English, informal language, and regional slang. For example, "kinda" for "kind of" or "gonna" for "going to" should be handled.
-            3. Handling Numbers as Words or Digits: Be flexible with numbers written as words or digits. For example, "zero" should be mapped to "0," "one" to "1," and "10" to "ten." Also, handle ranges expressed in different formats (e.g., "1-3," "1 to 3," or "between 1 and 3" all map to the "1-3" range).
-            4. Handling Minutes as a Fraction of a Day: If the question asks about days, treat minutes as a part of the day. For example, if the user mentions "20 minutes a day" in response to a question about how many days they engaged in activity, interpret it as "regularly."
-            5. Filler Words: Ignore filler words like "um," "uh," "like," and minor variations. Only focus on the core response.
-            6. Mixed / multi-part answers: If multiple categories are implied, select the most appropriate single option based on overall meaning (or default to the “middle” option unless strong evidence).
-            7. Matching Criteria: If the response closely matches one of the predefined categories, set matched=true. If there is ambiguity or the response doesn't match any category, set matched=false.
-            8. Ambiguity Handling: If the response is ambiguous or doesn't clearly fit a category, politely ask the user to try again. For example, if the user says "sometimes I walk" in response to a question about exercise, but the predefined options are more specific, gently explain that it doesn't match and encourage a more concise answer.
-            9. Exercise Activity Mapping: If a user responds about an exercise activity other than the one mentioned in the question (e.g., running instead of walking), consider it as a sign of being quite active. Ask if they do this activity more frequently than the least option given (e.g., "Do you do this for more than 1-3 days a week?").
-            10. Pay special attention to “not”, “never”, “don’t”, “wouldn’t”, “can’t” and resolve negation before mapping.
-            9. Temporal Reasoning for Frequency Questions
-            If a question asks about frequency over a time period (e.g., “over the past week”), evaluate the response across the entire time window, not just the most recent event.
-            If the user mentions a specific event (e.g., injury, illness, accident) that occurred partway through the time period, assume a mixed condition.
-            Classify based on the overall proportion of time the user implies they felt well.
-            Do not default to extreme categories (“rarely”, “never”) unless the user clearly states they felt unwell for most or all of the time period.
-            10. Partial-Week Heuristic (Implicit Day Mapping)
-            When exact counts are not provided but timing is implied:
-            Feeling well most days → “most of the time”
-            Feeling well about half the time → “sometimes”
-            Feeling well only briefly → “rarely”
-            Feeling well not at all → “never”
-            11. Event-Triggered Decline Rule
-            If a user describes being active or well earlier in the period (e.g., exercising, working normally) and later becoming unwell due to a specific event, prioritize the earlier functional state when selecting a category.
-            12. Clarification Threshold
-            Ask a follow-up only if the response does not reasonably indicate how often the user felt well across the period.
-            Do not ask follow-ups when a reasonable frequency can be inferred.
-            Retry Message: • If the response is classified as unmatched, generate a short, natural, conversational retry message: Acknowledge their response kindly (e.g., "Thanks for your response!"). Gently explain why it doesn't match the expected format (e.g., "I didn't quite catch that."). Encourage them to try again with a concise response (e.g., "Could you please try again with one of the options?"). Get progressively more helpful with each retry. For example, if the user provides a vague answer multiple times, you can guide them towards the valid options explicitly (e.g., "Could you tell me how many days a week you engage in activity, such as walking?").
-            Example Format for Responses:
-            1. Matched Response: • Response: "I felt quite confident" {"matched": true, "category": "somewhat confident", "confidence": 0.85, "retryMessage": ""}
-            2. Number Handling: • Response: "zero" {"matched": true, "category": "0", "confidence": 0.95, "retryMessage": ""}
-            3. Ambiguous Response: • Response: "I don't know", "Thinking" {"matched": false, "category": null, "confidence": 0.1, "retryMessage": "I didn't quite catch that. Could you please choose one of these options: yes, no, sometimes, I don't take medication, or I don't have access to my medication?"}
-            """,
-                question.getText(),
-                categoriesStr,
-                userResponse
-        );
-    }
-
-    private String invokeBedrockModel(String prompt) throws Exception {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("anthropic_version", "bedrock-2023-05-31");
-        requestBody.put("max_tokens", maxTokens);
-        requestBody.put("temperature", temperature);
-        requestBody.put("messages", List.of(
-                Map.of("role", "user", "content", prompt)
-        ));
-
-        String requestJson = objectMapper.writeValueAsString(requestBody);
+    private ClassificationResult classifyCascade(CompiledQuestion question, String prompt, TurnDeadline deadline)
+            throws Exception {
+        if (fastModelId == null || fastModelId.isBlank()) {
+            return classifyWithModel(TIER_STRONG, modelId, prompt, deadline);
+        }
 
-        InvokeModelRequest request = InvokeModelRequest.builder()
-                .modelId(modelId)
-                .body(SdkBytes.fromUtf8String(requestJson))
-                .build();
+        String escalationReason;
+        try {
+            ClassificationResult fastResult = classifyWithModel(TIER_FAST, fastModelId, prompt, deadline);
+            if (fastResult.isValid(confidenceThreshold)) {
+                tagTier(TIER_FAST);
+                return fastResult;
+            }
+            escalationReason = fastResult.isMatched() ? "low_confidence" : "unmatched";
+        } catch (DeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Fast-tier classification failed for Q{}: {}", question.getId(), e.getMessage());
+            escalationReason = "error";
+        }
+
+        log.debug("Escalating Q{} to {} ({})", question.getId(), modelId, escalationReason);
+        metricsService.incrementClassificationEscalation(escalationReason);
+        return classifyWithModel(TIER_STRONG, modelId, prompt, deadline);
+    }
+
+    private ClassificationResult classifyWithModel(String tier, String tierModelId, String prompt,
+                                                   TurnDeadline deadline) throws Exception {
+        long startNanos = System.nanoTime();
+        try {
+            ClassificationResult result = invokeBedrockModel(tierModelId, prompt, deadline);
+            tagTier(tier);
+            return result;
+        } finally {
+            metricsService.recordClassificationTierLatency(tier, System.nanoTime() - startNanos);
+        }
+    }
 
-        log.debug("Invoking Bedrock model: {}", modelId);
-        InvokeModelResponse response = bedrockClient.invokeModel(request);
+    private void tagTier(String tier) {
+        Observation observation = observationRegistry.getCurrentObservation();
+        if (observation != null) {
+            observation.lowCardinalityKeyValue("classification.tier", tier);
+        }
+    }
 
-        String responseBody = response.body().asUtf8String();
-        log.debug("Bedrock response: {}", responseBody);
+    String buildClassificationPrompt(Question question, String userResponse) {
+        return ClassificationPrompt.render(ClassificationPrompt.prefix(question), userResponse);
+    }
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> responseMap = objectMapper.readValue(responseBody, Map.class);
+    private ClassificationResult invokeBedrockModel(String tierModelId, String prompt, TurnDeadline deadline)
+            throws Exception {
+        deadline.check("classification");
 
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> content = (List<Map<String, Object>>) responseMap.get("content");
+        MessagesRequest requestBody = new MessagesRequest(
+                MessagesRequest.ANTHROPIC_VERSION,
+                maxTokens,
+                temperature,
+                List.of(MessagesRequest.Message.user(prompt)),
+                ClassificationPrompt.TOOLS,
+                ClassificationPrompt.TOOL_CHOICE);
+
+        InvokeModelRequest request = InvokeModelRequest.builder()
+                .modelId(tierModelId)
+                .body(SdkBytes.fromByteArrayUnsafe(objectMapper.writeValueAsBytes(requestBody)))
+                .build();
 
-        if (content == null || content.isEmpty()) {
-            throw new ServiceUnavailableException("Bedrock",
-                    new RuntimeException("Empty response from model"));
+        log.debug("Invoking Bedrock model: {}", tierModelId);
+        InvokeModelResponse response;
+        try {
+            response = hedgedRequestExecutor.execute(
+                    () -> bedrockClient.invokeModel(withDeadline(request, deadline)),
+                    () -> bedrockClient.invokeModel(withDeadline(hedgeRequest(request), deadline)),
+                    this::recordLoserUsage);
+        } catch (ApiCallTimeoutException e) {
+            deadline.check("classification");
+            throw e;
+        }
+
+        byte[] responseBody = response.body().asByteArrayUnsafe();
+        if (log.isDebugEnabled()) {
+            log.debug("Bedrock response: {}", response.body().asUtf8String());
         }
 
-        return (String) content.get(0).get("text");
+        MessagesResponse envelope = objectMapper.readValue(responseBody, MessagesResponse.class);
+        recordTokenUsage(envelope.usage());
+        return classification(envelope);
     }
 
-    private ClassificationResult parseClassificationResult(String response)
-            throws JsonProcessingException {
-        String cleanJson = extractJson(response);
-        return objectMapper.readValue(cleanJson, ClassificationResult.class);
+    /**
+     * Bounds the call by the time left in the turn when it is sent; the SDK
+     * aborts the request when that runs out.
+     */
+    private InvokeModelRequest withDeadline(InvokeModelRequest request, TurnDeadline deadline) {
+        if (!deadline.isBounded()) {
+            return request;
+        }
+        deadline.check("classification");
+        Duration timeout = deadline.remaining(Duration.ofSeconds(apiTimeoutSeconds));
+        return request.toBuilder()
+                .overrideConfiguration(override -> override.apiCallTimeout(timeout))
+                .build();
     }
 
-    private String extractJson(String response) {
-        String cleaned = response.trim();
+    private InvokeModelRequest hedgeRequest(InvokeModelRequest request) {
+        if (hedgeModelId == null || hedgeModelId.isBlank() || !modelId.equals(request.modelId())) {
+            return request;
+        }
+        return request.toBuilder().modelId(hedgeModelId).build();
+    }
+
+    /**
+     * Bills the tokens to the open {@link UsageMeter} and tags them on the observation.
+     */
+    private void recordTokenUsage(MessagesResponse.Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        billTokens(usage);
 
-        if (cleaned.startsWith("```json")) {
-            cleaned = cleaned.substring(7);
-        } else if (cleaned.startsWith("```")) {
-            cleaned = cleaned.substring(3);
+        Observation observation = observationRegistry.getCurrentObservation();
+        if (observation != null) {
+            observation.highCardinalityKeyValue("bedrock.tokens.input", String.valueOf(usage.inputTokens()));
+            observation.highCardinalityKeyValue("bedrock.tokens.output", String.valueOf(usage.outputTokens()));
         }
+    }
 
-        if (cleaned.endsWith("```")) {
-            cleaned = cleaned.substring(0, cleaned.length() - 3);
+    /**
+     * Bills a hedged call's losing response, which was paid for all the same.
+     */
+    private void recordLoserUsage(InvokeModelResponse response) {
+        try {
+            MessagesResponse.Usage usage = objectMapper.readValue(
+                    response.body().asByteArrayUnsafe(), MessagesResponse.class).usage();
+            if (usage != null) {
+                billTokens(usage);
+            }
+        } catch (IOException e) {
+            log.debug("Unreadable losing hedge response: {}", e.getMessage());
         }
+    }
 
-        int start = cleaned.indexOf('{');
-        int end = cleaned.lastIndexOf('}');
+    private static void billTokens(MessagesResponse.Usage usage) {
+        UsageMeter.record(meter -> meter.addBedrockTokens(usage.inputTokens(), usage.outputTokens(),
+                usage.cacheReadInputTokens(), usage.cacheCreationInputTokens()));
+    }
+
+    /**
+     * Classification from a raw Messages API response body.
+     */
+    ClassificationResult parseClassificationResult(byte[] responseBody) throws IOException {
+        return classification(objectMapper.readValue(responseBody, MessagesResponse.class));
+    }
 
-        if (start >= 0 && end > start) {
-            return cleaned.substring(start, end + 1).trim();
+    private static ClassificationResult classification(MessagesResponse envelope) {
+        ClassificationResult result = envelope.toolInput(ClassificationPrompt.TOOL_NAME);
+        if (result == null) {
+            throw new ServiceUnavailableException("Bedrock", new RuntimeException(
+                    "No " + ClassificationPrompt.TOOL_NAME + " call in model response (stop_reason="
+                            + envelope.stopReason() + ")"));
         }
+        return result;
+    }
+
+    /**
+     * Compiled questions are immutable snapshots, so identity is the right equality.
+     */
+    private record ClassificationKey(CompiledQuestion question, String transcript) {
+    }
 
-        return cleaned.trim();
+    /**
+     * A shared classification and the Bedrock usage it cost.
+     */
+    private record Classified(ClassificationResult result, AwsUsage usage) {
     }
-}
\ No newline at end of file
+}
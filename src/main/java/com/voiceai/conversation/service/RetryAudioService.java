@@ -0,0 +1,170 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.AudioOutputFormat;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-synthesizes retry prompts while the turn response travels back to the
+ * client.
+ *
+ * <p>{@link #prepare} starts Polly synthesis (in the format the session last
+ * fetched question audio in) in the background and returns a
+ * short-lived random token; the token and the text are stored on the session,
+ * and the audio endpoint only accepts that token. {@link #getAudio} waits for
+ * the pending result (bounded) and falls back to synthesizing the stored
+ * text if the result is missing, e.g. the request landed on another node,
+ * the token expired or the background queue was full.
+ */
+@Slf4j
+@Service
+public class RetryAudioService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final TextToSpeechService textToSpeechService;
+    private final MetricsService metricsService;
+    private final ObservationRegistry observationRegistry;
+    private final long tokenTtlMillis;
+    private final long waitTimeoutMillis;
+    private final int maxPending;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    public RetryAudioService(
+            TextToSpeechService textToSpeechService,
+            MetricsService metricsService,
+            ObservationRegistry observationRegistry,
+            @Value("${questionnaire.retry-audio.token-ttl-seconds:120}") long tokenTtlSeconds,
+            @Value("${questionnaire.retry-audio.wait-timeout-millis:5000}") long waitTimeoutMillis,
+            @Value("${questionnaire.retry-audio.max-pending:1000}") int maxPending,
+            @Value("${questionnaire.retry-audio.synthesis-threads:4}") int synthesisThreads) {
+        this.textToSpeechService = textToSpeechService;
+        this.metricsService = metricsService;
+        this.observationRegistry = observationRegistry;
+        this.tokenTtlMillis = TimeUnit.SECONDS.toMillis(tokenTtlSeconds);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.maxPending = maxPending;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(synthesisThreads, synthesisThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxPending), runnable -> {
+                    Thread thread = new Thread(runnable, "retry-audio-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public long getTokenTtlMillis() {
+        return tokenTtlMillis;
+    }
+
+    /**
+     * Starts synthesizing {@code text} and returns the token to fetch it with.
+     * If too much is already pending, or the turn's {@code deadline} has
+     * passed (its client may never ask for the audio), synthesis is left to
+     * the audio request.
+     */
+    public String prepare(String text, AudioOutputFormat format, TurnDeadline deadline) {
+        String token = newToken();
+        if (pending.size() >= maxPending || deadline.isExpired()) {
+            return token;
+        }
+
+        Observation parent = observationRegistry.getCurrentObservation();
+        try {
+            CompletableFuture<byte[]> audio = CompletableFuture.supplyAsync(() -> {
+                if (parent == null) {
+                    return textToSpeechService.synthesizeSpeech(text, format);
+                }
+                try (Observation.Scope ignored = parent.openScope()) {
+                    return textToSpeechService.synthesizeSpeech(text, format);
+                }
+            }, executor);
+            pending.put(token, new Pending(audio, format, System.currentTimeMillis() + tokenTtlMillis));
+            // Billed to the turn that asked for it; the synthesis runs without a meter
+            UsageMeter.record(usage -> usage.addPollyCharacters(text.length()));
+        } catch (RejectedExecutionException e) {
+            log.debug("Retry audio queue full; synthesizing on request");
+        }
+        return token;
+    }
+
+    /**
+     * Audio for a token issued by {@link #prepare}; {@code text} is the
+     * server-side retry message stored with the token. A pending result in
+     * another format is not converted, the text is synthesized again. Waits
+     * are bounded by the request's {@code deadline}.
+     */
+    public byte[] getAudio(String token, String text, AudioOutputFormat format, TurnDeadline deadline) {
+        Pending entry = pending.get(token);
+        if (entry != null && entry.format == format) {
+            long waitMillis = deadline.remaining(Duration.ofMillis(waitTimeoutMillis)).toMillis();
+            try {
+                byte[] audio = entry.audio.get(waitMillis, TimeUnit.MILLISECONDS);
+                metricsService.incrementRetryAudio("presynthesized");
+                return audio;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (TimeoutException e) {
+                log.warn("Retry audio not ready after {}ms; synthesizing again", waitMillis);
+            } catch (Exception e) {
+                log.warn("Background retry synthesis failed: {}", e.getMessage());
+            }
+            pending.remove(token, entry);
+        }
+
+        metricsService.incrementRetryAudio("on_demand");
+        return textToSpeechService.synthesizeSpeech(text, format, deadline);
+    }
+
+    /**
+     * Drops the result of a token that has been replaced before it was fetched.
+     */
+    public void discard(String token) {
+        if (token != null) {
+            Pending entry = pending.remove(token);
+            if (entry != null) {
+                entry.audio.cancel(false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${questionnaire.retry-audio.sweep-interval-millis:10000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        pending.entrySet().removeIf(entry -> entry.getValue().expiresAt < now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private record Pending(CompletableFuture<byte[]> audio, AudioOutputFormat format, long expiresAt) {
+    }
+}
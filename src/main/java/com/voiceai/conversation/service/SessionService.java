@@ -3,49 +3,62 @@ package com.voiceai.conversation.service;
 
 import com.voiceai.conversation.config.exception.SessionNotFoundException;
 import com.voiceai.conversation.model.Session;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.UUID;
 
 /**
- * Service for managing questionnaire sessions in Redis.
- * Provides session lifecycle management with TTL support.
+ * Service for managing questionnaire sessions.
+ * Provides session lifecycle management with TTL support on top of the
+ * configured {@link SessionStore}.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SessionService {
 
-    private static final String SESSION_KEY_PREFIX = "questionnaire:session:";
-
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final SessionStore sessionStore;
+    private final ObservationRegistry observationRegistry;
 
     @Value("${session.timeout-minutes:30}")
     private long sessionTimeoutMinutes;
 
-    public String createSession() {
+    public String createSession(String questionnaireId, int questionnaireVersion) {
         String sessionId = UUID.randomUUID().toString();
-        Session session = new Session(sessionId);
+        Session session = new Session(sessionId, questionnaireId, questionnaireVersion);
 
-        String key = buildKey(sessionId);
-        redisTemplate.opsForValue().set(
-                key,
-                session,
-                Duration.ofMinutes(sessionTimeoutMinutes)
-        );
+        sessionStore.save(session, Duration.ofMinutes(sessionTimeoutMinutes));
 
-        log.info("Created session: {} with TTL: {} minutes", sessionId, sessionTimeoutMinutes);
+        log.info("Created session: {} ({} v{}) with TTL: {} minutes",
+                sessionId, questionnaireId, questionnaireVersion, sessionTimeoutMinutes);
         return sessionId;
     }
 
     public Session getSession(String sessionId) {
-        String key = buildKey(sessionId);
-        Session session = (Session) redisTemplate.opsForValue().get(key);
+        Session session = observation("get", sessionId)
+                .observe(() -> sessionStore.find(sessionId));
+
+        if (session == null) {
+            log.warn("Session not found or expired: {}", sessionId);
+            throw new SessionNotFoundException(sessionId);
+        }
+
+        return session;
+    }
+
+    /**
+     * Session for read-only endpoints; may lag recent saves when replica
+     * reads are enabled.
+     */
+    public Session getSessionForRead(String sessionId) {
+        Session session = observation("get-replica", sessionId)
+                .observe(() -> sessionStore.findForRead(sessionId));
 
         if (session == null) {
             log.warn("Session not found or expired: {}", sessionId);
@@ -56,21 +69,17 @@ public class SessionService {
     }
 
     public void saveSession(Session session) {
-        String key = buildKey(session.getSessionId());
-        redisTemplate.opsForValue().set(
-                key,
-                session,
-                Duration.ofMinutes(sessionTimeoutMinutes)
+        observation("save", session.getSessionId()).observe(() ->
+                sessionStore.save(session, Duration.ofMinutes(sessionTimeoutMinutes))
         );
 
         log.debug("Saved session: {}", session.getSessionId());
     }
 
     public void deleteSession(String sessionId) {
-        String key = buildKey(sessionId);
-        Boolean deleted = redisTemplate.delete(key);
+        boolean deleted = sessionStore.delete(sessionId);
 
-        if (Boolean.TRUE.equals(deleted)) {
+        if (deleted) {
             log.info("Deleted session: {}", sessionId);
         } else {
             log.warn("Failed to delete session (may not exist): {}", sessionId);
@@ -78,17 +87,19 @@ public class SessionService {
     }
 
     public boolean sessionExists(String sessionId) {
-        String key = buildKey(sessionId);
-        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+        return sessionStore.exists(sessionId);
     }
 
     public void extendSession(String sessionId) {
-        String key = buildKey(sessionId);
-        redisTemplate.expire(key, Duration.ofMinutes(sessionTimeoutMinutes));
+        sessionStore.expire(sessionId, Duration.ofMinutes(sessionTimeoutMinutes));
         log.debug("Extended session TTL: {}", sessionId);
     }
 
-    private String buildKey(String sessionId) {
-        return SESSION_KEY_PREFIX + sessionId;
+    private Observation observation(String operation, String sessionId) {
+        return Observation.createNotStarted("questionnaire.session", observationRegistry)
+                .contextualName("session-" + operation)
+                .lowCardinalityKeyValue("session.operation", operation)
+                .lowCardinalityKeyValue("session.store", sessionStore.name())
+                .highCardinalityKeyValue("session.id", sessionId);
     }
-}
\ No newline at end of file
+}
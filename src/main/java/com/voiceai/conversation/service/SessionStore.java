@@ -0,0 +1,46 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.Session;
+
+import java.time.Duration;
+
+/**
+ * Storage backend for questionnaire sessions.
+ * Selected with {@code session.store} ({@code redis}, {@code memory} or {@code token}).
+ */
+public interface SessionStore {
+
+    /**
+     * Stores the session, replacing any previous state and resetting its TTL.
+     */
+    void save(Session session, Duration ttl);
+
+    /**
+     * Returns the session, or {@code null} if it does not exist or has expired.
+     */
+    Session find(String sessionId);
+
+    /**
+     * Like {@link #find}, for read-only requests: the result may come from a
+     * replica and miss the most recent saves.
+     */
+    default Session findForRead(String sessionId) {
+        return find(sessionId);
+    }
+
+    boolean delete(String sessionId);
+
+    boolean exists(String sessionId);
+
+    void expire(String sessionId, Duration ttl);
+
+    /**
+     * Backend name reported by health checks.
+     */
+    String name();
+
+    /**
+     * Verifies the backend is reachable; throws if it is not.
+     */
+    void ping();
+}
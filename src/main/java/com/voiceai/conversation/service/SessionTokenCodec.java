@@ -0,0 +1,277 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.AudioOutputFormat;
+import com.voiceai.conversation.model.AwsUsage;
+import com.voiceai.conversation.model.Session;
+import com.voiceai.conversation.model.UserResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes a {@link Session} into a compact client-held token and back.
+ *
+ * <p>The payload is a fixed binary layout (no field names, no type
+ * information) holding only what the questionnaire needs to continue:
+ * position, retry state, revision, expiry, the classified answers and the
+ * per-question AWS usage.
+ * Transcripts stay server-side in the logs and are not carried. Tokens are
+ * either signed ({@code s1.<payload>.<HMAC-SHA256, 128 bits>}) or, when
+ * {@code session.token.encryption-key} is set, encrypted and authenticated
+ * with AES-GCM ({@code e1.<iv + ciphertext>}). Any token that fails
+ * verification is rejected with {@link IllegalArgumentException}.
+ */
+@Slf4j
+@Component
+public class SessionTokenCodec {
+
+    private static final byte FORMAT_VERSION = 3;
+    private static final String SIGNED_PREFIX = "s1.";
+    private static final String ENCRYPTED_PREFIX = "e1.";
+    private static final int MAC_BYTES = 16;
+    private static final int IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final Session.SessionStatus[] STATUSES = Session.SessionStatus.values();
+    private static final AudioOutputFormat[] FORMATS = AudioOutputFormat.values();
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec signingKey;
+    private final SecretKeySpec encryptionKey;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public SessionTokenCodec(
+            @Value("${session.token.signing-key:}") String signingKey,
+            @Value("${session.token.encryption-key:}") String encryptionKey) {
+        this(signingKeyBytes(signingKey), encryptionKey.isBlank() ? null : Base64.getDecoder().decode(encryptionKey.trim()));
+    }
+
+    /**
+     * @param encryptionKey 16 or 32 byte AES key, or {@code null} to sign only
+     */
+    public SessionTokenCodec(byte[] signingKey, byte[] encryptionKey) {
+        this.signingKey = new SecretKeySpec(signingKey, "HmacSHA256");
+        this.encryptionKey = encryptionKey == null ? null : new SecretKeySpec(encryptionKey, "AES");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(this.signingKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        });
+    }
+
+    public boolean isEncrypting() {
+        return encryptionKey != null;
+    }
+
+    public String encode(Session session, Instant expiresAt) {
+        byte[] payload = writePayload(session, expiresAt);
+        try {
+            if (encryptionKey != null) {
+                byte[] iv = new byte[IV_BYTES];
+                random.nextBytes(iv);
+                Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+                byte[] sealed = Arrays.copyOf(iv, IV_BYTES + cipher.getOutputSize(payload.length));
+                cipher.doFinal(payload, 0, payload.length, sealed, IV_BYTES);
+                return ENCRYPTED_PREFIX + ENCODER.encodeToString(sealed);
+            }
+            String body = ENCODER.encodeToString(payload);
+            return SIGNED_PREFIX + body + "." + ENCODER.encodeToString(sign(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to seal session token", e);
+        }
+    }
+
+    /**
+     * Verifies and decodes a token. Expiry is returned, not checked.
+     */
+    public Decoded decode(String token) {
+        try {
+            byte[] payload;
+            if (token.startsWith(ENCRYPTED_PREFIX) && encryptionKey != null) {
+                byte[] sealed = DECODER.decode(token.substring(ENCRYPTED_PREFIX.length()));
+                if (sealed.length <= IV_BYTES) {
+                    throw new IllegalArgumentException("Truncated session token");
+                }
+                Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, IV_BYTES));
+                payload = cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+            } else if (token.startsWith(SIGNED_PREFIX) && encryptionKey == null) {
+                int separator = token.lastIndexOf('.');
+                String body = token.substring(SIGNED_PREFIX.length(), separator);
+                byte[] signature = DECODER.decode(token.substring(separator + 1));
+                if (!MessageDigest.isEqual(sign(body), signature)) {
+                    throw new IllegalArgumentException("Session token signature mismatch");
+                }
+                payload = DECODER.decode(body);
+            } else {
+                throw new IllegalArgumentException("Unsupported session token format");
+            }
+            return readPayload(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Session token failed verification", e);
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof IllegalArgumentException illegal) {
+                throw illegal;
+            }
+            throw new IllegalArgumentException("Malformed session token", e);
+        }
+    }
+
+    private byte[] sign(String body) {
+        Mac mac = macs.get();
+        return Arrays.copyOf(mac.doFinal(body.getBytes(StandardCharsets.US_ASCII)), MAC_BYTES);
+    }
+
+    private static byte[] writePayload(Session session, Instant expiresAt) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(192);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(session.getSessionId());
+            writeNullable(out, session.getQuestionnaireId());
+            out.writeInt(session.getQuestionnaireVersion());
+            out.writeShort(session.getCurrentQuestionIndex());
+            out.writeShort(session.getRetryCount());
+            out.writeShort(session.getTurnCount());
+            out.writeBoolean(session.isHasMaxRetriesExceeded());
+            out.writeLong(session.getRevision());
+            out.writeByte(session.getStatus().ordinal());
+            out.writeLong(session.getCreatedAt().toEpochMilli());
+            out.writeLong(session.getLastModifiedAt().toEpochMilli());
+            out.writeLong(expiresAt.toEpochMilli());
+            out.writeByte(session.getAudioFormat() == null ? -1 : session.getAudioFormat().ordinal());
+
+            writeNullable(out, session.getRetryAudioToken());
+            if (session.getRetryAudioToken() != null) {
+                writeNullable(out, session.getRetryAudioText());
+                out.writeLong(session.getRetryAudioExpiresAt().toEpochMilli());
+            }
+
+            out.writeShort(session.getResponses().size());
+            for (UserResponse response : session.getResponses().values()) {
+                out.writeInt(response.getQuestionId());
+                writeNullable(out, response.getClassifiedCategory());
+                out.writeFloat((float) response.getConfidence());
+                out.writeLong(response.getRecordedAt() == null ? 0 : response.getRecordedAt().toEpochMilli());
+            }
+
+            Map<Integer, AwsUsage> usageByQuestion = session.getUsageByQuestion() == null
+                    ? Map.of() : session.getUsageByQuestion();
+            out.writeShort(usageByQuestion.size());
+            for (Map.Entry<Integer, AwsUsage> entry : usageByQuestion.entrySet()) {
+                AwsUsage usage = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeInt((int) usage.getBedrockInputTokens());
+                out.writeInt((int) usage.getBedrockOutputTokens());
+                out.writeInt((int) usage.getBedrockCacheReadTokens());
+                out.writeInt((int) usage.getBedrockCacheWriteTokens());
+                out.writeInt((int) usage.getTranscribeMillis());
+                out.writeInt((int) usage.getPollyCharacters());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode session", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Decoded readPayload(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (in.readByte() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported session token version");
+        }
+
+        Session session = new Session(in.readUTF(), readNullable(in), in.readInt());
+        session.setCurrentQuestionIndex(in.readShort());
+        session.setRetryCount(in.readShort());
+        session.setTurnCount(in.readShort());
+        session.setHasMaxRetriesExceeded(in.readBoolean());
+        session.setRevision(in.readLong());
+        session.setStatus(STATUSES[in.readByte()]);
+        session.setCreatedAt(Instant.ofEpochMilli(in.readLong()));
+        session.setLastModifiedAt(Instant.ofEpochMilli(in.readLong()));
+        Instant expiresAt = Instant.ofEpochMilli(in.readLong());
+        byte format = in.readByte();
+        session.setAudioFormat(format < 0 ? null : FORMATS[format]);
+
+        String retryAudioToken = readNullable(in);
+        if (retryAudioToken != null) {
+            session.setRetryAudio(retryAudioToken, readNullable(in), Instant.ofEpochMilli(in.readLong()));
+        }
+
+        int count = in.readShort();
+        Map<Integer, UserResponse> responses = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int questionId = in.readInt();
+            String category = readNullable(in);
+            double confidence = in.readFloat();
+            long recordedAt = in.readLong();
+            responses.put(questionId, new UserResponse(questionId, null, category, confidence,
+                    recordedAt == 0 ? null : Instant.ofEpochMilli(recordedAt)));
+        }
+        session.setResponses(responses);
+        session.setTranscriptHistory(new ArrayList<>());
+
+        int usageCount = in.readShort();
+        Map<Integer, AwsUsage> usageByQuestion = new HashMap<>(usageCount * 2);
+        for (int i = 0; i < usageCount; i++) {
+            usageByQuestion.put(in.readInt(), new AwsUsage(in.readInt(), in.readInt(), in.readInt(),
+                    in.readInt(), in.readInt(), in.readInt()));
+        }
+        session.setUsageByQuestion(usageByQuestion);
+
+        return new Decoded(session, expiresAt);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] signingKeyBytes(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return Base64.getDecoder().decode(configured.trim());
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        log.warn("session.token.signing-key is not set; using a random key, so session tokens "
+                + "will not survive a restart or be accepted by other instances");
+        return key;
+    }
+
+    public record Decoded(Session session, Instant expiresAt) {
+    }
+}
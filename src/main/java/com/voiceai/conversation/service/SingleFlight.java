@@ -0,0 +1,112 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one.
+ *
+ * <p>The first caller for a key (the leader) runs the call on its own
+ * thread; callers arriving while it runs wait for the leader's outcome
+ * instead of starting their own. Failures reach every waiting caller
+ * unchanged. If the leader was interrupted or cancelled, that says nothing
+ * about the call itself, so waiting callers start again and one of them
+ * becomes the new leader. A waiting caller that is interrupted, or whose
+ * own {@link TurnDeadline} passes, stops waiting without affecting the
+ * leader. Nothing is cached: once the leader finishes, the next call for the
+ * key runs again.
+ */
+public final class SingleFlight<K, V> {
+
+    private static final Duration MAX_WAIT = Duration.ofNanos(Long.MAX_VALUE);
+
+    private final Runnable onCoalesced;
+    private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * @param onCoalesced run for every caller that joins an in-flight call
+     */
+    public SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        return execute(key, TurnDeadline.none(), null, call);
+    }
+
+    /**
+     * As {@link #execute(Object, Supplier)}, but a caller that joins an
+     * in-flight call waits for it no longer than {@code deadline} allows.
+     *
+     * @throws DeadlineExceededException for {@code stage} if the deadline
+     *                                   passes while waiting
+     */
+    public V execute(K key, TurnDeadline deadline, String stage, Supplier<V> call) {
+        while (true) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> leader = calls.putIfAbsent(key, mine);
+            if (leader == null) {
+                return lead(key, mine, call);
+            }
+
+            onCoalesced.run();
+            try {
+                if (!deadline.isBounded()) {
+                    return leader.get();
+                }
+                return leader.get(deadline.remaining(MAX_WAIT).toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new DeadlineExceededException(stage);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted waiting for an in-flight call");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof LeaderAbandoned) {
+                    continue;
+                }
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> mine, Supplier<V> call) {
+        // Unregister before completing, so a caller retrying after an
+        // abandoned leader never finds the finished call again
+        try {
+            V value = call.get();
+            calls.remove(key, mine);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, mine);
+            boolean abandoned = e instanceof CancellationException || Thread.currentThread().isInterrupted();
+            mine.completeExceptionally(abandoned ? new LeaderAbandoned() : e);
+            throw e;
+        }
+    }
+
+    /**
+     * Tells waiting callers to retry rather than share the leader's failure.
+     */
+    private static final class LeaderAbandoned extends RuntimeException {
+        LeaderAbandoned() {
+            super(null, null, false, false);
+        }
+    }
+}
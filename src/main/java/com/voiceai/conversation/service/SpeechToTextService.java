@@ -1,8 +1,17 @@
 package com.voiceai.conversation.service;
 
 
+import com.voiceai.conversation.config.ResilienceConfiguration;
+import com.voiceai.conversation.config.exception.AudioUploadException;
+import com.voiceai.conversation.config.exception.DeadlineExceededException;
+import com.voiceai.conversation.config.exception.InvalidAudioException;
 import com.voiceai.conversation.config.exception.ServiceUnavailableException;
 import com.voiceai.conversation.config.exception.TranscriptionException;
+import com.voiceai.conversation.model.AudioMetadata;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Subscriber;
@@ -13,13 +22,19 @@ import software.amazon.awssdk.core.async.SdkPublisher;
 import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
 import software.amazon.awssdk.services.transcribestreaming.model.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for speech-to-text transcription using Amazon Transcribe Streaming.
+ * The audio duration of each transcription is billed to the open {@link UsageMeter}.
  */
 @Slf4j
 @Service
@@ -27,50 +42,143 @@ import java.util.concurrent.TimeoutException;
 public class SpeechToTextService {
 
     private static final int CHUNK_SIZE = 3200;
-    private static final int TRANSCRIPTION_TIMEOUT_SECONDS = 60;
+    private static final int WAV_HEADER_BYTES = 44;
+    private static final Duration TRANSCRIPTION_TIMEOUT = Duration.ofSeconds(60);
 
     private final TranscribeStreamingAsyncClient transcribeClient;
     private final MetricsService metricsService;
+    private final ObservationRegistry observationRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
 
-    public String transcribeAudio(byte[] audioData) {
+    public String transcribeAudio(byte[] audioData, AudioMetadata metadata, TurnDeadline deadline) {
         if (audioData == null || audioData.length == 0) {
             throw new IllegalArgumentException("Audio data cannot be empty");
         }
 
-        log.info("Starting transcription for {} bytes", audioData.length);
+        Observation observation = Observation.createNotStarted("questionnaire.stt", observationRegistry)
+                .contextualName("transcribe-audio")
+                .lowCardinalityKeyValue("audio.format", metadata.getFormat().name())
+                .highCardinalityKeyValue("audio.bytes", String.valueOf(audioData.length));
+
+        return observation.observe(() -> {
+            String transcript = transcribe(audioData, metadata, deadline);
+            observation.highCardinalityKeyValue("transcript.length", String.valueOf(transcript.length()));
+            return transcript;
+        });
+    }
+
+    /**
+     * Transcribes audio read incrementally from {@code audioStream}; the clip
+     * is never held on the heap as a whole.
+     */
+    public String transcribeAudio(InputStream audioStream, AudioMetadata metadata, TurnDeadline deadline) {
+        Observation observation = Observation.createNotStarted("questionnaire.stt", observationRegistry)
+                .contextualName("transcribe-audio-stream")
+                .lowCardinalityKeyValue("audio.format", metadata.getFormat().name());
+
+        return observation.observe(() -> {
+            InputStreamAudioPublisher audioPublisher = new InputStreamAudioPublisher();
+            long[] streamedBytes = new long[1];
+
+            log.debug("Starting streaming transcription ({})", metadata);
+            String transcript = transcribe(audioPublisher, metadata, deadline, (resultFuture, deadlineNanos) -> {
+                try {
+                    streamedBytes[0] = audioPublisher.pump(audioStream, CHUNK_SIZE, resultFuture, deadlineNanos);
+                } catch (IOException e) {
+                    // Reading the request body failed: the client went away or sent a truncated body
+                    throw new AudioUploadException(e);
+                }
+                return streamedBytes[0];
+            });
+
+            observation.highCardinalityKeyValue("audio.bytes", String.valueOf(streamedBytes[0]));
+            observation.highCardinalityKeyValue("transcript.length", String.valueOf(transcript.length()));
+            return transcript;
+        });
+    }
+
+    private String transcribe(byte[] audioData, AudioMetadata metadata, TurnDeadline deadline) {
+        log.debug("Starting transcription for {} bytes ({})", audioData.length, metadata);
+        return transcribe(createAudioPublisher(audioData), metadata, deadline,
+                (resultFuture, deadlineNanos) -> audioData.length);
+    }
+
+    /**
+     * Fails fast while the Transcribe circuit breaker is open; the caller
+     * answers with the fixed retry prompt.
+     */
+    private String transcribe(SdkPublisher<AudioStream> audioPublisher, AudioMetadata metadata,
+                              TurnDeadline deadline, AudioFeeder feeder) {
+        deadline.check("transcription");
+        try {
+            return circuitBreakerRegistry.circuitBreaker(ResilienceConfiguration.TRANSCRIBE)
+                    .executeSupplier(() -> startTranscription(audioPublisher, metadata, deadline, feeder));
+        } catch (CallNotPermittedException e) {
+            metricsService.incrementSttError();
+            log.warn("Transcribe circuit breaker is open; rejecting transcription");
+            throw new ServiceUnavailableException("Speech-to-Text", e);
+        }
+    }
+
+    /**
+     * Waits at most the turn's remaining time (or the transcription timeout);
+     * on timeout the stream is cancelled so Transcribe stops processing it.
+     */
+    private String startTranscription(SdkPublisher<AudioStream> audioPublisher, AudioMetadata metadata,
+                                      TurnDeadline deadline, AudioFeeder feeder) {
         long startTime = System.currentTimeMillis();
+        Duration timeout = deadline.remaining(TRANSCRIPTION_TIMEOUT);
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
 
         StringBuilder transcriptBuilder = new StringBuilder();
+        AtomicLong audioEndMillis = new AtomicLong();
         CompletableFuture<Void> resultFuture = new CompletableFuture<>();
+        CompletableFuture<Void> stream = null;
 
         try {
             StartStreamTranscriptionRequest request = StartStreamTranscriptionRequest.builder()
                     .languageCode(LanguageCode.EN_US)
-                    .mediaEncoding(MediaEncoding.PCM)
-                    .mediaSampleRateHertz(16000)
+                    .mediaEncoding(toMediaEncoding(metadata))
+                    .mediaSampleRateHertz(metadata.getSampleRateHertz())
                     .build();
 
             StartStreamTranscriptionResponseHandler responseHandler =
-                    createResponseHandler(transcriptBuilder, resultFuture);
+                    createResponseHandler(transcriptBuilder, audioEndMillis, resultFuture);
 
-            SdkPublisher<AudioStream> audioPublisher = createAudioPublisher(audioData);
+            stream = transcribeClient.startStreamTranscription(request, audioPublisher, responseHandler);
 
-            transcribeClient.startStreamTranscription(request, audioPublisher, responseHandler);
+            long audioBytes = feeder.feed(resultFuture, deadlineNanos);
 
-            resultFuture.get(TRANSCRIPTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            resultFuture.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
 
             String transcript = transcriptBuilder.toString().trim();
             long duration = System.currentTimeMillis() - startTime;
+            long audioMillis = audioMillis(metadata, audioBytes, audioEndMillis.get());
+            UsageMeter.record(usage -> usage.addTranscribeMillis(audioMillis));
 
             metricsService.recordSttLatency(duration);
             metricsService.incrementSttSuccess();
 
-            log.info("Transcription complete: '{}' ({}ms)", transcript, duration);
+            log.debug("Transcription complete: '{}' ({}ms)", transcript, duration);
             return transcript;
 
+        } catch (InvalidAudioException | AudioUploadException e) {
+            // Rejected or broken off while streaming; a client error, not an STT failure
+            cancel(stream);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(stream);
+            log.debug("Transcription interrupted");
+            throw new CancellationException("Transcription interrupted");
         } catch (TimeoutException e) {
+            cancel(stream);
+            if (deadline.isExpired()) {
+                log.warn("Transcription cancelled at the turn deadline after {}ms", timeout.toMillis());
+                throw new DeadlineExceededException("transcription");
+            }
             metricsService.incrementSttError();
-            log.error("Transcription timeout after {}s", TRANSCRIPTION_TIMEOUT_SECONDS);
+            log.error("Transcription timeout after {}s", timeout.toSeconds());
             throw new TranscriptionException("Transcription timeout", e);
         } catch (Exception e) {
             metricsService.incrementSttError();
@@ -79,8 +187,43 @@ public class SpeechToTextService {
         }
     }
 
+    private static void cancel(CompletableFuture<Void> stream) {
+        if (stream != null) {
+            stream.cancel(true);
+        }
+    }
+
+    /**
+     * Duration of the audio sent; computed from the size for WAV, using the
+     * sample rate, channels and bits per sample of its header, otherwise
+     * (or if the header did not say) the end of the last transcribed segment.
+     */
+    static long audioMillis(AudioMetadata metadata, long audioBytes, long lastResultEndMillis) {
+        long bytesPerSecond = (long) metadata.getSampleRateHertz() * metadata.getChannels()
+                * metadata.getBitsPerSample() / 8;
+        if (metadata.getFormat() == AudioMetadata.AudioFormat.WAV && bytesPerSecond > 0) {
+            return Math.max(0, audioBytes - WAV_HEADER_BYTES) * 1000 / bytesPerSecond;
+        }
+        return lastResultEndMillis;
+    }
+
+    /**
+     * Opus and FLAC are sent to Transcribe as-is; WAV is declared as PCM.
+     */
+    static MediaEncoding toMediaEncoding(AudioMetadata metadata) {
+        switch (metadata.getFormat()) {
+            case OGG_OPUS:
+                return MediaEncoding.OGG_OPUS;
+            case FLAC:
+                return MediaEncoding.FLAC;
+            default:
+                return MediaEncoding.PCM;
+        }
+    }
+
     private StartStreamTranscriptionResponseHandler createResponseHandler(
             StringBuilder transcriptBuilder,
+            AtomicLong audioEndMillis,
             CompletableFuture<Void> resultFuture) {
 
         return StartStreamTranscriptionResponseHandler.builder()
@@ -93,14 +236,17 @@ public class SpeechToTextService {
                     log.debug("Transcription stream completed");
                     resultFuture.complete(null);
                 })
-                .subscriber(event -> handleTranscriptEvent(event, transcriptBuilder))
+                .subscriber(event -> handleTranscriptEvent(event, transcriptBuilder, audioEndMillis))
                 .build();
     }
 
-    private void handleTranscriptEvent(TranscriptResultStream event, StringBuilder builder) {
+    private void handleTranscriptEvent(TranscriptResultStream event, StringBuilder builder, AtomicLong audioEndMillis) {
         if (event instanceof TranscriptEvent) {
             TranscriptEvent transcriptEvent = (TranscriptEvent) event;
             transcriptEvent.transcript().results().forEach(result -> {
+                if (result.endTime() != null) {
+                    audioEndMillis.accumulateAndGet(Math.round(result.endTime() * 1000), Math::max);
+                }
                 if (!result.isPartial()) {
                     result.alternatives().forEach(alternative -> {
                         String text = alternative.transcript();
@@ -114,7 +260,7 @@ public class SpeechToTextService {
         }
     }
 
-    private SdkPublisher<AudioStream> createAudioPublisher(byte[] audioData) {
+    SdkPublisher<AudioStream> createAudioPublisher(byte[] audioData) {
         return new SdkPublisher<AudioStream>() {
             @Override
             public void subscribe(Subscriber<? super AudioStream> subscriber) {
@@ -158,4 +304,13 @@ public class SpeechToTextService {
             }
         };
     }
+
+    /**
+     * Pushes audio into an already started transcription stream, if the
+     * publisher is not self-feeding, and returns the number of bytes sent.
+     */
+    @FunctionalInterface
+    private interface AudioFeeder {
+        long feed(CompletableFuture<Void> resultFuture, long deadlineNanos) throws Exception;
+    }
 }
@@ -1,7 +1,14 @@
 package com.voiceai.conversation.service;
 
 
+import com.voiceai.conversation.config.ResilienceConfiguration;
 import com.voiceai.conversation.config.exception.ServiceUnavailableException;
+import com.voiceai.conversation.model.AudioOutputFormat;
+import com.voiceai.conversation.model.AwsUsage;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,10 +19,20 @@ import software.amazon.awssdk.services.polly.model.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Service for text-to-speech synthesis using Amazon Polly.
- * Includes retry logic and metrics tracking.
+ * Includes retry logic and metrics tracking. Output format and sample rate
+ * follow the {@link AudioOutputFormat} negotiated with the client. The most
+ * recently synthesized question prompts are kept, per format, in a small LRU
+ * cache that is served while Polly is failing or its circuit breaker is open;
+ * one-off text such as retry prompts is never cached, so it cannot evict them.
+ * Concurrent requests for the same prompt and format share one Polly call
+ * ({@link SingleFlight}); a request that joins one waits no longer than its
+ * own {@link TurnDeadline}. Characters sent to Polly are billed to the open
+ * {@link UsageMeter}; callers that shared a call report them as avoided.
  */
 @Slf4j
 @Service
@@ -24,6 +41,8 @@ public class TextToSpeechService {
 
     private final PollyClient pollyClient;
     private final MetricsService metricsService;
+    private final ObservationRegistry observationRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
 
     @Value("${aws.polly.voice-id:Joanna}")
     private String voiceId;
@@ -31,19 +50,113 @@ public class TextToSpeechService {
     @Value("${aws.polly.engine}")
     private String engine;
 
-    public byte[] synthesizeSpeech(String text) {
+    @Value("${aws.polly.fallback-cache-entries:256}")
+    private int fallbackCacheEntries;
+
+    private final SingleFlight<String, byte[]> synthesisCalls =
+            new SingleFlight<>(() -> metricsService.incrementCoalesced("tts"));
+
+    private final Map<String, byte[]> fallbackCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > fallbackCacheEntries;
+        }
+    };
+
+    /**
+     * Synthesizes one-off {@code text}, e.g. a retry prompt. The audio is not
+     * kept for fallback.
+     */
+    public byte[] synthesizeSpeech(String text, AudioOutputFormat format) {
+        return synthesizeSpeech(text, format, TurnDeadline.none());
+    }
+
+    public byte[] synthesizeSpeech(String text, AudioOutputFormat format, TurnDeadline deadline) {
+        return synthesizeSpeech(text, text, format, false, deadline);
+    }
+
+    /**
+     * Synthesizes {@code text} in {@code format}, caching the audio under
+     * {@code cacheKey} (e.g. a question's precomputed audio cache key) for
+     * that format.
+     */
+    public byte[] synthesizeSpeech(String text, String cacheKey, AudioOutputFormat format) {
+        return synthesizeSpeech(text, cacheKey, format, TurnDeadline.none());
+    }
+
+    public byte[] synthesizeSpeech(String text, String cacheKey, AudioOutputFormat format, TurnDeadline deadline) {
+        return synthesizeSpeech(text, cacheKey, format, true, deadline);
+    }
+
+    private byte[] synthesizeSpeech(String text, String cacheKey, AudioOutputFormat format, boolean cacheable,
+                                    TurnDeadline deadline) {
         if (text == null || text.trim().isEmpty()) {
             throw new IllegalArgumentException("Text cannot be empty");
         }
+        deadline.check("synthesis");
+
+        Observation observation = Observation.createNotStarted("questionnaire.tts", observationRegistry)
+                .contextualName("synthesize-speech")
+                .lowCardinalityKeyValue("polly.voice.id", voiceId)
+                .lowCardinalityKeyValue("audio.format", format.name())
+                .highCardinalityKeyValue("text.length", String.valueOf(text.length()));
+
+        return observation.observe(() -> {
+            String formatKey = cacheKey + "|" + format.name();
+            boolean[] led = new boolean[1];
+            byte[] audioData = synthesisCalls.execute(formatKey, deadline, "synthesis", () -> {
+                led[0] = true;
+                return synthesizeWithFallback(text, formatKey, format, cacheable);
+            });
+            if (!led[0]) {
+                AwsUsage avoided = new AwsUsage();
+                avoided.addPollyCharacters(text.length());
+                metricsService.recordAwsUsageAvoided("coalesced", avoided);
+            }
+            observation.highCardinalityKeyValue("audio.bytes", String.valueOf(audioData.length));
+            return audioData;
+        });
+    }
+
+    private byte[] synthesizeWithFallback(String text, String cacheKey, AudioOutputFormat format,
+                                          boolean cacheable) {
+        try {
+            byte[] audioData = circuitBreakerRegistry.circuitBreaker(ResilienceConfiguration.POLLY)
+                    .executeSupplier(() -> synthesize(text, format));
+            if (cacheable) {
+                synchronized (fallbackCache) {
+                    fallbackCache.put(cacheKey, audioData);
+                }
+            }
+            return audioData;
+        } catch (CallNotPermittedException | ServiceUnavailableException e) {
+            byte[] cached = null;
+            if (cacheable) {
+                synchronized (fallbackCache) {
+                    cached = fallbackCache.get(cacheKey);
+                }
+            }
+            if (cached == null) {
+                throw e instanceof ServiceUnavailableException unavailable
+                        ? unavailable
+                        : new ServiceUnavailableException("Text-to-Speech", e);
+            }
+            log.warn("Polly unavailable ({}), serving cached audio", e.getMessage());
+            metricsService.incrementFallback(ResilienceConfiguration.POLLY);
+            return cached;
+        }
+    }
 
-        log.info("Synthesizing speech for text (length: {})", text.length());
+    private byte[] synthesize(String text, AudioOutputFormat format) {
+        log.debug("Synthesizing speech for text (length: {})", text.length());
         long startTime = System.currentTimeMillis();
 
         try {
             SynthesizeSpeechRequest request = SynthesizeSpeechRequest.builder()
                     .text(text)
                     .voiceId(VoiceId.fromValue(voiceId))
-                    .outputFormat(OutputFormat.MP3)
+                    .outputFormat(toOutputFormat(format))
+                    .sampleRate(String.valueOf(format.getSampleRateHertz()))
                     .engine(engine)
                     .build();
 
@@ -51,12 +164,14 @@ public class TextToSpeechService {
                     pollyClient.synthesizeSpeech(request);
 
             byte[] audioData = readInputStream(response);
+            Integer billed = response.response().requestCharacters();
+            UsageMeter.record(usage -> usage.addPollyCharacters(billed != null ? billed : text.length()));
 
             long duration = System.currentTimeMillis() - startTime;
             metricsService.recordTtsLatency(duration);
             metricsService.incrementTtsSuccess();
 
-            log.info("Speech synthesis successful: {} bytes in {}ms", audioData.length, duration);
+            log.debug("Speech synthesis successful: {} bytes in {}ms", audioData.length, duration);
             return audioData;
 
         } catch (PollyException e) {
@@ -70,6 +185,14 @@ public class TextToSpeechService {
         }
     }
 
+    static OutputFormat toOutputFormat(AudioOutputFormat format) {
+        return switch (format) {
+            case MP3, MP3_16K -> OutputFormat.MP3;
+            case OGG_VORBIS -> OutputFormat.OGG_VORBIS;
+            case PCM_8K -> OutputFormat.PCM;
+        };
+    }
+
     private byte[] readInputStream(ResponseInputStream<?> inputStream) throws IOException {
         try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
             byte[] data = new byte[8192];
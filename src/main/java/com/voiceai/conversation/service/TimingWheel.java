@@ -0,0 +1,185 @@
+package com.voiceai.conversation.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for expiring entries without per-entry timers or
+ * full sweeps.
+ *
+ * <p>Four levels of 64 slots each; level {@code n} slots span {@code 64^n}
+ * ticks, so the wheel covers {@code 64^4} ticks (about 194 days at one-second
+ * ticks). Entries are intrusive doubly-linked nodes, making schedule,
+ * reschedule and cancel O(1). When the low level wraps, the matching
+ * higher-level slot is cascaded down. Deadlines beyond the horizon are parked
+ * in the top level and re-cascaded until they fall within range.
+ *
+ * <p>All operations are guarded by the wheel's monitor.
+ */
+public class TimingWheel<N extends TimingWheel.Node> {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final Node[][] buckets = new Node[LEVELS][SLOTS];
+    private long currentTick;
+
+    public TimingWheel(long startTick) {
+        this.currentTick = startTick;
+    }
+
+    public synchronized long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Schedules (or reschedules) a node to expire at the given tick.
+     * Deadlines at or before the current tick expire on the next advance.
+     */
+    public synchronized void schedule(N node, long deadlineTick) {
+        Node entry = node;
+        unlink(entry);
+        entry.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+        insert(entry);
+    }
+
+    public synchronized void cancel(N node) {
+        unlink(node);
+    }
+
+    /**
+     * Advances the wheel to {@code targetTick}, handing every node whose
+     * deadline has passed to {@code onExpire}.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void advanceTo(long targetTick, Consumer<N> onExpire) {
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+
+            int slot = (int) (currentTick & SLOT_MASK);
+            Node node = buckets[0][slot];
+            buckets[0][slot] = null;
+            while (node != null) {
+                Node next = node.next;
+                detach(node);
+                onExpire.accept((N) node);
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the node closest to expiry (within slot granularity),
+     * or {@code null} if the wheel is empty.
+     *
+     * <p>Each level's first occupied slot ahead of the current position is a
+     * candidate; the one whose slot starts earliest wins, since a higher-level
+     * slot can hold deadlines sooner than the last level-0 slots.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized N pollEarliest() {
+        Node earliest = null;
+        long earliestStart = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            long position = currentTick >>> shift;
+            // Offset 0 is the current slot: already expired at level 0, and a
+            // full rotation ahead above it, so it comes last as offset SLOTS
+            for (int offset = 1; offset <= SLOTS; offset++) {
+                Node head = buckets[level][(int) ((position + offset) & SLOT_MASK)];
+                if (head != null) {
+                    long start = (position + offset) << shift;
+                    if (start < earliestStart) {
+                        earliest = head;
+                        earliestStart = start;
+                    }
+                    break;
+                }
+            }
+        }
+        if (earliest != null) {
+            unlink(earliest);
+        }
+        return (N) earliest;
+    }
+
+    private void insert(Node node) {
+        long delta = Math.max(node.deadlineTick - currentTick, 0);
+        long deadline = Math.max(node.deadlineTick, currentTick);
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        if (delta >= (1L << (SLOT_BITS * LEVELS))) {
+            // Beyond the horizon: park at the furthest top-level slot and cascade again later
+            deadline = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+
+        int slot = (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Node head = buckets[level][slot];
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        buckets[level][slot] = node;
+    }
+
+    private void cascade(int level, int slot) {
+        Node node = buckets[level][slot];
+        buckets[level][slot] = null;
+        while (node != null) {
+            Node next = node.next;
+            detach(node);
+            insert(node);
+            node = next;
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.level < 0) {
+            return;
+        }
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        detach(node);
+    }
+
+    private static void detach(Node node) {
+        node.prev = null;
+        node.next = null;
+        node.level = -1;
+    }
+
+    /**
+     * Intrusive list node; subclasses carry the payload.
+     */
+    public abstract static class Node {
+        private Node prev;
+        private Node next;
+        private int level = -1;
+        private int slot;
+        private long deadlineTick;
+
+        public long getDeadlineTick() {
+            return deadlineTick;
+        }
+    }
+}
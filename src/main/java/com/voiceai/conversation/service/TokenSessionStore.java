@@ -0,0 +1,332 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.exception.ServiceUnavailableException;
+import com.voiceai.conversation.config.exception.SessionNotFoundException;
+import com.voiceai.conversation.config.exception.StaleSessionTokenException;
+import com.voiceai.conversation.model.Session;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session store that keeps session state on the client.
+ *
+ * <p>Every save encodes the session into a signed (optionally encrypted)
+ * token returned in the {@value #TOKEN_HEADER} response header; the client
+ * sends the latest token back with its next request. Session state never
+ * travels to Redis, but Redis still sees one round trip per save (the
+ * high-water EVAL below) and one per read on a node that has not cached the
+ * session's mark, against a GET and a SET of the whole session for the Redis
+ * store; {@code SessionStoreBenchmark} measures both. Redis is used for:
+ * <ul>
+ *   <li>the per-session high-water revision, so replaying an older token
+ *       cannot roll back answers ({@link StaleSessionTokenException});</li>
+ *   <li>revocation on delete;</li>
+ *   <li>persisting the final token of completed sessions, which stays
+ *       readable without a token for {@code session.token.result-ttl-hours}.</li>
+ * </ul>
+ * Every save raises the mark in Redis before the new token is handed out,
+ * and only if no other save got there first, so a token can never fork or
+ * overtake the mark; a failed write fails the request. Marks are cached per
+ * node; other nodes learn of them over pub/sub, and a node that has not seen
+ * a session yet reads its mark once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "token")
+public class TokenSessionStore implements SessionStore {
+
+    public static final String TOKEN_HEADER = "X-Session-Token";
+
+    private static final String TOKEN_ATTRIBUTE = TokenSessionStore.class.getName() + ".token";
+    private static final String HIGH_WATER_CHANNEL = "questionnaire:session:hw";
+    private static final String REVOKED = "revoked";
+    private static final long REVOKED_REVISION = Long.MAX_VALUE;
+
+    /**
+     * Raises the mark (KEYS[1]) only if the new revision is higher, and then
+     * stores the final token of a completed session (KEYS[2]) if one is given.
+     * Returns 1 when raised, 0 when another save already reached the revision
+     * and -1 when the session was revoked.
+     */
+    private static final RedisScript<Long> RAISE_HIGH_WATER = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current == 'revoked' then return -1 end
+            if current and tonumber(current) >= tonumber(ARGV[1]) then return 0 end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            if ARGV[5] ~= '' then
+              redis.call('SET', KEYS[2], ARGV[5], 'PX', ARGV[6])
+            end
+            redis.call('PUBLISH', ARGV[3], ARGV[4])
+            return 1
+            """, Long.class);
+    private static final long RAISED = 1;
+    private static final long REVOKED_RESULT = -1;
+
+    private final SessionTokenCodec codec;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisKeys redisKeys;
+    private final MetricsService metricsService;
+    private final Duration resultTtl;
+    private final Map<String, Long> highWater;
+    private final RedisConnectionFactory connectionFactory;
+    private RedisMessageListenerContainer listenerContainer;
+
+    public TokenSessionStore(
+            SessionTokenCodec codec,
+            StringRedisTemplate redisTemplate,
+            RedisKeys redisKeys,
+            RedisConnectionFactory connectionFactory,
+            MetricsService metricsService,
+            @Value("${session.token.result-ttl-hours:24}") long resultTtlHours,
+            @Value("${session.token.high-water-cache-size:100000}") int cacheSize) {
+        this.codec = codec;
+        this.redisTemplate = redisTemplate;
+        this.redisKeys = redisKeys;
+        this.metricsService = metricsService;
+        this.connectionFactory = connectionFactory;
+        this.resultTtl = Duration.ofHours(resultTtlHours);
+        this.highWater = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        log.info("Token session store enabled ({}, resultTtl={}h)",
+                codec.isEncrypting() ? "encrypted" : "signed", resultTtlHours);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) ->
+                onHighWater(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(HIGH_WATER_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @Override
+    public void save(Session session, Duration ttl) {
+        ServletRequestAttributes request = currentRequest();
+        if (request == null) {
+            throw new IllegalStateException("Token sessions can only be saved while handling a request");
+        }
+
+        String sessionId = session.getSessionId();
+        long presentedRevision = session.getRevision();
+        long revision = presentedRevision + 1;
+        session.setRevision(revision);
+        String token = codec.encode(session, Instant.now().plus(ttl));
+
+        Long raised;
+        try {
+            raised = redisTemplate.execute(RAISE_HIGH_WATER,
+                    List.of(redisKeys.highWater(sessionId), redisKeys.result(sessionId)),
+                    Long.toString(revision), Long.toString(ttl.toMillis()),
+                    HIGH_WATER_CHANNEL, sessionId + ":" + revision,
+                    session.isCompleted() ? token : "", Long.toString(resultTtl.toMillis()));
+        } catch (RuntimeException e) {
+            session.setRevision(presentedRevision);
+            log.error("Failed to store session {} revision {}: {}", sessionId, revision, e.getMessage());
+            throw new ServiceUnavailableException("session store", e);
+        }
+        if (raised == null || raised != RAISED) {
+            session.setRevision(presentedRevision);
+            if (raised != null && raised == REVOKED_RESULT) {
+                raiseLocal(sessionId, REVOKED_REVISION);
+                reject("revoked", sessionId, "session was deleted");
+                throw new SessionNotFoundException(sessionId);
+            }
+            // Another request saved from the same token first
+            raiseLocal(sessionId, revision);
+            metricsService.incrementSessionTokenRejected("stale");
+            throw new StaleSessionTokenException(session, revision);
+        }
+        raiseLocal(sessionId, revision);
+
+        request.setAttribute(TOKEN_ATTRIBUTE, token, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = request.getResponse();
+        if (response != null && !response.isCommitted()) {
+            response.setHeader(TOKEN_HEADER, token);
+        }
+    }
+
+    @Override
+    public Session find(String sessionId) {
+        String token = currentToken();
+        boolean persistedResult = token == null;
+        if (persistedResult) {
+            token = redisTemplate.opsForValue().get(redisKeys.result(sessionId));
+            if (token == null) {
+                return null;
+            }
+        }
+
+        SessionTokenCodec.Decoded decoded;
+        try {
+            decoded = codec.decode(token);
+        } catch (IllegalArgumentException e) {
+            reject("invalid", sessionId, e.getMessage());
+            return null;
+        }
+
+        Session session = decoded.session();
+        if (!sessionId.equals(session.getSessionId())) {
+            reject("mismatch", sessionId, "token belongs to " + session.getSessionId());
+            return null;
+        }
+        // Persisted results outlive the token's own expiry
+        if (!persistedResult && !Instant.now().isBefore(decoded.expiresAt())) {
+            reject("expired", sessionId, "expired at " + decoded.expiresAt());
+            return null;
+        }
+
+        long latest = highWater(sessionId);
+        if (latest == REVOKED_REVISION) {
+            reject("revoked", sessionId, "session was deleted");
+            return null;
+        }
+        if (session.getRevision() < latest) {
+            metricsService.incrementSessionTokenRejected("stale");
+            throw new StaleSessionTokenException(session, latest);
+        }
+        return session;
+    }
+
+    @Override
+    public boolean delete(String sessionId) {
+        synchronized (highWater) {
+            highWater.put(sessionId, REVOKED_REVISION);
+        }
+        redisTemplate.opsForValue().set(redisKeys.highWater(sessionId), REVOKED, resultTtl);
+        redisTemplate.delete(redisKeys.result(sessionId));
+        redisTemplate.convertAndSend(HIGH_WATER_CHANNEL, sessionId + ":" + REVOKED_REVISION);
+        return true;
+    }
+
+    @Override
+    public boolean exists(String sessionId) {
+        try {
+            return find(sessionId) != null;
+        } catch (StaleSessionTokenException e) {
+            return true;
+        }
+    }
+
+    /**
+     * The expiry is part of the token, so extending it issues a new one.
+     */
+    @Override
+    public void expire(String sessionId, Duration ttl) {
+        Session session = find(sessionId);
+        if (session != null) {
+            save(session, ttl);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "token";
+    }
+
+    @Override
+    public void ping() {
+        redisTemplate.hasKey("health-check");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (listenerContainer == null) {
+            return;
+        }
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            log.debug("Failed to stop session token listener: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The token issued earlier in this request wins over the one the client sent.
+     */
+    private String currentToken() {
+        ServletRequestAttributes request = currentRequest();
+        if (request == null) {
+            return null;
+        }
+        Object issued = request.getAttribute(TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (issued != null) {
+            return (String) issued;
+        }
+        String presented = request.getRequest().getHeader(TOKEN_HEADER);
+        return presented == null || presented.isBlank() ? null : presented.trim();
+    }
+
+    private long highWater(String sessionId) {
+        synchronized (highWater) {
+            Long cached = highWater.get(sessionId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        String stored = redisTemplate.opsForValue().get(redisKeys.highWater(sessionId));
+        long revision = stored == null ? 0 : REVOKED.equals(stored) ? REVOKED_REVISION : Long.parseLong(stored);
+        raiseLocal(sessionId, revision);
+        return revision;
+    }
+
+    private void raiseLocal(String sessionId, long revision) {
+        synchronized (highWater) {
+            highWater.merge(sessionId, revision, Math::max);
+        }
+    }
+
+    /**
+     * Only sessions this node has seen are updated; others are read on first use.
+     */
+    private void onHighWater(String message) {
+        int separator = message.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        String sessionId = message.substring(0, separator);
+        long revision = Long.parseLong(message.substring(separator + 1));
+        synchronized (highWater) {
+            highWater.computeIfPresent(sessionId, (id, current) -> Math.max(current, revision));
+        }
+    }
+
+    private void reject(String reason, String sessionId, String detail) {
+        metricsService.incrementSessionTokenRejected(reason);
+        log.warn("Rejected session token for {} ({}): {}", sessionId, reason, detail);
+    }
+
+    private static ServletRequestAttributes currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes : null;
+    }
+}
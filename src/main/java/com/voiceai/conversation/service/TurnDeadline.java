@@ -0,0 +1,67 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.exception.DeadlineExceededException;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which a voice turn, or an audio request, must have
+ * produced its response.
+ *
+ * <p>Set once per request by the controller and passed down through the
+ * orchestrator; every stage caps its own timeout at {@link #remaining} and
+ * checks {@link #check} before starting AWS work, so nothing keeps running
+ * for a client that has already given up.
+ */
+public final class TurnDeadline {
+
+    /** Milliseconds the client is still prepared to wait for the turn. */
+    public static final String HEADER = "X-Turn-Deadline-Ms";
+
+    private static final TurnDeadline NONE = new TurnDeadline(0);
+
+    private final long deadlineNanos;
+
+    private TurnDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static TurnDeadline after(Duration budget) {
+        return new TurnDeadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * No deadline: stages keep their configured timeouts (warm-up, replay).
+     */
+    public static TurnDeadline none() {
+        return NONE;
+    }
+
+    public boolean isBounded() {
+        return this != NONE;
+    }
+
+    public boolean isExpired() {
+        return isBounded() && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Time left, or {@code stageTimeout} if that is shorter.
+     */
+    public Duration remaining(Duration stageTimeout) {
+        if (!isBounded()) {
+            return stageTimeout;
+        }
+        long remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+        return remainingNanos < stageTimeout.toNanos() ? Duration.ofNanos(remainingNanos) : stageTimeout;
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
+}
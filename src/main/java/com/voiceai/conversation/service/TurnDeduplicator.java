@@ -0,0 +1,353 @@
+package com.voiceai.conversation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceai.conversation.config.exception.ServiceUnavailableException;
+import com.voiceai.conversation.config.exception.StaleSessionTokenException;
+import com.voiceai.conversation.model.AwsUsage;
+import com.voiceai.conversation.model.Session;
+import com.voiceai.conversation.model.dto.ResponseSubmissionResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Makes voice-turn submission idempotent.
+ *
+ * <p>A turn is identified by the client's {@value #IDEMPOTENCY_HEADER} header.
+ * Clients that cannot send one can be covered by enabling
+ * {@code questionnaire.idempotency.audio-hash}: the turn is then identified
+ * by a SHA-256 of the audio plus the session's turn counter, and the session
+ * read for that is handed to the turn so it is not read twice. A
+ * resubmission of the session's latest turn therefore matches either the
+ * current counter (still in flight) or the previous one (already
+ * processed), while the same audio sent for a later turn does not. Without
+ * either, a submission costs nothing here.
+ * The first submission's result is kept for {@code questionnaire.idempotency.window-seconds};
+ * duplicates get that result back without touching Transcribe, Bedrock or
+ * Polly, and duplicates arriving while it is still running wait for it,
+ * within their own {@link TurnDeadline}.
+ * The AWS usage of the original turn is kept with its result and reported
+ * as avoided for every duplicate.
+ *
+ * <p>Results and in-progress markers are shared through Redis unless
+ * sessions are held in memory, so a retry that lands on another node is
+ * still deduplicated.
+ */
+@Slf4j
+@Service
+public class TurnDeduplicator {
+
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    private static final String PENDING = "pending";
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final String DUPLICATE_STAGE = "duplicate";
+
+    private final SessionService sessionService;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisKeys redisKeys;
+    private final ObjectMapper objectMapper;
+    private final MetricsService metricsService;
+    private final boolean enabled;
+    private final boolean audioHash;
+    private final boolean shared;
+    private final Duration window;
+    private final Duration claimTtl;
+    private final Map<String, CompletableFuture<TurnOutcome>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Completed> completed = new ConcurrentHashMap<>();
+
+    public TurnDeduplicator(
+            SessionService sessionService,
+            SessionStore sessionStore,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            RedisKeys redisKeys,
+            ObjectMapper objectMapper,
+            MetricsService metricsService,
+            @Value("${questionnaire.idempotency.enabled:true}") boolean enabled,
+            @Value("${questionnaire.idempotency.audio-hash:false}") boolean audioHash,
+            @Value("${questionnaire.idempotency.window-seconds:120}") long windowSeconds,
+            @Value("${questionnaire.turn.max-deadline-millis:30000}") long maxTurnMillis) {
+        this.sessionService = sessionService;
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.redisKeys = redisKeys;
+        this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
+        this.enabled = enabled;
+        this.audioHash = audioHash;
+        this.shared = !"memory".equals(sessionStore.name());
+        this.window = Duration.ofSeconds(windowSeconds);
+        // No turn runs longer than the largest deadline a client may ask for
+        this.claimTtl = Duration.ofMillis(maxTurnMillis);
+    }
+
+    /**
+     * Runs {@code turn} unless an identical submission has already produced,
+     * or is producing, a result. {@code audio} may be {@code null} for
+     * streamed submissions, which are only deduplicated by header. A
+     * duplicate waits for the original no longer than {@code deadline}.
+     * {@code turn} is given the session if it was read to identify the turn,
+     * otherwise {@code null}.
+     */
+    public TurnOutcome submit(String sessionId, String idempotencyKey, byte[] audio, TurnDeadline deadline,
+                              Function<Session, TurnOutcome> turn) {
+        if (!enabled) {
+            return turn.apply(null);
+        }
+        Session[] session = new Session[1];
+        List<String> keys = keys(sessionId, idempotencyKey, audio, session);
+        if (keys.isEmpty()) {
+            return turn.apply(null);
+        }
+
+        for (String key : keys) {
+            TurnOutcome previous = existing(key, deadline);
+            if (previous != null) {
+                return previous;
+            }
+        }
+
+        String key = keys.get(0);
+        CompletableFuture<TurnOutcome> mine = new CompletableFuture<>();
+        CompletableFuture<TurnOutcome> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return deduplicated(await(running, deadline), "in_flight");
+        }
+
+        boolean claimed = false;
+        try {
+            if (shared && !claim(key)) {
+                TurnOutcome other = deduplicated(pollShared(key, deadline), "in_flight");
+                mine.complete(other);
+                return other;
+            }
+            claimed = true;
+
+            TurnOutcome outcome;
+            try (UsageMeter meter = UsageMeter.open()) {
+                outcome = turn.apply(session[0]).withUsage(meter.total());
+            }
+            store(key, outcome);
+            mine.complete(outcome);
+            return outcome;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            if (claimed) {
+                release(key);
+            }
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${questionnaire.idempotency.sweep-interval-millis:10000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        completed.entrySet().removeIf(entry -> entry.getValue().expiresAt < now);
+    }
+
+    private List<String> keys(String sessionId, String idempotencyKey, byte[] audio, Session[] session) {
+        List<String> keys = new ArrayList<>(2);
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            String key = idempotencyKey.trim();
+            keys.add(sessionId + ":key:" + (key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key));
+            return keys;
+        }
+        if (!audioHash || audio == null) {
+            return keys;
+        }
+
+        String hash = sha256(audio);
+        int turn = currentTurn(sessionId, session);
+        keys.add(sessionId + ":audio:" + hash + ":" + turn);
+        if (turn > 0) {
+            keys.add(sessionId + ":audio:" + hash + ":" + (turn - 1));
+        }
+        return keys;
+    }
+
+    /**
+     * The turn as the client last saw it; with client-held sessions a lost
+     * response leaves the client on an older token. The session read is kept
+     * in {@code session} for the turn; a stale one is not, the turn rejects it.
+     */
+    private int currentTurn(String sessionId, Session[] session) {
+        try {
+            session[0] = sessionService.getSession(sessionId);
+            return session[0].getTurnCount();
+        } catch (StaleSessionTokenException e) {
+            return e.getPresented().getTurnCount();
+        }
+    }
+
+    private TurnOutcome existing(String key, TurnDeadline deadline) {
+        CompletableFuture<TurnOutcome> running = inFlight.get(key);
+        if (running != null) {
+            return deduplicated(await(running, deadline), "in_flight");
+        }
+
+        Completed local = completed.get(key);
+        if (local != null && local.expiresAt >= System.currentTimeMillis()) {
+            return deduplicated(local.outcome, "completed");
+        }
+
+        if (shared) {
+            String stored = redisTemplate.opsForValue().get(redisKey(key));
+            if (PENDING.equals(stored)) {
+                return deduplicated(pollShared(key, deadline), "in_flight");
+            }
+            if (stored != null) {
+                return deduplicated(read(stored), "completed");
+            }
+        }
+        return null;
+    }
+
+    private TurnOutcome await(CompletableFuture<TurnOutcome> running, TurnDeadline deadline) {
+        try {
+            return running.get(deadline.remaining(claimTtl).toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // The duplicate fails the same way the original did
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("duplicate voice turn", e);
+        } catch (TimeoutException e) {
+            deadline.check(DUPLICATE_STAGE);
+            throw new ServiceUnavailableException("duplicate voice turn", e);
+        }
+    }
+
+    /**
+     * Waits for another node to publish the result of a turn it claimed.
+     */
+    private TurnOutcome pollShared(String key, TurnDeadline deadline) {
+        long waitUntil = System.nanoTime() + deadline.remaining(claimTtl).toNanos();
+        try {
+            while (System.nanoTime() - waitUntil < 0) {
+                String stored = redisTemplate.opsForValue().get(redisKey(key));
+                if (stored == null) {
+                    break;
+                }
+                if (!PENDING.equals(stored)) {
+                    return read(stored);
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        deadline.check(DUPLICATE_STAGE);
+        // Still running elsewhere, or it failed there: the client should retry
+        throw new ServiceUnavailableException("duplicate voice turn", null);
+    }
+
+    private boolean claim(String key) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(redisKey(key), PENDING, claimTtl));
+    }
+
+    private void store(String key, TurnOutcome outcome) {
+        completed.put(key, new Completed(outcome, System.currentTimeMillis() + window.toMillis()));
+        if (shared) {
+            try {
+                redisTemplate.opsForValue().set(redisKey(key), objectMapper.writeValueAsString(outcome), window);
+            } catch (Exception e) {
+                log.warn("Failed to share turn result {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private void release(String key) {
+        if (shared) {
+            try {
+                redisTemplate.delete(redisKey(key));
+            } catch (Exception e) {
+                log.debug("Failed to release turn claim {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private TurnOutcome deduplicated(TurnOutcome outcome, String source) {
+        metricsService.incrementTurnDeduplicated(source);
+
+        // The original turn transcribed the audio, classified any transcript
+        // and, for a retry, synthesized the prompt
+        ResponseSubmissionResult result = outcome.result();
+        metricsService.incrementAwsCallsAvoided("transcribe");
+        if (result.getTranscript() != null && !result.getTranscript().isEmpty()) {
+            metricsService.incrementAwsCallsAvoided("bedrock");
+        }
+        if (result.getRetryAudioToken() != null) {
+            metricsService.incrementAwsCallsAvoided("polly");
+        }
+        if (outcome.usage() != null) {
+            metricsService.recordAwsUsageAvoided("deduplicated", outcome.usage());
+        }
+
+        log.debug("Duplicate voice turn answered from {} result", source);
+        return outcome;
+    }
+
+    private TurnOutcome read(String stored) {
+        try {
+            return objectMapper.readValue(stored, TurnOutcome.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored turn result", e);
+        }
+    }
+
+    private String redisKey(String key) {
+        int separator = key.indexOf(':');
+        return redisKeys.turn(key.substring(0, separator), key.substring(separator + 1));
+    }
+
+    private static String sha256(byte[] audio) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(audio));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * What the client receives for a turn: the response body and, with
+     * client-held sessions, the session token issued with it. {@code usage}
+     * is what producing it cost, once known.
+     */
+    public record TurnOutcome(ResponseSubmissionResult result, String sessionToken, AwsUsage usage) {
+
+        public TurnOutcome(ResponseSubmissionResult result, String sessionToken) {
+            this(result, sessionToken, null);
+        }
+
+        TurnOutcome withUsage(AwsUsage turnUsage) {
+            return new TurnOutcome(result, sessionToken, turnUsage);
+        }
+    }
+
+    private record Completed(TurnOutcome outcome, long expiresAt) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.AwsUsage;
+
+import java.util.function.Consumer;
+
+/**
+ * Collects the AWS usage of the work done on the current thread.
+ *
+ * <p>Services report billable units with {@link #record}; it is a no-op when
+ * no meter is open, e.g. during warm-up. Meters nest: closing one adds
+ * everything it saw to the enclosing meter, so a caller can measure a single
+ * call without hiding it from an outer meter. {@link #take} hands out what
+ * was recorded since the previous take, for attribution to a session.
+ */
+public final class UsageMeter implements AutoCloseable {
+
+    private static final ThreadLocal<UsageMeter> CURRENT = new ThreadLocal<>();
+
+    private final UsageMeter enclosing;
+    private final AwsUsage total = new AwsUsage();
+    private AwsUsage untaken = new AwsUsage();
+
+    private UsageMeter(UsageMeter enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    public static UsageMeter open() {
+        UsageMeter meter = new UsageMeter(CURRENT.get());
+        CURRENT.set(meter);
+        return meter;
+    }
+
+    /**
+     * The innermost open meter, or {@code null}.
+     */
+    public static UsageMeter current() {
+        return CURRENT.get();
+    }
+
+    public static void record(Consumer<AwsUsage> update) {
+        UsageMeter meter = CURRENT.get();
+        if (meter != null) {
+            update.accept(meter.total);
+            update.accept(meter.untaken);
+        }
+    }
+
+    /**
+     * Everything recorded while this meter was open.
+     */
+    public AwsUsage total() {
+        return total.copy();
+    }
+
+    /**
+     * Usage recorded since the previous call.
+     */
+    public AwsUsage take() {
+        AwsUsage taken = untaken;
+        untaken = new AwsUsage();
+        return taken;
+    }
+
+    @Override
+    public void close() {
+        if (enclosing == null) {
+            CURRENT.remove();
+            return;
+        }
+        CURRENT.set(enclosing);
+        enclosing.total.add(total);
+        enclosing.untaken.add(total);
+    }
+}
@@ -0,0 +1,59 @@
+package com.voiceai.conversation.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioOutputFormatTest {
+
+    @Test
+    void noAcceptHeaderGetsTheDefault() {
+        assertThat(AudioOutputFormat.negotiate(List.of())).isEqualTo(AudioOutputFormat.DEFAULT);
+        assertThat(negotiate("*/*")).isEqualTo(AudioOutputFormat.DEFAULT);
+    }
+
+    @Test
+    void highestQualityOfferedTypeWins() {
+        assertThat(negotiate("audio/mpeg;q=0.5, audio/ogg;q=0.8")).isEqualTo(AudioOutputFormat.OGG_VORBIS);
+        assertThat(negotiate("audio/ogg;q=0.5, audio/pcm")).isEqualTo(AudioOutputFormat.PCM_8K);
+    }
+
+    @Test
+    void refusedAndUnofferedTypesAreSkipped() {
+        assertThat(negotiate("audio/flac, audio/ogg;q=0, audio/pcm;q=0.1")).isEqualTo(AudioOutputFormat.PCM_8K);
+        assertThat(negotiate("audio/flac")).isEqualTo(AudioOutputFormat.DEFAULT);
+    }
+
+    @Test
+    void wildcardAtHigherQualityThanAnOfferedTypeGetsTheDefault() {
+        assertThat(negotiate("*/*, audio/ogg;q=0.5")).isEqualTo(AudioOutputFormat.DEFAULT);
+        assertThat(negotiate("audio/*;q=0.5, audio/ogg")).isEqualTo(AudioOutputFormat.OGG_VORBIS);
+    }
+
+    @Test
+    void rateParameterSelectsTheSampleRate() {
+        assertThat(negotiate("audio/mpeg")).isEqualTo(AudioOutputFormat.MP3);
+        assertThat(negotiate("audio/mpeg;rate=24000")).isEqualTo(AudioOutputFormat.MP3);
+        assertThat(negotiate("audio/mpeg;rate=16000")).isEqualTo(AudioOutputFormat.MP3_16K);
+        assertThat(negotiate("audio/pcm;rate=8000")).isEqualTo(AudioOutputFormat.PCM_8K);
+    }
+
+    @Test
+    void unofferedRateFallsThroughToTheNextType() {
+        assertThat(negotiate("audio/pcm;rate=16000, audio/ogg;q=0.5")).isEqualTo(AudioOutputFormat.OGG_VORBIS);
+        assertThat(negotiate("audio/mpeg;rate=44100")).isEqualTo(AudioOutputFormat.DEFAULT);
+    }
+
+    @Test
+    void pcmContentTypeCarriesItsRate() {
+        assertThat(AudioOutputFormat.PCM_8K.getMediaType().toString()).isEqualTo("audio/pcm;rate=8000");
+        assertThat(AudioOutputFormat.MP3_16K.getMediaType().toString()).isEqualTo("audio/mpeg");
+    }
+
+    private static AudioOutputFormat negotiate(String accept) {
+        return AudioOutputFormat.negotiate(MediaType.parseMediaTypes(accept));
+    }
+}
@@ -0,0 +1,183 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.exception.InvalidAudioException;
+import com.voiceai.conversation.model.AudioMetadata;
+import com.voiceai.conversation.model.AudioMetadata.AudioFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AudioValidatorTest {
+
+    private static final int CLIP_BYTES = 4096;
+
+    private final AudioValidator validator = new AudioValidator();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(validator, "minAudioSizeBytes", 1000L);
+        ReflectionTestUtils.setField(validator, "maxAudioSizeBytes", 1_000_000L);
+    }
+
+    @Test
+    void wavHeaderGivesRateAndLayout() {
+        AudioMetadata metadata = validator.validateAudio(wav(44_100, 2, 16));
+
+        assertThat(metadata).isEqualTo(new AudioMetadata(AudioFormat.WAV, 44_100, 2, 16));
+    }
+
+    @Test
+    void wavDurationFollowsTheHeaderLayout() {
+        // One second of 8 kHz stereo 16-bit audio after the 44-byte header
+        byte[] audio = Arrays.copyOf(wav(8000, 2, 16), 44 + 32_000);
+
+        AudioMetadata metadata = validator.validateAudio(audio);
+
+        assertThat(SpeechToTextService.audioMillis(metadata, audio.length, 0)).isEqualTo(1000);
+    }
+
+    @Test
+    void wavWithoutFmtChunkIsAssumed16kHzOfUnknownLayout() {
+        byte[] audio = wav(44_100, 2, 16);
+        audio[12] = 'L';
+
+        AudioMetadata metadata = validator.validateAudio(audio);
+
+        assertThat(metadata).isEqualTo(new AudioMetadata(AudioFormat.WAV, 16_000, 0, 0));
+        assertThat(SpeechToTextService.audioMillis(metadata, audio.length, 1234)).isEqualTo(1234);
+    }
+
+    @Test
+    void flacSampleRateComesFromStreamInfo() {
+        AudioMetadata metadata = validator.validateAudio(flac(22_050));
+
+        assertThat(metadata.getFormat()).isEqualTo(AudioFormat.FLAC);
+        assertThat(metadata.getSampleRateHertz()).isEqualTo(22_050);
+    }
+
+    @Test
+    void flacWithoutStreamInfoIsRejected() {
+        byte[] audio = flac(22_050);
+        audio[4] = 4;
+
+        assertThatThrownBy(() -> validator.validateAudio(audio))
+                .isInstanceOf(InvalidAudioException.class)
+                .hasMessageContaining("STREAMINFO");
+    }
+
+    @Test
+    void oggOpusUsesTheOriginalInputRate() {
+        AudioMetadata metadata = validator.validateAudio(oggOpus(16_000));
+
+        assertThat(metadata).isEqualTo(new AudioMetadata(AudioFormat.OGG_OPUS, 16_000));
+    }
+
+    @Test
+    void oggOpusWithoutAUsableInputRateDecodesAt48kHz() {
+        AudioMetadata metadata = validator.validateAudio(oggOpus(0));
+
+        assertThat(metadata.getSampleRateHertz()).isEqualTo(48_000);
+    }
+
+    @Test
+    void oggWithoutOpusHeadIsRejected() {
+        byte[] audio = oggOpus(16_000);
+        audio[28] = 'v';
+
+        assertThatThrownBy(() -> validator.validateAudio(audio))
+                .isInstanceOf(InvalidAudioException.class)
+                .hasMessageContaining("Opus");
+    }
+
+    @Test
+    void mp3IsRejected() {
+        byte[] audio = new byte[CLIP_BYTES];
+        audio[0] = (byte) 0xFF;
+        audio[1] = (byte) 0xFB;
+
+        assertThatThrownBy(() -> validator.validateAudio(audio))
+                .isInstanceOf(InvalidAudioException.class)
+                .hasMessageContaining("MP3");
+    }
+
+    @Test
+    void truncatedStreamHeadersAreRejected() {
+        byte[] flac = Arrays.copyOf(flac(22_050), 12);
+        byte[] ogg = Arrays.copyOf(oggOpus(16_000), 20);
+
+        assertThatThrownBy(() -> validator.validateStream(new ByteArrayInputStream(flac)))
+                .isInstanceOf(InvalidAudioException.class);
+        assertThatThrownBy(() -> validator.validateStream(new ByteArrayInputStream(ogg)))
+                .isInstanceOf(InvalidAudioException.class);
+    }
+
+    @Test
+    void streamedWavIsValidatedFromItsFirstBytes() {
+        AudioValidator.ValidatedAudioStream validated =
+                validator.validateStream(new ByteArrayInputStream(wav(8000, 1, 16)));
+
+        assertThat(validated.getMetadata()).isEqualTo(new AudioMetadata(AudioFormat.WAV, 8000, 1, 16));
+    }
+
+    private static byte[] wav(int sampleRate, int channels, int bitsPerSample) {
+        byte[] data = new byte[CLIP_BYTES];
+        int blockAlign = channels * bitsPerSample / 8;
+        ByteBuffer header = ByteBuffer.wrap(data, 0, 44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'});
+        header.putInt(data.length - 8);
+        header.put(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16);
+        header.putShort((short) 1);
+        header.putShort((short) channels);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * blockAlign);
+        header.putShort((short) blockAlign);
+        header.putShort((short) bitsPerSample);
+        header.put(new byte[]{'d', 'a', 't', 'a'});
+        header.putInt(data.length - 44);
+        return data;
+    }
+
+    /**
+     * "fLaC" followed by a last-block STREAMINFO header and its 20-bit sample rate.
+     */
+    private static byte[] flac(int sampleRate) {
+        byte[] data = new byte[CLIP_BYTES];
+        data[0] = 'f';
+        data[1] = 'L';
+        data[2] = 'a';
+        data[3] = 'C';
+        data[4] = (byte) 0x80;
+        data[7] = 34;
+        data[18] = (byte) (sampleRate >> 12);
+        data[19] = (byte) (sampleRate >> 4);
+        data[20] = (byte) ((sampleRate & 0x0F) << 4);
+        return data;
+    }
+
+    /**
+     * A first OGG page with one segment carrying OpusHead.
+     */
+    private static byte[] oggOpus(int inputSampleRate) {
+        byte[] data = new byte[CLIP_BYTES];
+        ByteBuffer page = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        page.put(new byte[]{'O', 'g', 'g', 'S'});
+        page.position(26);
+        page.put((byte) 1);
+        page.put((byte) 19);
+        page.put(new byte[]{'O', 'p', 'u', 's', 'H', 'e', 'a', 'd'});
+        page.put((byte) 1);
+        page.put((byte) 1);
+        page.putShort((short) 312);
+        page.putInt(inputSampleRate);
+        return data;
+    }
+}
@@ -0,0 +1,141 @@
+package com.voiceai.conversation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class HedgedRequestExecutorTest {
+
+    private final MetricsService metricsService = mock(MetricsService.class);
+    private final HedgedRequestExecutor executor =
+            new HedgedRequestExecutor(metricsService, true, 20, 0.9, 2000, 250, 1.0);
+    private final List<String> losers = new ArrayList<>();
+
+    @Test
+    void fastPrimaryIsNotHedged() throws Exception {
+        AtomicInteger hedges = new AtomicInteger();
+
+        String result = executor.execute(
+                () -> CompletableFuture.completedFuture("primary"),
+                () -> {
+                    hedges.incrementAndGet();
+                    return CompletableFuture.completedFuture("hedge");
+                },
+                losers::add);
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(hedges).hasValue(0);
+        verify(metricsService, never()).incrementHedgeSent();
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndCancelled() throws Exception {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        String result = executor.execute(() -> primary, () -> CompletableFuture.completedFuture("hedge"), losers::add);
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(primary.isCancelled()).isTrue();
+        assertThat(losers).isEmpty();
+        verify(metricsService).incrementHedgeSent();
+        verify(metricsService).incrementHedgeWin("hedge");
+    }
+
+    @Test
+    void loserThatAlreadyAnsweredIsReported() throws Exception {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        // The primary answers just as the hedge is sent, and the hedge answers too
+        String result = executor.execute(() -> primary, () -> {
+            primary.complete("primary");
+            return CompletableFuture.completedFuture("hedge");
+        }, losers::add);
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(losers).containsExactly("hedge");
+        verify(metricsService).incrementHedgeWin("primary");
+    }
+
+    @Test
+    void hedgeFailureLeavesThePrimaryRunning() throws Exception {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        String result = executor.execute(() -> primary, () -> {
+            CompletableFuture<String> hedge = CompletableFuture.failedFuture(new IllegalStateException("hedge"));
+            CompletableFuture.runAsync(() -> primary.complete("primary"));
+            return hedge;
+        }, losers::add);
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(losers).isEmpty();
+    }
+
+    @Test
+    void bothFailingRethrowsThePrimaryFailure() {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        assertThatThrownBy(() -> executor.execute(() -> primary, () -> {
+            primary.completeExceptionally(new IllegalStateException("primary"));
+            return CompletableFuture.failedFuture(new IllegalStateException("hedge"));
+        }, losers::add)).isInstanceOf(IllegalStateException.class).hasMessage("primary");
+    }
+
+    @Test
+    void primaryFailingBeforeTheDelayIsNotHedged() {
+        AtomicInteger hedges = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.execute(
+                () -> CompletableFuture.failedFuture(new CompletionException(new IllegalStateException("primary"))),
+                () -> {
+                    hedges.incrementAndGet();
+                    return CompletableFuture.completedFuture("hedge");
+                },
+                losers::add)).isInstanceOf(IllegalStateException.class).hasMessage("primary");
+        assertThat(hedges).hasValue(0);
+    }
+
+    @Test
+    void interruptedCallerCancelsTheCallAndKeepsTheFlag() {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> executor.execute(() -> primary, () -> primary, losers::add))
+                .isInstanceOf(InterruptedException.class);
+
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(primary.isCancelled()).isTrue();
+    }
+
+    @Test
+    void exhaustedBudgetWaitsForThePrimary() throws Exception {
+        // No deposits, so only the initial 10 tokens can be spent
+        HedgedRequestExecutor unbudgeted = new HedgedRequestExecutor(metricsService, true, 20, 0.9, 2000, 250, 0);
+        AtomicInteger hedges = new AtomicInteger();
+        Supplier<CompletableFuture<String>> hedge = () -> {
+            hedges.incrementAndGet();
+            return new CompletableFuture<>();
+        };
+
+        for (int i = 0; i < 11; i++) {
+            assertThat(unbudgeted.execute(() -> slow("primary"), hedge, losers::add)).isEqualTo("primary");
+        }
+
+        assertThat(hedges).hasValue(10);
+    }
+
+    private static CompletableFuture<String> slow(String value) {
+        return new CompletableFuture<String>().completeOnTimeout(value, 50, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,56 @@
+package com.voiceai.conversation.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class QuestionnaireRegistryTest {
+
+    private static final String CLASSPATH = "classpath:questionnaires/*.json";
+
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+
+    @Test
+    void classpathDefinitionsAreNotRescanned() {
+        new QuestionnaireRegistry(CLASSPATH, "health-checkin", 30_000, taskScheduler);
+
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void fileDefinitionsAreRescanned(@TempDir Path directory) throws IOException {
+        try (InputStream definition = getClass().getResourceAsStream("/questionnaires/health-checkin-v1.json")) {
+            Files.copy(definition, directory.resolve("health-checkin-v1.json"));
+        }
+
+        new QuestionnaireRegistry("file:" + directory + "/*.json", "health-checkin", 30_000, taskScheduler);
+
+        verify(taskScheduler).scheduleWithFixedDelay(any(Runnable.class), any(Instant.class),
+                eq(Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void categoriesAreMatchedLooselyAndUnlistedOnesRejected() {
+        CompiledQuestion question = new QuestionnaireRegistry(CLASSPATH, "health-checkin", 30_000, taskScheduler)
+                .getDefault()
+                .questionAt(0);
+
+        assertThat(question.canonicalCategory("  Very  CONFIDENT ")).isEqualTo("very confident");
+        assertThat(question.canonicalCategory("extremely confident")).isNull();
+        assertThat(question.canonicalCategory(null)).isNull();
+    }
+}
@@ -0,0 +1,136 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.AudioOutputFormat;
+import com.voiceai.conversation.model.Session;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetryAudioServiceTest {
+
+    private static final String TEXT = "Sorry, could you repeat that?";
+    private static final AudioOutputFormat FORMAT = AudioOutputFormat.MP3;
+    private static final TurnDeadline NO_DEADLINE = TurnDeadline.none();
+
+    private final TextToSpeechService textToSpeechService = mock(TextToSpeechService.class);
+    private final MetricsService metricsService = mock(MetricsService.class);
+    private RetryAudioService service = service(120);
+
+    RetryAudioServiceTest() {
+        when(textToSpeechService.synthesizeSpeech(anyString(), any(AudioOutputFormat.class)))
+                .thenAnswer(invocation -> bytes(invocation.getArgument(0)));
+        when(textToSpeechService.synthesizeSpeech(anyString(), any(AudioOutputFormat.class), any(TurnDeadline.class)))
+                .thenAnswer(invocation -> bytes(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void preparedAudioIsServedForItsToken() {
+        String token = service.prepare(TEXT, FORMAT, NO_DEADLINE);
+
+        assertThat(service.getAudio(token, TEXT, FORMAT, NO_DEADLINE)).isEqualTo(bytes(TEXT));
+        verify(textToSpeechService, times(1)).synthesizeSpeech(TEXT, FORMAT);
+        verify(textToSpeechService, never()).synthesizeSpeech(eq(TEXT), eq(FORMAT), any(TurnDeadline.class));
+        verify(metricsService).incrementRetryAudio("presynthesized");
+    }
+
+    @Test
+    void eachPrepareIssuesANewRandomToken() {
+        String first = service.prepare(TEXT, FORMAT, NO_DEADLINE);
+        String second = service.prepare(TEXT, FORMAT, NO_DEADLINE);
+
+        assertThat(first).hasSize(22).isNotEqualTo(second);
+    }
+
+    @Test
+    void anotherFormatIsSynthesizedAgain() {
+        String token = service.prepare(TEXT, FORMAT, NO_DEADLINE);
+        verify(textToSpeechService, timeout(5000)).synthesizeSpeech(TEXT, FORMAT);
+
+        service.getAudio(token, TEXT, AudioOutputFormat.OGG_VORBIS, NO_DEADLINE);
+
+        verify(textToSpeechService).synthesizeSpeech(TEXT, AudioOutputFormat.OGG_VORBIS, NO_DEADLINE);
+        verify(metricsService).incrementRetryAudio("on_demand");
+    }
+
+    @Test
+    void expiredAudioIsEvictedAndSynthesizedOnRequest() throws InterruptedException {
+        service.shutdown();
+        service = service(0);
+        String token = service.prepare(TEXT, FORMAT, NO_DEADLINE);
+        verify(textToSpeechService, timeout(5000)).synthesizeSpeech(TEXT, FORMAT);
+        Thread.sleep(5);
+
+        service.evictExpired();
+
+        assertThat(service.getAudio(token, TEXT, FORMAT, NO_DEADLINE)).isEqualTo(bytes(TEXT));
+        verify(textToSpeechService).synthesizeSpeech(TEXT, FORMAT, NO_DEADLINE);
+        verify(metricsService).incrementRetryAudio("on_demand");
+    }
+
+    @Test
+    void discardedAudioIsSynthesizedOnRequest() {
+        String token = service.prepare(TEXT, FORMAT, NO_DEADLINE);
+
+        service.discard(token);
+        service.getAudio(token, TEXT, FORMAT, NO_DEADLINE);
+
+        verify(textToSpeechService).synthesizeSpeech(TEXT, FORMAT, NO_DEADLINE);
+        verify(metricsService).incrementRetryAudio("on_demand");
+    }
+
+    @Test
+    void nothingIsSynthesizedPastTheTurnDeadline() throws InterruptedException {
+        TurnDeadline expired = TurnDeadline.after(Duration.ZERO);
+
+        String token = service.prepare(TEXT, FORMAT, expired);
+        Thread.sleep(50);
+
+        assertThat(token).isNotNull();
+        verify(textToSpeechService, never()).synthesizeSpeech(anyString(), any(AudioOutputFormat.class));
+    }
+
+    @Test
+    void sessionAcceptsOnlyItsTokenUntilTheTtl() {
+        Session session = new Session("s1");
+        String token = service.prepare(TEXT, FORMAT, NO_DEADLINE);
+        Instant issued = Instant.now();
+        session.setRetryAudio(token, TEXT, issued.plusMillis(service.getTokenTtlMillis()));
+
+        assertThat(service.getTokenTtlMillis()).isEqualTo(120_000);
+        assertThat(session.isRetryAudioValid(token, issued)).isTrue();
+        assertThat(session.isRetryAudioValid("another", issued)).isFalse();
+        assertThat(session.isRetryAudioValid(token, issued.plusSeconds(120))).isFalse();
+
+        session.clearRetryAudio();
+        assertThat(session.isRetryAudioValid(token, issued)).isFalse();
+    }
+
+    private RetryAudioService service(long tokenTtlSeconds) {
+        return new RetryAudioService(textToSpeechService, metricsService, ObservationRegistry.NOOP,
+                tokenTtlSeconds, 5000, 100, 1);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
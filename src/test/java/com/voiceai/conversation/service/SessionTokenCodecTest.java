@@ -0,0 +1,164 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.model.AudioOutputFormat;
+import com.voiceai.conversation.model.AwsUsage;
+import com.voiceai.conversation.model.Session;
+import com.voiceai.conversation.model.UserResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionTokenCodecTest {
+
+    private static final byte[] SIGNING_KEY = key(32, 1);
+    private static final byte[] ENCRYPTION_KEY = key(16, 2);
+
+    private final SessionTokenCodec signing = new SessionTokenCodec(SIGNING_KEY, null);
+    private final SessionTokenCodec encrypting = new SessionTokenCodec(SIGNING_KEY, ENCRYPTION_KEY);
+
+    @Test
+    void signedTokenRoundTrips() {
+        assertRoundTrip(signing, "s1.");
+    }
+
+    @Test
+    void encryptedTokenRoundTrips() {
+        assertRoundTrip(encrypting, "e1.");
+    }
+
+    @Test
+    void tamperedSignedPayloadIsRejected() {
+        String token = signing.encode(session(), expiry());
+
+        assertThatThrownBy(() -> signing.decode(flip(token, 5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void signatureFromAnotherTokenIsRejected() {
+        String token = signing.encode(session(), expiry());
+        Session other = session();
+        other.setCurrentQuestionIndex(4);
+        String otherToken = signing.encode(other, expiry());
+
+        String forged = token.substring(0, token.lastIndexOf('.'))
+                + otherToken.substring(otherToken.lastIndexOf('.'));
+        assertThatThrownBy(() -> signing.decode(forged))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void signatureUnderAnotherKeyIsRejected() {
+        String token = new SessionTokenCodec(key(32, 9), null).encode(session(), expiry());
+
+        assertThatThrownBy(() -> signing.decode(token))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tamperedCiphertextIsRejected() {
+        String token = encrypting.encode(session(), expiry());
+
+        assertThatThrownBy(() -> encrypting.decode(flip(token, token.length() / 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void truncatedTokensAreRejected() {
+        assertThatThrownBy(() -> encrypting.decode("e1.AAAA"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> signing.decode("s1.AAAA"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void signedTokenIsRejectedWhenEncryptionIsConfigured() {
+        // A signed token would let a client read the session it was meant not to see
+        String token = signing.encode(session(), expiry());
+
+        assertThatThrownBy(() -> encrypting.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("format");
+    }
+
+    @Test
+    void encryptedTokenIsRejectedWhenOnlySigning() {
+        String token = encrypting.encode(session(), expiry());
+
+        assertThatThrownBy(() -> signing.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("format");
+    }
+
+    @Test
+    void expiryIsReturnedNotChecked() {
+        Instant past = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+
+        SessionTokenCodec.Decoded decoded = signing.decode(signing.encode(session(), past));
+
+        assertThat(decoded.expiresAt()).isEqualTo(past);
+    }
+
+    private static void assertRoundTrip(SessionTokenCodec codec, String prefix) {
+        Session session = session();
+        Instant expiresAt = expiry();
+
+        String token = codec.encode(session, expiresAt);
+        SessionTokenCodec.Decoded decoded = codec.decode(token);
+
+        assertThat(token).startsWith(prefix);
+        assertThat(decoded.expiresAt()).isEqualTo(expiresAt);
+        Session restored = decoded.session();
+        assertThat(restored.getSessionId()).isEqualTo("session-1");
+        assertThat(restored.getQuestionnaireId()).isEqualTo("intake");
+        assertThat(restored.getQuestionnaireVersion()).isEqualTo(3);
+        assertThat(restored.getCurrentQuestionIndex()).isEqualTo(2);
+        assertThat(restored.getRetryCount()).isEqualTo(1);
+        assertThat(restored.getTurnCount()).isEqualTo(5);
+        assertThat(restored.getRevision()).isEqualTo(7);
+        assertThat(restored.getAudioFormat()).isEqualTo(session.getAudioFormat());
+        assertThat(restored.getCreatedAt()).isEqualTo(session.getCreatedAt());
+        assertThat(restored.getRetryAudioToken()).isEqualTo("retry-token");
+        assertThat(restored.getRetryAudioText()).isEqualTo("Please repeat that.");
+        assertThat(restored.getResponses()).containsOnlyKeys(1);
+        assertThat(restored.getResponses().get(1).getClassifiedCategory()).isEqualTo("yes");
+        assertThat(restored.getUsageByQuestion().get(1).getBedrockInputTokens()).isEqualTo(120);
+        assertThat(restored.getUsageByQuestion().get(1).getPollyCharacters()).isEqualTo(42);
+    }
+
+    private static Session session() {
+        Session session = new Session("session-1", "intake", 3);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        session.setCreatedAt(now);
+        session.recordResponse(new UserResponse(1, "yes please", "yes", 0.9));
+        session.setLastModifiedAt(now);
+        session.setCurrentQuestionIndex(2);
+        session.setRetryCount(1);
+        session.setTurnCount(5);
+        session.setRevision(7);
+        session.setAudioFormat(AudioOutputFormat.values()[0]);
+        session.setRetryAudio("retry-token", "Please repeat that.", now.plus(5, ChronoUnit.MINUTES));
+        session.getUsageByQuestion().put(1, new AwsUsage(120, 8, 0, 0, 900, 42));
+        return session;
+    }
+
+    private static Instant expiry() {
+        return Instant.now().plus(30, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static String flip(String token, int index) {
+        char replacement = token.charAt(index) == 'A' ? 'B' : 'A';
+        return token.substring(0, index) + replacement + token.substring(index + 1);
+    }
+
+    private static byte[] key(int length, int fill) {
+        byte[] key = new byte[length];
+        Arrays.fill(key, (byte) fill);
+        return key;
+    }
+}
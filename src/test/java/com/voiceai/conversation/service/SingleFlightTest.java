@@ -0,0 +1,262 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.exception.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 8;
+
+    private final AtomicInteger coalesced = new AtomicInteger();
+    private final SingleFlight<String, String> flight = new SingleFlight<>(coalesced::incrementAndGet);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followersShareTheLeadersResult() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "leader";
+        }));
+        awaitCount(calls, 1);
+
+        List<Future<String>> followers = startFollowers(calls);
+        awaitCount(coalesced, FOLLOWERS);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void leaderFailureReachesEveryFollower() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("model unavailable");
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            await(release);
+            throw failure;
+        }));
+        awaitCount(calls, 1);
+
+        List<Future<String>> followers = startFollowers(calls);
+        awaitCount(coalesced, FOLLOWERS);
+        release.countDown();
+
+        assertThat(causeOf(leader)).isSameAs(failure);
+        for (Future<String> follower : followers) {
+            assertThat(causeOf(follower)).isSameAs(failure);
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void followerTakesOverFromACancelledLeader() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            await(release);
+            throw new CancellationException("turn abandoned");
+        }));
+        awaitCount(calls, 1);
+
+        Future<String> follower = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            return "follower";
+        }));
+        awaitCount(coalesced, 1);
+        release.countDown();
+
+        assertThat(causeOf(leader)).isInstanceOf(CancellationException.class);
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("follower");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void oneFollowerTakesOverFromAnInterruptedLeader() throws Exception {
+        AtomicReference<Thread> leaderThread = new AtomicReference<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            leaderThread.set(Thread.currentThread());
+            calls.incrementAndGet();
+            try {
+                new CountDownLatch(1).await();
+                return "leader";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted", e);
+            }
+        }));
+        awaitCount(calls, 1);
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> flight.execute("key", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "new leader";
+            })));
+        }
+        awaitCount(coalesced, FOLLOWERS);
+        leaderThread.get().interrupt();
+
+        assertThat(causeOf(leader)).isInstanceOf(IllegalStateException.class);
+        // Exactly one follower leads the retry while the rest join it
+        awaitCount(calls, 2);
+        awaitCount(coalesced, 2 * FOLLOWERS - 1);
+        release.countDown();
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("new leader");
+        }
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void interruptedFollowerStopsWaitingWithoutTheLeader() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "leader";
+        }));
+        awaitCount(calls, 1);
+
+        Future<String> follower = executor.submit(() -> {
+            followerThread.set(Thread.currentThread());
+            return flight.execute("key", () -> "follower");
+        });
+        awaitCount(coalesced, 1);
+        followerThread.get().interrupt();
+
+        assertThat(causeOf(follower)).isInstanceOf(CancellationException.class);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void followerStopsWaitingAtItsOwnDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "leader";
+        }));
+        awaitCount(calls, 1);
+
+        TurnDeadline deadline = TurnDeadline.after(Duration.ofMillis(50));
+        assertThatThrownBy(() -> flight.execute("key", deadline, "classification", () -> "follower"))
+                .isInstanceOfSatisfying(DeadlineExceededException.class,
+                        e -> assertThat(e.getStage()).isEqualTo("classification"));
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void nothingIsCachedOnceTheLeaderFinishes() {
+        AtomicInteger calls = new AtomicInteger();
+
+        flight.execute("key", () -> "first " + calls.incrementAndGet());
+        String second = flight.execute("key", () -> "second " + calls.incrementAndGet());
+
+        assertThat(second).isEqualTo("second 2");
+        assertThat(coalesced).hasValue(0);
+    }
+
+    @Test
+    void differentKeysDoNotCoalesce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> blocked = executor.submit(() -> flight.execute("a", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "a";
+        }));
+        awaitCount(calls, 1);
+
+        assertThat(flight.execute("b", () -> "b")).isEqualTo("b");
+        release.countDown();
+        assertThat(blocked.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(coalesced).hasValue(0);
+    }
+
+    private List<Future<String>> startFollowers(AtomicInteger calls) {
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> flight.execute("key", () -> {
+                calls.incrementAndGet();
+                return "follower";
+            })));
+        }
+        return followers;
+    }
+
+    private static Throwable causeOf(Future<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("expected the call to fail");
+    }
+
+    /**
+     * Followers count as coalesced just before they block, so this is as
+     * close to "all waiting" as the API lets a test get.
+     */
+    private static void awaitCount(AtomicInteger counter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter.get() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("expected " + expected + " but was " + counter.get());
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("test latch timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.exception.ServiceUnavailableException;
+import com.voiceai.conversation.model.AudioOutputFormat;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.polly.PollyClient;
+import software.amazon.awssdk.services.polly.model.PollyException;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechRequest;
+import software.amazon.awssdk.services.polly.model.SynthesizeSpeechResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TextToSpeechServiceTest {
+
+    private static final AudioOutputFormat FORMAT = AudioOutputFormat.MP3;
+
+    private final PollyClient pollyClient = mock(PollyClient.class);
+    private final TextToSpeechService service = new TextToSpeechService(pollyClient, mock(MetricsService.class),
+            ObservationRegistry.NOOP, CircuitBreakerRegistry.ofDefaults());
+
+    private volatile boolean pollyDown;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "voiceId", "Joanna");
+        ReflectionTestUtils.setField(service, "engine", "neural");
+        ReflectionTestUtils.setField(service, "fallbackCacheEntries", 2);
+        when(pollyClient.synthesizeSpeech(any(SynthesizeSpeechRequest.class))).thenAnswer(invocation -> {
+            if (pollyDown) {
+                throw PollyException.builder().message("throttled").build();
+            }
+            SynthesizeSpeechRequest request = invocation.getArgument(0);
+            return audio(request.text());
+        });
+    }
+
+    @Test
+    void retryPromptsDoNotEvictQuestionAudio() {
+        service.synthesizeSpeech("Do you smoke?", "q1", FORMAT);
+        for (int i = 0; i < 5; i++) {
+            service.synthesizeSpeech("Sorry, could you repeat that? " + i, FORMAT);
+        }
+
+        pollyDown = true;
+
+        assertThat(service.synthesizeSpeech("Do you smoke?", "q1", FORMAT))
+                .isEqualTo(bytes("Do you smoke?"));
+    }
+
+    @Test
+    void retryPromptsAreNotServedFromTheCache() {
+        service.synthesizeSpeech("Sorry, could you repeat that?", FORMAT);
+
+        pollyDown = true;
+
+        assertThatThrownBy(() -> service.synthesizeSpeech("Sorry, could you repeat that?", FORMAT))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void questionAudioIsCachedPerFormat() {
+        service.synthesizeSpeech("Do you smoke?", "q1", FORMAT);
+
+        pollyDown = true;
+
+        assertThatThrownBy(() -> service.synthesizeSpeech("Do you smoke?", "q1", AudioOutputFormat.OGG_VORBIS))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private static ResponseInputStream<SynthesizeSpeechResponse> audio(String text) {
+        SynthesizeSpeechResponse response = SynthesizeSpeechResponse.builder()
+                .requestCharacters(text.length())
+                .build();
+        return new ResponseInputStream<>(response,
+                AbortableInputStream.create(new ByteArrayInputStream(bytes(text))));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package com.voiceai.conversation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long HORIZON = 1L << 24;
+
+    private final List<Item> expired = new ArrayList<>();
+
+    @Test
+    void expiresExactlyAtDeadline() {
+        TimingWheel<Item> wheel = new TimingWheel<>(1_000_003);
+        Item item = new Item("a");
+        wheel.schedule(item, 1_000_040);
+
+        wheel.advanceTo(1_000_039, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advanceTo(1_000_040, expired::add);
+        assertThat(expired).containsExactly(item);
+    }
+
+    @Test
+    void pastDeadlineExpiresOnNextAdvance() {
+        TimingWheel<Item> wheel = new TimingWheel<>(500);
+        Item item = new Item("a");
+        wheel.schedule(item, 100);
+
+        wheel.advanceTo(501, expired::add);
+        assertThat(expired).containsExactly(item);
+    }
+
+    @Test
+    void rescheduleMovesTheDeadline() {
+        TimingWheel<Item> wheel = new TimingWheel<>(0);
+        Item item = new Item("a");
+        wheel.schedule(item, 10);
+        wheel.schedule(item, 5000);
+
+        wheel.advanceTo(4999, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advanceTo(5000, expired::add);
+        assertThat(expired).containsExactly(item);
+
+        wheel.schedule(item, 6000);
+        wheel.schedule(item, 5010);
+        wheel.advanceTo(5010, expired::add);
+        assertThat(expired).containsExactly(item, item);
+    }
+
+    @Test
+    void cancelledNodesNeverExpire() {
+        TimingWheel<Item> wheel = new TimingWheel<>(0);
+        Item kept = new Item("kept");
+        Item cancelled = new Item("cancelled");
+        wheel.schedule(kept, 70);
+        wheel.schedule(cancelled, 70);
+
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+        wheel.cancel(new Item("never scheduled"));
+        wheel.advanceTo(100, expired::add);
+
+        assertThat(expired).containsExactly(kept);
+        assertThat(wheel.pollEarliest()).isNull();
+    }
+
+    @Test
+    void cascadesEveryLevelDownToTheExactTick() {
+        long start = 123_457;
+        TimingWheel<Item> wheel = new TimingWheel<>(start);
+        List<Long> deadlines = List.of(start + 63, start + 64, start + 4095, start + 4096,
+                start + 262_143, start + 262_144, start + 5_000_000, start + HORIZON - 1);
+        for (long deadline : deadlines) {
+            wheel.schedule(new Item(String.valueOf(deadline)), deadline);
+        }
+
+        List<Long> expiredAt = new ArrayList<>();
+        for (long tick = start + 1; tick <= start + HORIZON; tick++) {
+            long now = tick;
+            wheel.advanceTo(tick, item -> {
+                assertThat(item.getDeadlineTick()).isEqualTo(now);
+                expiredAt.add(now);
+            });
+        }
+        assertThat(expiredAt).containsExactlyElementsOf(deadlines);
+    }
+
+    @Test
+    void deadlinesBeyondTheHorizonAreParkedUntilInRange() {
+        TimingWheel<Item> wheel = new TimingWheel<>(0);
+        Item item = new Item("far");
+        long deadline = 2 * HORIZON + 17;
+        wheel.schedule(item, deadline);
+
+        wheel.advanceTo(deadline - 1, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advanceTo(deadline, expired::add);
+        assertThat(expired).containsExactly(item);
+    }
+
+    @Test
+    void pollEarliestPrefersNearDeadlineOverFullRotationSlot() {
+        // At tick 63, a deadline 4033 ticks ahead lands in level-1 slot 0,
+        // the slot at offset 0 from the current level-1 position
+        TimingWheel<Item> wheel = new TimingWheel<>(63);
+        Item far = new Item("far");
+        Item near = new Item("near");
+        wheel.schedule(far, 63 + 4033);
+        wheel.schedule(near, 63 + 100);
+
+        assertThat(wheel.pollEarliest()).isSameAs(near);
+        assertThat(wheel.pollEarliest()).isSameAs(far);
+        assertThat(wheel.pollEarliest()).isNull();
+    }
+
+    @Test
+    void pollEarliestComparesAcrossLevels() {
+        TimingWheel<Item> wheel = new TimingWheel<>(10);
+        Item higher = new Item("level 1");
+        wheel.schedule(higher, 100);
+        wheel.advanceTo(60, expired::add);
+        Item lower = new Item("level 0");
+        wheel.schedule(lower, 120);
+
+        assertThat(wheel.pollEarliest()).isSameAs(higher);
+        assertThat(wheel.pollEarliest()).isSameAs(lower);
+    }
+
+    @Test
+    void pollEarliestDrainsInSlotOrder() {
+        long start = 987_654;
+        TimingWheel<Item> wheel = new TimingWheel<>(start);
+        Random random = new Random(42);
+        Set<Item> scheduled = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            Item item = new Item(String.valueOf(i));
+            wheel.schedule(item, start + 1 + random.nextInt(1 << 20));
+            scheduled.add(item);
+        }
+
+        Set<Item> polled = new HashSet<>();
+        long previousBlock = 0;
+        Item item;
+        while ((item = wheel.pollEarliest()) != null) {
+            assertThat(polled.add(item)).isTrue();
+            // Order is exact up to the granularity of the slot a node sits in,
+            // at most a top-level slot here
+            long block = item.getDeadlineTick() >>> 18;
+            assertThat(block).isGreaterThanOrEqualTo(previousBlock);
+            previousBlock = block;
+        }
+        assertThat(polled).isEqualTo(scheduled);
+
+        wheel.advanceTo(start + (1 << 20) + 1, expired::add);
+        assertThat(expired).isEmpty();
+    }
+
+    private static final class Item extends TimingWheel.Node {
+        private final String name;
+
+        Item(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
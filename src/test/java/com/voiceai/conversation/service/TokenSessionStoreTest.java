@@ -0,0 +1,258 @@
+package com.voiceai.conversation.service;
+
+import com.voiceai.conversation.config.exception.ServiceUnavailableException;
+import com.voiceai.conversation.config.exception.SessionNotFoundException;
+import com.voiceai.conversation.config.exception.StaleSessionTokenException;
+import com.voiceai.conversation.model.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenSessionStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private final SessionTokenCodec codec = new SessionTokenCodec(key(), null);
+    private final FakeRedis redis = new FakeRedis();
+    private final MetricsService metricsService = mock(MetricsService.class);
+
+    private MockHttpServletResponse response;
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void issuedTokenIsFoundInLaterRequests() {
+        TokenSessionStore store = store();
+        request(null);
+        store.save(new Session("s1", "intake", 1), TTL);
+        String token = issuedToken();
+
+        assertThat(token).isNotNull();
+        assertThat(store.find("s1").getRevision()).isEqualTo(1);
+        assertThat(redis.values).containsEntry(new RedisKeys("standalone").highWater("s1"), "1");
+
+        // A node that has never seen the session reads the mark from Redis
+        request(token);
+        Session found = store().find("s1");
+        assertThat(found.getRevision()).isEqualTo(1);
+        assertThat(found.getQuestionnaireId()).isEqualTo("intake");
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        TokenSessionStore store = store();
+        Session session = new Session("s1", "intake", 1);
+
+        request(codec.encode(session, Instant.now().minusSeconds(1)));
+
+        assertThat(store.find("s1")).isNull();
+    }
+
+    @Test
+    void tokenForAnotherSessionIsRejected() {
+        TokenSessionStore store = store();
+
+        request(codec.encode(new Session("s2", "intake", 1), Instant.now().plus(TTL)));
+
+        assertThat(store.find("s1")).isNull();
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        TokenSessionStore store = store();
+        String token = codec.encode(new Session("s1", "intake", 1), Instant.now().plus(TTL));
+
+        char flipped = token.charAt(5) == 'A' ? 'B' : 'A';
+        request(token.substring(0, 5) + flipped + token.substring(6));
+
+        assertThat(store.find("s1")).isNull();
+    }
+
+    @Test
+    void staleRevisionIsAConflict() {
+        TokenSessionStore store = store();
+        request(null);
+        store.save(new Session("s1", "intake", 1), TTL);
+        String first = issuedToken();
+        request(first);
+        store.save(store.find("s1"), TTL);
+
+        request(first);
+        assertThatThrownBy(() -> store.find("s1"))
+                .isInstanceOfSatisfying(StaleSessionTokenException.class,
+                        e -> assertThat(e.getPresented().getRevision()).isEqualTo(1));
+    }
+
+    @Test
+    void secondSaveFromTheSameTokenLoses() {
+        TokenSessionStore store = store();
+        request(null);
+        store.save(new Session("s1", "intake", 1), TTL);
+        String token = issuedToken();
+
+        // Two requests read the same token before either saves
+        request(token);
+        Session winner = store.find("s1");
+        request(token);
+        Session loser = store.find("s1");
+
+        request(token);
+        store.save(winner, TTL);
+        request(token);
+        assertThatThrownBy(() -> store.save(loser, TTL))
+                .isInstanceOf(StaleSessionTokenException.class);
+        assertThat(issuedToken()).isNull();
+        assertThat(loser.getRevision()).isEqualTo(1);
+        assertThat(redis.values).containsEntry(new RedisKeys("standalone").highWater("s1"), "2");
+    }
+
+    @Test
+    void revokedSessionIsNotFoundAndCannotBeSaved() {
+        TokenSessionStore store = store();
+        request(null);
+        store.save(new Session("s1", "intake", 1), TTL);
+        String token = issuedToken();
+        request(token);
+        Session session = store.find("s1");
+
+        store.delete("s1");
+
+        request(token);
+        assertThat(store.find("s1")).isNull();
+        assertThat(store().find("s1")).isNull();
+        assertThatThrownBy(() -> store().save(session, TTL))
+                .isInstanceOf(SessionNotFoundException.class);
+    }
+
+    @Test
+    void completedSessionIsReadableWithoutAToken() {
+        TokenSessionStore store = store();
+        Session session = new Session("s1", "intake", 1);
+        session.complete();
+        request(null);
+        store.save(session, TTL);
+
+        request(null);
+        Session found = store().find("s1");
+
+        assertThat(found).isNotNull();
+        assertThat(found.isCompleted()).isTrue();
+    }
+
+    @Test
+    void failedWriteFailsTheSaveAndIssuesNoToken() {
+        TokenSessionStore store = store();
+        Session session = new Session("s1", "intake", 1);
+        redis.failing = true;
+        request(null);
+
+        assertThatThrownBy(() -> store.save(session, TTL))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(issuedToken()).isNull();
+        assertThat(session.getRevision()).isZero();
+    }
+
+    private TokenSessionStore store() {
+        return new TokenSessionStore(codec, redis, new RedisKeys("standalone"),
+                mock(RedisConnectionFactory.class), metricsService, 24, 1000);
+    }
+
+    private void request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (token != null) {
+            request.addHeader(TokenSessionStore.TOKEN_HEADER, token);
+        }
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    private String issuedToken() {
+        return response.getHeader(TokenSessionStore.TOKEN_HEADER);
+    }
+
+    private static byte[] key() {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) 7);
+        return key;
+    }
+
+    /**
+     * Just enough of Redis for the token store, with the high-water script
+     * interpreted in Java.
+     */
+    private static final class FakeRedis extends StringRedisTemplate {
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+        private final ValueOperations<String, String> valueOperations = valueOperations();
+        private volatile boolean failing;
+
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return valueOperations;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            if (failing) {
+                throw new RedisConnectionFailureException("connection refused");
+            }
+            String current = values.get(keys.get(0));
+            if ("revoked".equals(current)) {
+                return (T) Long.valueOf(-1);
+            }
+            if (current != null && Long.parseLong(current) >= Long.parseLong((String) args[0])) {
+                return (T) Long.valueOf(0);
+            }
+            values.put(keys.get(0), (String) args[0]);
+            if (!"".equals(args[4])) {
+                values.put(keys.get(1), (String) args[4]);
+            }
+            return (T) Long.valueOf(1);
+        }
+
+        @Override
+        public Boolean delete(String key) {
+            return values.remove(key) != null;
+        }
+
+        @Override
+        public Long convertAndSend(String channel, Object message) {
+            return 0L;
+        }
+
+        private ValueOperations<String, String> valueOperations() {
+            @SuppressWarnings("unchecked")
+            ValueOperations<String, String> operations = mock(ValueOperations.class);
+            when(operations.get(anyString())).thenAnswer(invocation -> values.get(invocation.<String>getArgument(0)));
+            doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1)))
+                    .when(operations).set(anyString(), anyString(), any(Duration.class));
+            return operations;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.voiceai.conversation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceai.conversation.config.exception.DeadlineExceededException;
+import com.voiceai.conversation.model.Session;
+import com.voiceai.conversation.model.dto.ResponseSubmissionResult;
+import com.voiceai.conversation.service.TurnDeduplicator.TurnOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TurnDeduplicatorTest {
+
+    private static final byte[] AUDIO = {1, 2, 3, 4};
+    private static final TurnDeadline NO_DEADLINE = TurnDeadline.none();
+
+    private final SessionService sessionService = mock(SessionService.class);
+    private final MetricsService metricsService = mock(MetricsService.class);
+    private final RedisKeys redisKeys = new RedisKeys("standalone");
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void completedTurnIsReplayed() {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, false);
+        AtomicInteger runs = new AtomicInteger();
+
+        TurnOutcome first = deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "first"));
+        TurnOutcome second = deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "second"));
+
+        assertThat(runs).hasValue(1);
+        assertThat(second.result()).isSameAs(first.result());
+        assertThat(second.sessionToken()).isEqualTo("token-first");
+        verify(metricsService).incrementTurnDeduplicated("completed");
+        verify(metricsService).incrementAwsCallsAvoided("transcribe");
+    }
+
+    @Test
+    void differentKeysRunSeparately() {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, false);
+        AtomicInteger runs = new AtomicInteger();
+
+        deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "first"));
+        deduplicator.submit("s1", "k2", AUDIO, NO_DEADLINE, turn(runs, "second"));
+        deduplicator.submit("s2", "k1", AUDIO, NO_DEADLINE, turn(runs, "third"));
+
+        assertThat(runs).hasValue(3);
+    }
+
+    @Test
+    void duplicateWaitsForTheInFlightTurn() throws Exception {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, false);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<TurnOutcome> original = executor.submit(() -> deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, session -> {
+            started.countDown();
+            await(release);
+            return turn(runs, "original").apply(null);
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        Future<TurnOutcome> duplicate = executor.submit(() -> {
+            waiter.set(Thread.currentThread());
+            return deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "duplicate"));
+        });
+        awaitBlocked(waiter);
+        release.countDown();
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).result())
+                .isSameAs(original.get(5, TimeUnit.SECONDS).result());
+        assertThat(runs).hasValue(1);
+        verify(metricsService).incrementTurnDeduplicated("in_flight");
+    }
+
+    @Test
+    void duplicateSharesTheInFlightFailure() throws Exception {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("transcription failed");
+
+        Future<TurnOutcome> original = executor.submit(() -> deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, session -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        Future<TurnOutcome> duplicate = executor.submit(() -> {
+            waiter.set(Thread.currentThread());
+            return deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, turn(new AtomicInteger(), "duplicate"));
+        });
+        awaitBlocked(waiter);
+        release.countDown();
+
+        assertThatThrownBy(() -> original.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS)).hasCause(failure);
+    }
+
+    @Test
+    void duplicateGivesUpAtItsDeadline() throws Exception {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<TurnOutcome> original = executor.submit(() -> deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, session -> {
+            started.countDown();
+            await(release);
+            return turn(new AtomicInteger(), "original").apply(null);
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        TurnDeadline deadline = TurnDeadline.after(Duration.ofMillis(50));
+        assertThatThrownBy(() -> deduplicator.submit("s1", "k1", AUDIO, deadline,
+                turn(new AtomicInteger(), "duplicate")))
+                .isInstanceOf(DeadlineExceededException.class);
+        release.countDown();
+        original.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failedTurnReleasesItsClaim() {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, false);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThatThrownBy(() -> deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, session -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("classification failed");
+        })).isInstanceOf(IllegalStateException.class);
+        TurnOutcome retried = deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "retry"));
+
+        assertThat(runs).hasValue(2);
+        assertThat(retried.sessionToken()).isEqualTo("token-retry");
+    }
+
+    @Test
+    void failedTurnReleasesItsSharedClaim() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = values(redisTemplate);
+        when(values.setIfAbsent(anyString(), eq("pending"), any(Duration.class))).thenReturn(true);
+        TurnDeduplicator deduplicator = deduplicator("redis", redisTemplate, false);
+
+        assertThatThrownBy(() -> deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, session -> {
+            throw new IllegalStateException("classification failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(redisTemplate).delete(redisKeys.turn("s1", "key:k1"));
+    }
+
+    @Test
+    void sharedResultIsReplayedOnAnotherNode() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = values(redisTemplate);
+        when(values.setIfAbsent(anyString(), eq("pending"), any(Duration.class))).thenReturn(true);
+        AtomicInteger runs = new AtomicInteger();
+        TurnOutcome original = deduplicator("redis", redisTemplate, false)
+                .submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "original"));
+
+        String key = redisKeys.turn("s1", "key:k1");
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(values).set(eq(key), stored.capture(), any(Duration.class));
+        when(values.get(key)).thenReturn(stored.getValue());
+
+        TurnOutcome replayed = deduplicator("redis", redisTemplate, false)
+                .submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "duplicate"));
+
+        assertThat(runs).hasValue(1);
+        assertThat(replayed.sessionToken()).isEqualTo(original.sessionToken());
+        assertThat(replayed.result().getMessage()).isEqualTo("original");
+        verify(metricsService).incrementTurnDeduplicated("completed");
+    }
+
+    @Test
+    void sameAudioIsNotHashedUnlessEnabled() {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, false);
+        AtomicInteger runs = new AtomicInteger();
+
+        deduplicator.submit("s1", null, AUDIO, NO_DEADLINE, turn(runs, "first"));
+        deduplicator.submit("s1", null, AUDIO, NO_DEADLINE, turn(runs, "second"));
+
+        assertThat(runs).hasValue(2);
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    void sessionReadForTheAudioHashIsHandedToTheTurn() {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, true);
+        Session session = new Session("s1", "intake", 1);
+        when(sessionService.getSession("s1")).thenReturn(session);
+        AtomicReference<Session> handedOver = new AtomicReference<>();
+
+        deduplicator.submit("s1", null, AUDIO, NO_DEADLINE, read -> {
+            handedOver.set(read);
+            return turn(new AtomicInteger(), "first").apply(read);
+        });
+
+        assertThat(handedOver.get()).isSameAs(session);
+        verify(sessionService, times(1)).getSession("s1");
+    }
+
+    @Test
+    void sameAudioIsDeduplicatedOnlyForTheLatestTurn() {
+        TurnDeduplicator deduplicator = deduplicator("memory", null, true);
+        AtomicInteger runs = new AtomicInteger();
+        Session session = new Session("s1", "intake", 1);
+        when(sessionService.getSession("s1")).thenReturn(session);
+
+        deduplicator.submit("s1", null, AUDIO, NO_DEADLINE, turn(runs, "first"));
+        // The original turn advanced the session before its response was lost
+        session.setTurnCount(1);
+        TurnOutcome resubmitted = deduplicator.submit("s1", null, AUDIO, NO_DEADLINE, turn(runs, "resubmitted"));
+        session.setTurnCount(2);
+        TurnOutcome nextTurn = deduplicator.submit("s1", null, AUDIO, NO_DEADLINE, turn(runs, "next turn"));
+
+        assertThat(resubmitted.sessionToken()).isEqualTo("token-first");
+        assertThat(nextTurn.sessionToken()).isEqualTo("token-next turn");
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void disabledDeduplicatorAlwaysRuns() {
+        SessionStore sessionStore = mock(SessionStore.class);
+        when(sessionStore.name()).thenReturn("memory");
+        TurnDeduplicator deduplicator = new TurnDeduplicator(sessionService, sessionStore, provider(null), redisKeys,
+                objectMapper, metricsService, false, true, 120, 30_000);
+        AtomicInteger runs = new AtomicInteger();
+
+        deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "first"));
+        deduplicator.submit("s1", "k1", AUDIO, NO_DEADLINE, turn(runs, "second"));
+
+        assertThat(runs).hasValue(2);
+    }
+
+    private TurnDeduplicator deduplicator(String store, StringRedisTemplate redisTemplate, boolean audioHash) {
+        SessionStore sessionStore = mock(SessionStore.class);
+        when(sessionStore.name()).thenReturn(store);
+        return new TurnDeduplicator(sessionService, sessionStore, provider(redisTemplate), redisKeys,
+                objectMapper, metricsService, true, audioHash, 120, 30_000);
+    }
+
+    /**
+     * As injected with {@code session.store=memory}, when there is no template, or otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<StringRedisTemplate> provider(StringRedisTemplate redisTemplate) {
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(redisTemplate);
+        return provider;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValueOperations<String, String> values(StringRedisTemplate redisTemplate) {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        return values;
+    }
+
+    private static Function<Session, TurnOutcome> turn(AtomicInteger runs, String name) {
+        return session -> {
+            runs.incrementAndGet();
+            ResponseSubmissionResult result = new ResponseSubmissionResult();
+            result.setStatus("SUCCESS");
+            result.setMessage(name);
+            result.setTranscript("yes");
+            return new TurnOutcome(result, "token-" + name);
+        };
+    }
+
+    /**
+     * Waits until the duplicate is parked on the original's result.
+     */
+    private static void awaitBlocked(AtomicReference<Thread> waiter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (waiter.get() == null || waiter.get().getState() != Thread.State.TIMED_WAITING) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("duplicate never waited for the original");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("test latch timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}